@@ -0,0 +1,163 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Alpha shape (concave hull) extraction from a triangulation.
+ * <br>
+ * A triangle belongs to the shape if its circumradius is lower or equal to alpha, the shape is
+ * the union of these triangles (isolated vertices and edges are not reported). The boundary edges
+ * are the edges between a triangle of the shape and a triangle (or half plane) outside of it,
+ * they are followed around their vertices with the neighbor pointers and every ring is sent to the
+ * sink as soon as it is complete. Two rings may share a vertex.
+ * <br>
+ * The triangles are classified on the fly with their cached circumcircle, so a sweep over several
+ * alpha values only walks the triangle list once per value. The visited boundary edges of a
+ * triangle are stored in its mark: 8 stamps are reserved per alpha value, the stamp offset is the
+ * set of visited edges. The buffer of the current ring is reused between calls, an instance must
+ * not be shared between threads.
+ */
+public class AlphaShape {
+
+    private float[] xy = new float[64];
+    private int count;
+
+    /**
+     * extracts the boundary of the alpha shape.
+     *
+     * @return the number of rings
+     */
+    public int extract(DelaunayTriangulation triangulation, float alpha, AlphaShapeSink sink) {
+        return extract(triangulation, new float[]{alpha}, sink);
+    }
+
+    /**
+     * extracts the boundaries of the alpha shapes of the given values, in the given order.
+     *
+     * @return the number of rings
+     */
+    public int extract(DelaunayTriangulation triangulation, float[] alphas, AlphaShapeSink sink) {
+        List<Triangle> triangles = triangulation.getTriangles();
+        if (triangles.isEmpty() || alphas.length == 0) {
+            return 0;
+        }
+
+        int stamp = triangulation.reserveMarkStamps(8 * alphas.length);
+        int rings = 0;
+
+        for (int i = 0; i < alphas.length; i++) {
+            float alpha = alphas[i];
+            int alphaStamp = stamp + 8 * i;
+
+            for (Triangle t : triangles) {
+                if (!isInside(t, alpha)) {
+                    continue;
+                }
+                for (int edge = 0; edge < 3; edge++) {
+                    if (!visited(t, edge, alphaStamp) && !isInside(neighbor(t, edge), alpha)) {
+                        trace(t, edge, alpha, alphaStamp, sink);
+                        rings++;
+                    }
+                }
+            }
+        }
+
+        return rings;
+    }
+
+    /**
+     * returns true if the triangle belongs to the alpha shape.
+     */
+    public static boolean isInside(Triangle t, float alpha) {
+        return !t.halfplane && t.circum.getRadius() <= alpha;
+    }
+
+    private void trace(Triangle start, int startEdge, float alpha, int stamp, AlphaShapeSink sink) {
+        count = 0;
+        Triangle t = start;
+        int edge = startEdge;
+
+        do {
+            visit(t, edge, stamp);
+            add(corner(t, edge));
+
+            // Turn around the end vertex, through the shape, to the next boundary edge
+            Vector3 end = corner(t, (edge + 1) % 3);
+            edge = (edge + 1) % 3;
+            while (isInside(neighbor(t, edge), alpha)) {
+                t = neighbor(t, edge);
+                edge = indexOf(t, end);
+            }
+        } while (t != start || edge != startEdge);
+
+        sink.ring(alpha, xy, count, area() < 0);
+    }
+
+    private static boolean visited(Triangle t, int edge, int stamp) {
+        int bits = t.mark - stamp;
+        return bits >= 0 && bits < 8 && (bits & (1 << edge)) != 0;
+    }
+
+    private static void visit(Triangle t, int edge, int stamp) {
+        int bits = t.mark - stamp;
+        if (bits < 0 || bits >= 8) {
+            bits = 0;
+        }
+        t.mark = stamp + (bits | 1 << edge);
+    }
+
+    /**
+     * returns the index of the edge that starts at the vertex p.
+     */
+    private static int indexOf(Triangle t, Vector3 p) {
+        if (t.a == p) return 0;
+        if (t.b == p) return 1;
+        return 2;
+    }
+
+    private static Vector3 corner(Triangle t, int index) {
+        switch (index) {
+            case 0:
+                return t.a;
+            case 1:
+                return t.b;
+            default:
+                return t.c;
+        }
+    }
+
+    private static Triangle neighbor(Triangle t, int edge) {
+        switch (edge) {
+            case 0:
+                return t.abnext;
+            case 1:
+                return t.bcnext;
+            default:
+                return t.canext;
+        }
+    }
+
+    private void add(Vector3 p) {
+        if (2 * count + 2 > xy.length) {
+            xy = Arrays.copyOf(xy, xy.length * 2);
+        }
+        xy[2 * count] = p.x;
+        xy[2 * count + 1] = p.y;
+        count++;
+    }
+
+    /**
+     * returns twice the signed area of the current ring.
+     */
+    private float area() {
+        float area = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            area += xy[2 * j] * xy[2 * i + 1] - xy[2 * i] * xy[2 * j + 1];
+        }
+        return area;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Receives the boundary rings found by an AlphaShape, one ring at a time.
+ */
+public interface AlphaShapeSink {
+
+    /**
+     * called once per ring. Rings are oriented with the shape on their left: outer rings are
+     * counterclockwise, holes are clockwise.
+     *
+     * @param alpha the alpha value of the shape
+     * @param xy    the points as x0, y0, x1, y1, ... (the array is reused, copy it to keep it)
+     * @param count the number of points (the first point is not repeated)
+     * @param hole  true if the ring is a hole
+     */
+    void ring(float alpha, float[] xy, int count, boolean hole);
+
+}
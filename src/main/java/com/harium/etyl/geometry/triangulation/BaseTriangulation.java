@@ -2,11 +2,31 @@ package com.harium.etyl.geometry.triangulation;
 
 import com.badlogic.gdx.math.Vector3;
 
+import java.util.Arrays;
+import java.util.List;
+
 public abstract class BaseTriangulation implements Triangulation {
 
     // the triangle the found (search start from)
     protected Triangle startTriangle;
 
+    // opt-in instrumentation, null when disabled
+    protected TriangulationMetrics metrics;
+
+    // counters of the current operation, only updated when metrics are enabled
+    int walkSteps, orientationTests;
+
+    /**
+     * enables the instrumentation of this triangulation, null disables it.
+     */
+    public void setMetrics(TriangulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public TriangulationMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * finds the triangle the query point falls in, note if out-side of this
      * triangulation a half plane triangle will be returned (see contains), the
@@ -23,24 +43,87 @@ public abstract class BaseTriangulation implements Triangulation {
         Triangle searchTriangle = startTriangle;
 
         // Search for the point's triangle starting from searchTriangle
-        return find(searchTriangle, vertex);
+        return locate(searchTriangle, vertex);
+    }
+
+    /**
+     * finds the triangle the point falls in starting from curr,
+     * the walk length is reported when metrics are enabled.
+     */
+    protected Triangle locate(Triangle curr, Vector3 p) {
+        if (metrics == null) {
+            return find(curr, p);
+        }
+        walkSteps = 0;
+        Triangle t = find(curr, p, this);
+        metrics.walk(walkSteps);
+        return t;
     }
 
     protected static Triangle find(Triangle curr, Vector3 p) {
+        return find(curr, p, null);
+    }
+
+    /**
+     * the walk, counts the steps and the orientation tests in counter if it is not null.
+     */
+    private static Triangle find(Triangle curr, Vector3 p, BaseTriangulation counter) {
         if (p == null)
             return null;
+        return find(curr, Vector3d.x(p), Vector3d.y(p), p instanceof Vector3d, counter);
+    }
 
+    /**
+     * finds the triangle (x, y) falls in, the walk of find(Vector3) without a query point.
+     */
+    Triangle find(double x, double y) {
+        return find(startTriangle, x, y);
+    }
+
+    /**
+     * finds the triangle (x, y) falls in starting from start (see find(Vector3, Triangle)),
+     * coherent queries walk from the previous result.
+     */
+    Triangle find(Triangle start, double x, double y) {
+        if (start == null)
+            start = startTriangle;
+        if (start == null)
+            return null;
+        if (metrics == null) {
+            return find(start, x, y, null);
+        }
+        walkSteps = 0;
+        Triangle t = find(start, x, y, this);
+        metrics.walk(walkSteps);
+        return t;
+    }
+
+    /**
+     * the walk over coordinates, counts the steps and the orientation tests in counter if it is not null
+     * (without a counter it only reads the triangles, threads can walk a triangulation that does not change).
+     */
+    static Triangle find(Triangle curr, double x, double y, BaseTriangulation counter) {
+        return find(curr, x, y, true, counter);
+    }
+
+    /**
+     * the walk shared by the queries, a precise point is tested in double precision, otherwise
+     * as PointLineTest tests float vertices.
+     */
+    private static Triangle find(Triangle curr, double x, double y, boolean precise, BaseTriangulation counter) {
         Triangle next_t;
         if (curr.halfplane) {
-            next_t = findnext2(p, curr);
+            next_t = findnext2(null, curr);
             if (next_t == null || next_t.halfplane)
                 return curr;
             curr = next_t;
         }
         while (true) {
-            next_t = findnext1(p, curr);
+            next_t = findnext1(x, y, precise, curr, counter);
             if (next_t == null)
                 return curr;
+            if (counter != null)
+                counter.walkSteps++;
             if (next_t.halfplane)
                 return next_t;
             curr = next_t;
@@ -61,30 +144,129 @@ public abstract class BaseTriangulation implements Triangulation {
     public Triangle find(Vector3 p, Triangle start) {
         if (start == null)
             start = this.startTriangle;
-        Triangle T = find(start, p);
+        Triangle T = locate(start, p);
         return T;
     }
 
+    /**
+     * triangulates the points stored as x0, y0, z0, x1, y1, z1, ...
+     * <br>
+     * This implementation wraps every point in an IndexedVector3 and triangulates them as usual, the
+     * peak memory is the one of triangulate(List) (DelaunayTriangulation keeps its vertices, see
+     * VertexAttributes). SweepHullTriangulation reads the arrays directly, without any vertex or
+     * triangle object.
+     *
+     * @param xyz    the coordinates
+     * @param offset the array index of the first coordinate
+     * @param count  the number of points
+     * @return three indices (counterclockwise) per triangle, point i is stored at offset + 3 * i.
+     * Duplicated points are referenced by their first occurrence.
+     */
+    public int[] triangulate(float[] xyz, int offset, int count) {
+        Vector3[] points = new Vector3[count];
+        for (int i = 0, j = offset; i < count; i++, j += 3) {
+            points[i] = new IndexedVector3(xyz[j], xyz[j + 1], xyz[j + 2], i);
+        }
+        return triangulate(points);
+    }
+
+    /**
+     * double precision version of triangulate(float[], int, int), see Vector3d.
+     */
+    public int[] triangulate(double[] xyz, int offset, int count) {
+        Vector3[] points = new Vector3[count];
+        for (int i = 0, j = offset; i < count; i++, j += 3) {
+            points[i] = new IndexedVector3.Precise(xyz[j], xyz[j + 1], xyz[j + 2], i);
+        }
+        return triangulate(points);
+    }
+
+    /**
+     * triangulates the points stored in separate arrays, see triangulate(float[], int, int).
+     *
+     * @param x      the x coordinates
+     * @param y      the y coordinates
+     * @param z      the z coordinates, may be null
+     * @param offset the array index of the first point
+     * @param count  the number of points
+     * @return three indices (counterclockwise) per triangle, point i is stored at offset + i.
+     */
+    public int[] triangulate(float[] x, float[] y, float[] z, int offset, int count) {
+        Vector3[] points = new Vector3[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new IndexedVector3(x[offset + i], y[offset + i], z != null ? z[offset + i] : 0, i);
+        }
+        return triangulate(points);
+    }
+
+    /**
+     * double precision version of triangulate(float[], float[], float[], int, int), see Vector3d.
+     */
+    public int[] triangulate(double[] x, double[] y, double[] z, int offset, int count) {
+        Vector3[] points = new Vector3[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new IndexedVector3.Precise(x[offset + i], y[offset + i], z != null ? z[offset + i] : 0, i);
+        }
+        return triangulate(points);
+    }
+
+    /**
+     * triangulates the indexed points and converts the triangles to index triples.
+     */
+    private int[] triangulate(Vector3[] points) {
+        List<Triangle> triangles = triangulate(Arrays.asList(points));
+        if (triangles == null) {
+            return new int[0];
+        }
+
+        int[] indices = new int[triangles.size() * 3];
+        int i = 0;
+        for (Triangle t : triangles) {
+            indices[i++] = IndexedVector3.indexOf(t.a);
+            indices[i++] = IndexedVector3.indexOf(t.b);
+            indices[i++] = IndexedVector3.indexOf(t.c);
+        }
+        return indices;
+    }
+
     /*
      * assumes v is NOT an halfplane!
      * returns the next triangle for find.
      */
     protected static Triangle findnext1(Vector3 p, Triangle v) {
-        if (!v.abnext.halfplane && PointLineTest.pointLineTest(v.a, v.b, p) == PointLinePosition.RIGHT)
+        return findnext1(Vector3d.x(p), Vector3d.y(p), p instanceof Vector3d, v, null);
+    }
+
+    private static Triangle findnext1(double x, double y, boolean precise, Triangle v, BaseTriangulation counter) {
+        if (!v.abnext.halfplane && isRight(v.a, v.b, x, y, precise, counter))
             return v.abnext;
-        if (!v.bcnext.halfplane && PointLineTest.pointLineTest(v.b, v.c, p) == PointLinePosition.RIGHT)
+        if (!v.bcnext.halfplane && isRight(v.b, v.c, x, y, precise, counter))
             return v.bcnext;
-        if (!v.canext.halfplane && PointLineTest.pointLineTest(v.c, v.a, p) == PointLinePosition.RIGHT)
+        if (!v.canext.halfplane && isRight(v.c, v.a, x, y, precise, counter))
             return v.canext;
-        if (PointLineTest.pointLineTest(v.a, v.b, p) == PointLinePosition.RIGHT)
+        if (isRight(v.a, v.b, x, y, precise, counter))
             return v.abnext;
-        if (PointLineTest.pointLineTest(v.b, v.c, p) == PointLinePosition.RIGHT)
+        if (isRight(v.b, v.c, x, y, precise, counter))
             return v.bcnext;
-        if (PointLineTest.pointLineTest(v.c, v.a, p) == PointLinePosition.RIGHT)
+        if (isRight(v.c, v.a, x, y, precise, counter))
             return v.canext;
         return null;
     }
 
+    /**
+     * the RIGHT case of PointLineTest.pointLineTest, with float differences if no point is precise.
+     */
+    private static boolean isRight(Vector3 a, Vector3 b, double x, double y, boolean precise, BaseTriangulation counter) {
+        if (counter != null)
+            counter.orientationTests++;
+        if (!precise && !Vector3d.isPrecise(a, b)) {
+            double dx = b.x - a.x, dy = b.y - a.y;
+            return dy * ((float) x - a.x) - dx * ((float) y - a.y) > 0;
+        }
+        double ax = Vector3d.x(a), ay = Vector3d.y(a);
+        return (Vector3d.y(b) - ay) * (x - ax) - (Vector3d.x(b) - ax) * (y - ay) > 0;
+    }
+
     /** assumes v is an halfplane! - returns another (none halfplane) triangle */
     protected static Triangle findnext2(Vector3 p, Triangle v) {
         if (v.abnext != null && !v.abnext.halfplane)
@@ -0,0 +1,57 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Orientation predicate evaluated over batches of points, the points are given as separate x and y
+ * arrays. Used where many points are tested against one line: the half plane conflict queries of the
+ * tiled triangulations (see TileGrid) and the seed of SweepHullTriangulation.
+ * <br>
+ * On Java 17+ the multi-release jar evaluates the batches with the (incubator) Vector API when the
+ * jdk.incubator.vector module is available (--add-modules jdk.incubator.vector), otherwise and on
+ * older JVMs the scalar loop is used. Both produce the same values, the vector lanes run the same
+ * operations in the same order. The system property
+ * com.harium.etyl.geometry.triangulation.vector=false disables the vector version.
+ */
+public final class BatchPredicates {
+
+    private BatchPredicates() {
+    }
+
+    /**
+     * returns true if the batches are evaluated with the Vector API.
+     */
+    public static boolean isVectorized() {
+        return VectorSupport.ENABLED;
+    }
+
+    /**
+     * computes twice the signed area of (a, b, p) for every point p, positive if p is on the left of
+     * a-b (counterclockwise), negative on the right and 0 if collinear.
+     *
+     * @param x      the x coordinates of the points
+     * @param y      the y coordinates of the points
+     * @param result the areas, result[i] for the point i
+     * @param offset the index of the first point
+     * @param count  the number of points
+     */
+    public static void orientation(double ax, double ay, double bx, double by,
+                                   double[] x, double[] y, double[] result, int offset, int count) {
+        checkBounds(x, y, result, offset, count);
+
+        int i = offset;
+        if (VectorSupport.ENABLED) {
+            i = VectorSupport.orientation(ax, ay, bx, by, x, y, result, offset, count);
+        }
+
+        double dx = bx - ax, dy = by - ay;
+        for (int end = offset + count; i < end; i++) {
+            result[i] = dx * (y[i] - ay) - dy * (x[i] - ax);
+        }
+    }
+
+    private static void checkBounds(double[] x, double[] y, double[] result, int offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > x.length || offset + count > y.length || offset + count > result.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count);
+        }
+    }
+
+}
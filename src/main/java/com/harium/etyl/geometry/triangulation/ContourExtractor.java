@@ -0,0 +1,242 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contour (isoline) extraction from the z values of a triangulation.
+ * <br>
+ * A vertex is above a level if its z is greater or equal to the level, so every triangle is
+ * crossed by a level zero or two times. The contour is followed from triangle to triangle with
+ * the neighbor pointers and every polyline is sent to the sink as soon as it is complete.
+ * Open polylines start and end on the convex hull.
+ * <br>
+ * Every triangle is classified once: a binary search on the sorted levels gives the levels it
+ * spans, the triangles are then bucketed by level (one int per crossing). The triangles crossed
+ * by a level are tagged with a mark stamp while it is traced. The polyline buffer is reused
+ * between calls, an instance must not be shared between threads.
+ * <br>
+ * The vertices are read in double precision (see Vector3d), only the polyline points are floats.
+ */
+public class ContourExtractor {
+
+    private float[] xy = new float[64];
+    private int count;
+
+    /**
+     * extracts the contours every interval units (levels are multiples of interval).
+     *
+     * @return the number of polylines
+     */
+    public int extract(DelaunayTriangulation triangulation, float interval, ContourSink sink) {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("Invalid interval: " + interval);
+        }
+        if (triangulation.size() == 0) {
+            return 0;
+        }
+
+        Vector3 min = triangulation.minBoundingBox();
+        Vector3 max = triangulation.maxBoundingBox();
+        long first = (long) Math.ceil(min.z / interval);
+        long last = (long) Math.floor(max.z / interval);
+
+        float[] levels = new float[(int) Math.max(0, last - first + 1)];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = (first + i) * interval;
+        }
+        return extract(triangulation, levels, sink);
+    }
+
+    /**
+     * extracts the contours of the given levels.
+     *
+     * @return the number of polylines
+     */
+    public int extract(DelaunayTriangulation triangulation, float[] levels, ContourSink sink) {
+        List<Triangle> triangles = triangulation.getTriangles();
+        if (triangles.isEmpty() || levels.length == 0) {
+            return 0;
+        }
+
+        float[] sorted = levels.clone();
+        Arrays.sort(sorted);
+
+        // The levels crossed by triangle i are [begin[i], end[i]), a level is crossed if min < level <= max
+        int n = triangles.size();
+        int[] begin = new int[n];
+        int[] end = new int[n];
+        int[] offsets = new int[sorted.length + 1];
+        for (int i = 0; i < n; i++) {
+            Triangle t = triangles.get(i);
+            double az = Vector3d.z(t.a), bz = Vector3d.z(t.b), cz = Vector3d.z(t.c);
+            double min = Math.min(az, Math.min(bz, cz));
+            double max = Math.max(az, Math.max(bz, cz));
+            begin[i] = upperBound(sorted, min);
+            end[i] = upperBound(sorted, max);
+            for (int l = begin[i]; l < end[i]; l++) {
+                offsets[l + 1]++;
+            }
+        }
+        for (int l = 1; l < offsets.length; l++) {
+            offsets[l] += offsets[l - 1];
+        }
+
+        int[] crossed = new int[offsets[sorted.length]];
+        int[] next = Arrays.copyOf(offsets, sorted.length);
+        for (int i = 0; i < n; i++) {
+            for (int l = begin[i]; l < end[i]; l++) {
+                crossed[next[l]++] = i;
+            }
+        }
+
+        int stamp = triangulation.reserveMarkStamps(sorted.length);
+        int polylines = 0;
+
+        for (int l = 0; l < sorted.length; l++) {
+            float level = sorted[l];
+            int levelStamp = stamp + l;
+
+            for (int k = offsets[l]; k < offsets[l + 1]; k++) {
+                Triangle t = triangles.get(crossed[k]);
+                if (t.mark == levelStamp) {
+                    continue;
+                }
+                trace(t, level, levelStamp, sink);
+                polylines++;
+            }
+        }
+
+        return polylines;
+    }
+
+    /**
+     * returns the index of the first level greater than z.
+     */
+    private static int upperBound(float[] sorted, double z) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] > z) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private void trace(Triangle start, float level, int stamp, ContourSink sink) {
+        // Walk backwards to the beginning of an open polyline
+        Triangle t = start;
+        while (true) {
+            Triangle previous = neighbor(t, entry(t, level));
+            if (previous.halfplane) {
+                start = t;
+                break;
+            }
+            if (previous == start) {
+                t = start;
+                break;
+            }
+            t = previous;
+        }
+
+        count = 0;
+        int edge = entry(t, level);
+        add(t, edge, level);
+
+        boolean closed;
+        while (true) {
+            t.mark = stamp;
+            edge = exit(t, level);
+
+            Triangle next = neighbor(t, edge);
+            if (next == start) {
+                closed = true;
+                break;
+            }
+
+            add(t, edge, level);
+            if (next.halfplane) {
+                closed = false;
+                break;
+            }
+            t = next;
+        }
+
+        sink.contour(level, xy, count, closed);
+    }
+
+    /**
+     * returns the edge where the level enters the triangle (above on the left), -1 if it is not crossed.
+     */
+    private static int entry(Triangle t, float level) {
+        boolean a = Vector3d.z(t.a) >= level, b = Vector3d.z(t.b) >= level, c = Vector3d.z(t.c) >= level;
+        if (a && !b) return 0;
+        if (b && !c) return 1;
+        if (c && !a) return 2;
+        return -1;
+    }
+
+    /**
+     * returns the edge where the level leaves the triangle.
+     */
+    private static int exit(Triangle t, float level) {
+        boolean a = Vector3d.z(t.a) >= level, b = Vector3d.z(t.b) >= level, c = Vector3d.z(t.c) >= level;
+        if (!a && b) return 0;
+        if (!b && c) return 1;
+        return 2;
+    }
+
+    private static Triangle neighbor(Triangle t, int edge) {
+        switch (edge) {
+            case 0:
+                return t.abnext;
+            case 1:
+                return t.bcnext;
+            default:
+                return t.canext;
+        }
+    }
+
+    /**
+     * adds the point where the level crosses the edge.
+     */
+    private void add(Triangle t, int edge, float level) {
+        Vector3 p, q;
+        switch (edge) {
+            case 0:
+                p = t.a;
+                q = t.b;
+                break;
+            case 1:
+                p = t.b;
+                q = t.c;
+                break;
+            default:
+                p = t.c;
+                q = t.a;
+                break;
+        }
+
+        // Interpolate from the lower vertex, so both triangles of an edge compute the same point
+        if (Vector3d.z(p) > Vector3d.z(q)) {
+            Vector3 swap = p;
+            p = q;
+            q = swap;
+        }
+        double px = Vector3d.x(p), py = Vector3d.y(p), pz = Vector3d.z(p);
+        double s = (level - pz) / (Vector3d.z(q) - pz);
+
+        if (2 * count + 2 > xy.length) {
+            xy = Arrays.copyOf(xy, xy.length * 2);
+        }
+        xy[2 * count] = (float) (px + s * (Vector3d.x(q) - px));
+        xy[2 * count + 1] = (float) (py + s * (Vector3d.y(q) - py));
+        count++;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Receives the contour lines found by a ContourExtractor, one polyline at a time.
+ */
+public interface ContourSink {
+
+    /**
+     * called once per polyline. Polylines are oriented with the higher ground on their left.
+     *
+     * @param level  the height of the contour
+     * @param xy     the points as x0, y0, x1, y1, ... (the array is reused, copy it to keep it)
+     * @param count  the number of points
+     * @param closed true if the last point connects back to the first one (the first point is not repeated)
+     */
+    void contour(float level, float[] xy, int count, boolean closed);
+
+}
@@ -0,0 +1,882 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 3D Delaunay tetrahedralization (Bowyer-Watson), for volumetric point clouds.
+ * <br>
+ * Follows the design of DelaunayTriangulation in 3D:<br>
+ * - the points are inserted in a biased randomized order (BRIO): rounds of growing size, each one
+ * sorted along a Morton curve, so consecutive points are close and the hull is found early. <br>
+ * - point location is a walk from the last created tetrahedron. <br>
+ * - the hull is closed by infinite tetrahedra (a hull facet plus a vertex at infinity, the 3D half planes),
+ * points outside the hull are located and inserted like the inner ones. <br>
+ * - the adjacency is stored in flat int arrays: 4 vertices and 4 neighbors per tetrahedron,
+ * about 200 bytes per point. <br>
+ * <br>
+ * Every tetrahedron is positively oriented (see orient) and corner i faces the face opposite to it,
+ * neighbor i is the tetrahedron across that face. The cavity of a new point is made of the
+ * tetrahedra whose circumsphere strictly contains it.
+ * <br>
+ * The orientation and in-sphere predicates are exact: the floating point result is used when it is
+ * larger than its error bound (Shewchuk), the rare ambiguous cases are computed again with
+ * integers (BigInteger, the doubles scaled by the same power of two). So cospherical, coplanar and
+ * nearly duplicated points (one ulp apart) cannot create a flat tetrahedron, the cavity is always
+ * star-shaped from the new point and every insertion ends.
+ * The cavity is still checked: one that would not be valid grows, and a point whose cavity would
+ * swallow a vertex is skipped, the tetrahedralization is never broken.
+ * <br>
+ * Duplicated points are ignored (only one of them is a vertex). If all the points are coplanar
+ * there is no tetrahedron.
+ */
+public class DelaunayTetrahedralization {
+
+    // the vertices of face i (opposite to corner i), ordered so corner i is on the positive side
+    private static final int[][] FACES = {{1, 3, 2}, {0, 2, 3}, {0, 3, 1}, {0, 1, 2}};
+
+    private static final int FREE = -1;
+
+    // error bounds of the floating point predicates, relative to their permanent, plus an absolute
+    // term for the products that underflow (times a power of the largest difference)
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+    private static final double UNDERFLOW = 0x1p-1000;
+    private static final double COLLINEAR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+    private static final double ORIENT_BOUND = (7 + 56 * EPSILON) * EPSILON;
+    private static final double SPHERE_BOUND = (16 + 224 * EPSILON) * EPSILON;
+
+    // x, y, z of the points in insertion order, and their input indices
+    private double[] coords;
+    private int[] ids;
+    // the vertex at infinity
+    private int infinite;
+
+    // vertices and neighbors of the tetrahedra, neighbor = 4 * tetrahedron + face in the neighbor
+    private int[] tv, tn;
+    private int size;
+    private int[] free = new int[64];
+    private int freeCount;
+
+    private int[] marks;
+    private int stamp;
+
+    private int last = -1;
+    private int seed = 0x2545F491;
+
+    // cavity of the current insertion and its boundary (cavity tetrahedron, face, outside neighbor)
+    private int[] cavity = new int[64];
+    private int cavityCount;
+    private int[] boundary = new int[64 * 3];
+    // the slots of the edges of the boundary facets in the edge table
+    private int[] boundaryEdges = new int[64 * 3];
+    private int boundaryCount;
+    // the vertices of the boundary of the current insertion (stamp)
+    private int[] vertexMarks;
+    // hash table of the edges of the boundary: minus one minus the number of facets, then the new
+    // tetrahedra waiting for their neighbor (vertex u, vertex v, value), a slot is used if its stamp
+    // is the current one
+    private int[] edges = new int[128 * 3];
+    private int[] edgeStamps = new int[128];
+    private int edgeStamp;
+
+    // compact output, the finite tetrahedra only
+    private int[] tetrahedra, neighbors, compact;
+
+    /**
+     * tetrahedralizes the points, null points are ignored.
+     *
+     * @return the number of tetrahedra
+     */
+    public int tetrahedralize(List<Vector3> points) {
+        int n = points.size();
+        double[] xyz = new double[n * 3];
+        boolean[] skip = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Vector3 p = points.get(i);
+            if (p == null) {
+                skip[i] = true;
+                continue;
+            }
+            xyz[3 * i] = Vector3d.x(p);
+            xyz[3 * i + 1] = Vector3d.y(p);
+            xyz[3 * i + 2] = Vector3d.z(p);
+        }
+        return tetrahedralize(xyz, skip, n);
+    }
+
+    /**
+     * tetrahedralizes the points stored as x0, y0, z0, x1, y1, z1, ...
+     *
+     * @return the number of tetrahedra
+     */
+    public int tetrahedralize(float[] xyz, int offset, int count) {
+        double[] coordinates = new double[count * 3];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = xyz[offset + i];
+        }
+        return tetrahedralize(coordinates, null, count);
+    }
+
+    /**
+     * double precision version of tetrahedralize(float[], int, int).
+     *
+     * @return the number of tetrahedra
+     */
+    public int tetrahedralize(double[] xyz, int offset, int count) {
+        return tetrahedralize(Arrays.copyOfRange(xyz, offset, offset + count * 3), null, count);
+    }
+
+    /**
+     * returns the number of tetrahedra.
+     */
+    public int getTetrahedronCount() {
+        return tetrahedra != null ? tetrahedra.length / 4 : 0;
+    }
+
+    /**
+     * returns 4 vertex indices (input order) per tetrahedron, positively oriented.
+     */
+    public int[] getTetrahedra() {
+        return tetrahedra != null ? tetrahedra : new int[0];
+    }
+
+    /**
+     * returns 4 neighbors per tetrahedron, neighbor i is across the face opposite to corner i,
+     * -1 on the convex hull.
+     */
+    public int[] getNeighbors() {
+        return neighbors != null ? neighbors : new int[0];
+    }
+
+    /**
+     * finds the tetrahedron that contains the point.
+     *
+     * @return the index of the tetrahedron, -1 if the point is outside the convex hull
+     */
+    public int locate(double x, double y, double z) {
+        if (tetrahedra == null || tetrahedra.length == 0) {
+            return -1;
+        }
+        int t = walk(last, x, y, z);
+        return isInfinite(t) ? -1 : compact[t];
+    }
+
+    /**
+     * returns six times the signed volume of (a, b, c, d), positive if d is on the side of
+     * (a, b, c) where they appear counterclockwise. The sign is exact.
+     */
+    public static double orient(double ax, double ay, double az, double bx, double by, double bz,
+                                double cx, double cy, double cz, double dx, double dy, double dz) {
+        double ux = bx - ax, uy = by - ay, uz = bz - az;
+        double vx = cx - ax, vy = cy - ay, vz = cz - az;
+        double wx = dx - ax, wy = dy - ay, wz = dz - az;
+
+        double vywz = vy * wz, vzwy = vz * wy;
+        double vxwz = vx * wz, vzwx = vz * wx;
+        double vxwy = vx * wy, vywx = vy * wx;
+        double det = ux * (vywz - vzwy) - uy * (vxwz - vzwx) + uz * (vxwy - vywx);
+        double permanent = Math.abs(ux) * (Math.abs(vywz) + Math.abs(vzwy))
+                + Math.abs(uy) * (Math.abs(vxwz) + Math.abs(vzwx))
+                + Math.abs(uz) * (Math.abs(vxwy) + Math.abs(vywx));
+        double scale = 1 + Math.abs(ux) + Math.abs(uy) + Math.abs(uz);
+        if (Math.abs(det) > ORIENT_BOUND * permanent + UNDERFLOW * scale) {
+            return det;
+        }
+
+        int shift = lowest(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz);
+        BigInteger a = exact(ax, shift), b = exact(ay, shift), c = exact(az, shift);
+        BigInteger eux = exact(bx, shift).subtract(a), euy = exact(by, shift).subtract(b), euz = exact(bz, shift).subtract(c);
+        BigInteger evx = exact(cx, shift).subtract(a), evy = exact(cy, shift).subtract(b), evz = exact(cz, shift).subtract(c);
+        BigInteger ewx = exact(dx, shift).subtract(a), ewy = exact(dy, shift).subtract(b), ewz = exact(dz, shift).subtract(c);
+        BigInteger exactDet = eux.multiply(evy.multiply(ewz).subtract(evz.multiply(ewy)))
+                .subtract(euy.multiply(evx.multiply(ewz).subtract(evz.multiply(ewx))))
+                .add(euz.multiply(evx.multiply(ewy).subtract(evy.multiply(ewx))));
+        return toDouble(exactDet, 3 * shift);
+    }
+
+    private int tetrahedralize(double[] xyz, boolean[] skip, int n) {
+        // Renumbered in insertion order, so close points are close in memory
+        ids = spatialOrder(xyz, skip, n);
+        int count = ids.length;
+        coords = new double[count * 3];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(xyz, 3 * ids[i], coords, 3 * i, 3);
+        }
+        infinite = count;
+
+        int capacity = Math.max(7 * count, 16);
+        tv = new int[capacity * 4];
+        tn = new int[capacity * 4];
+        marks = new int[capacity];
+        vertexMarks = new int[count + 1];
+        size = 0;
+        freeCount = 0;
+        last = -1;
+        tetrahedra = neighbors = compact = null;
+
+        int[] seeds = seeds(count);
+        if (seeds == null) {
+            tetrahedra = new int[0];
+            neighbors = new int[0];
+            return 0;
+        }
+        start(seeds[0], seeds[1], seeds[2], seeds[3]);
+
+        for (int i = 0; i < count; i++) {
+            if (i != seeds[0] && i != seeds[1] && i != seeds[2] && i != seeds[3]) {
+                insert(i);
+            }
+        }
+
+        finish();
+        return tetrahedra.length / 4;
+    }
+
+    /**
+     * returns the insertion order of the points that are not skipped (see SpatialOrder).
+     */
+    private static int[] spatialOrder(double[] xyz, boolean[] skip, int n) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (skip != null && skip[i]) continue;
+            minX = Math.min(minX, xyz[3 * i]);
+            minY = Math.min(minY, xyz[3 * i + 1]);
+            minZ = Math.min(minZ, xyz[3 * i + 2]);
+            maxX = Math.max(maxX, xyz[3 * i]);
+            maxY = Math.max(maxY, xyz[3 * i + 1]);
+            maxZ = Math.max(maxZ, xyz[3 * i + 2]);
+            count++;
+        }
+
+        double extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        double scale = extent > 0 ? 1023 / extent : 0;
+
+        long[] keys = new long[count];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (skip != null && skip[i]) continue;
+            keys[k++] = SpatialOrder.key((int) ((xyz[3 * i] - minX) * scale), (int) ((xyz[3 * i + 1] - minY) * scale),
+                    (int) ((xyz[3 * i + 2] - minZ) * scale), i);
+        }
+        return SpatialOrder.order(keys);
+    }
+
+    /**
+     * finds the first 4 affinely independent points, null if all the points are coplanar.
+     */
+    private int[] seeds(int count) {
+        int a = -1, b = -1, c = -1;
+        for (int i = 0; i < count; i++) {
+            if (a < 0) {
+                a = i;
+            } else if (b < 0) {
+                if (coords[3 * i] != coords[3 * a] || coords[3 * i + 1] != coords[3 * a + 1] || coords[3 * i + 2] != coords[3 * a + 2]) b = i;
+            } else if (c < 0) {
+                if (!collinear(a, b, i)) c = i;
+            } else if (orient(a, b, c, i) != 0) {
+                return orient(a, b, c, i) > 0 ? new int[]{a, b, c, i} : new int[]{b, a, c, i};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * creates the first tetrahedron and the 4 infinite ones around it.
+     */
+    private void start(int a, int b, int c, int d) {
+        int t = allocate(a, b, c, d);
+        int[] hull = new int[4];
+        for (int i = 0; i < 4; i++) {
+            int[] f = FACES[i];
+            // Reversed face, the inside is on the negative side
+            hull[i] = allocate(tv[4 * t + f[0]], tv[4 * t + f[2]], tv[4 * t + f[1]], infinite);
+            link(t, i, hull[i], 3);
+        }
+
+        // The infinite tetrahedra share the hull edges
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (tn[4 * hull[i] + j] >= 0) continue;
+                int u = tv[4 * hull[i] + FACES[j][0]], v = tv[4 * hull[i] + FACES[j][1]], w = tv[4 * hull[i] + FACES[j][2]];
+                for (int k = 0; k < 4 && tn[4 * hull[i] + j] < 0; k++) {
+                    if (k == i) continue;
+                    for (int m = 0; m < 3; m++) {
+                        if (sameFace(hull[k], m, u, v, w)) {
+                            link(hull[i], j, hull[k], m);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        last = t;
+    }
+
+    private boolean sameFace(int t, int face, int u, int v, int w) {
+        int a = tv[4 * t + FACES[face][0]], b = tv[4 * t + FACES[face][1]], c = tv[4 * t + FACES[face][2]];
+        return (a == u || a == v || a == w) && (b == u || b == v || b == w) && (c == u || c == v || c == w);
+    }
+
+    private void insert(int p) {
+        int t = walk(last, coords[3 * p], coords[3 * p + 1], coords[3 * p + 2]);
+
+        for (int i = 0; i < 4; i++) {
+            int v = tv[4 * t + i];
+            if (v != infinite && coords[3 * v] == coords[3 * p] && coords[3 * v + 1] == coords[3 * p + 1] && coords[3 * v + 2] == coords[3 * p + 2]) {
+                // Duplicated point
+                return;
+            }
+        }
+
+        // Cavity: the tetrahedra whose circumsphere strictly contains p, the located one included
+        stamp++;
+        cavityCount = 0;
+        addToCavity(t);
+        for (int k = 0; k < cavityCount; k++) {
+            int c = cavity[k];
+            for (int i = 0; i < 4; i++) {
+                int o = tn[4 * c + i] >> 2;
+                if (marks[o] != stamp && conflict(o, p)) {
+                    addToCavity(o);
+                }
+            }
+        }
+
+        // Every boundary facet must see p and every boundary edge must join two facets, otherwise
+        // the cavity grows. It only grows, so this ends
+        while (!collectBoundary(p) || !manifold()) {
+            // the offending neighbors were added
+        }
+        if (boundaryCount == 0 || swallows()) {
+            // Not a valid cavity, the point is skipped and the tetrahedra are kept
+            return;
+        }
+
+        // Free the cavity before creating the new tetrahedra, so they reuse the slots
+        for (int k = 0; k < cavityCount; k++) {
+            release(cavity[k]);
+        }
+
+        int created = -1;
+        for (int k = 0; k < boundaryCount; k++) {
+            int o = boundary[3 * k + 1], oface = boundary[3 * k + 2];
+            // The facet as seen from the cavity: the reverse of the face of o
+            int f0 = tv[4 * o + FACES[oface][0]];
+            int f1 = tv[4 * o + FACES[oface][2]];
+            int f2 = tv[4 * o + FACES[oface][1]];
+
+            int n = allocate(f0, f1, f2, p);
+            link(n, 3, o, oface);
+            glue(n, 0, boundaryEdges[3 * k + 1]);
+            glue(n, 1, boundaryEdges[3 * k]);
+            glue(n, 2, boundaryEdges[3 * k + 2]);
+
+            if (created < 0 || !isInfinite(n)) {
+                created = n;
+            }
+        }
+        last = created;
+    }
+
+    /**
+     * collects the boundary of the cavity, returns false (after enlarging the cavity) if a
+     * boundary facet does not see p.
+     */
+    private boolean collectBoundary(int p) {
+        boundaryCount = 0;
+        boolean valid = true;
+        for (int k = 0; k < cavityCount; k++) {
+            int c = cavity[k];
+            for (int i = 0; i < 4; i++) {
+                int neighbor = tn[4 * c + i];
+                int o = neighbor >> 2, oface = neighbor & 3;
+                if (marks[o] == stamp) {
+                    continue;
+                }
+
+                if (!visible(o, oface, p)) {
+                    addToCavity(o);
+                    valid = false;
+                    continue;
+                }
+
+                if (3 * boundaryCount + 3 > boundary.length) {
+                    boundary = Arrays.copyOf(boundary, boundary.length * 2);
+                    boundaryEdges = Arrays.copyOf(boundaryEdges, boundaryEdges.length * 2);
+                }
+                boundary[3 * boundaryCount] = c;
+                boundary[3 * boundaryCount + 1] = o;
+                boundary[3 * boundaryCount + 2] = oface;
+                boundaryCount++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * returns false (after enlarging the cavity) if an edge of the boundary is not shared by exactly
+     * two facets, the new tetrahedra could not be glued.
+     */
+    private boolean manifold() {
+        if (edgeStamps.length < 4 * boundaryCount) {
+            int length = Integer.highestOneBit(4 * boundaryCount) * 2;
+            edges = new int[length * 3];
+            edgeStamps = new int[length];
+        }
+
+        edgeStamp++;
+        int pairs = 0;
+        boolean pinched = false;
+        for (int k = 0; k < boundaryCount; k++) {
+            int o = boundary[3 * k + 1], oface = boundary[3 * k + 2];
+            for (int j = 0; j < 3; j++) {
+                int slot = slot(tv[4 * o + FACES[oface][j]], tv[4 * o + FACES[oface][(j + 1) % 3]]);
+                boundaryEdges[3 * k + j] = slot;
+                // Counted down from -1, glue takes any negative value for a free slot
+                int count = -1 - --edges[3 * slot + 2];
+                if (count == 2) {
+                    pairs++;
+                } else if (count > 2) {
+                    pinched = true;
+                }
+            }
+        }
+        if (!pinched && 2 * pairs == 3 * boundaryCount) {
+            return true;
+        }
+
+        boolean valid = true;
+        for (int k = 0; k < boundaryCount; k++) {
+            int o = boundary[3 * k + 1], oface = boundary[3 * k + 2];
+            for (int j = 0; j < 3; j++) {
+                if (edges[3 * boundaryEdges[3 * k + j] + 2] != -3 && marks[o] != stamp) {
+                    addToCavity(o);
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * returns true if a vertex of the cavity is not on its boundary, the new tetrahedra would lose it.
+     */
+    private boolean swallows() {
+        for (int k = 0; k < boundaryCount; k++) {
+            int o = boundary[3 * k + 1], oface = boundary[3 * k + 2];
+            for (int j = 0; j < 3; j++) {
+                vertexMarks[tv[4 * o + FACES[oface][j]]] = stamp;
+            }
+        }
+        for (int k = 0; k < cavityCount; k++) {
+            for (int i = 0; i < 4; i++) {
+                int v = tv[4 * cavity[k] + i];
+                if (v != infinite && vertexMarks[v] != stamp) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * returns true if the face of o can be connected to p: p is strictly on the other side of the
+     * face (finite faces) or not collinear with its finite edge (faces with the vertex at infinity).
+     */
+    private boolean visible(int o, int face, int p) {
+        int a = tv[4 * o + FACES[face][0]], b = tv[4 * o + FACES[face][1]], c = tv[4 * o + FACES[face][2]];
+        if (a == infinite) return !collinear(b, c, p);
+        if (b == infinite) return !collinear(a, c, p);
+        if (c == infinite) return !collinear(a, b, p);
+        // The corner of o is on the positive side, p must be on the negative one
+        return orient(a, c, b, p) > 0;
+    }
+
+    /**
+     * links the face of the new tetrahedron n that contains p and the edge in slot with the
+     * new tetrahedron that shares it.
+     */
+    private void glue(int n, int face, int slot) {
+        int other = edges[3 * slot + 2];
+        if (other >= 0) {
+            link(n, face, other >> 2, other & 3);
+        } else {
+            edges[3 * slot + 2] = 4 * n + face;
+        }
+    }
+
+    /**
+     * returns the slot of the edge (u, v) in the hash table, a new slot has the value -1.
+     */
+    private int slot(int u, int v) {
+        int lo = Math.min(u, v), hi = Math.max(u, v);
+        int mask = edgeStamps.length - 1;
+        int slot = ((lo * 0x9E3779B1 ^ hi) * 0x85EBCA6B >>> 16) & mask;
+        while (edgeStamps[slot] == edgeStamp) {
+            if (edges[3 * slot] == lo && edges[3 * slot + 1] == hi) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        edgeStamps[slot] = edgeStamp;
+        edges[3 * slot] = lo;
+        edges[3 * slot + 1] = hi;
+        edges[3 * slot + 2] = -1;
+        return slot;
+    }
+
+    /**
+     * walks from the tetrahedron start to the one that contains the point,
+     * returns an infinite tetrahedron if the point is outside the hull.
+     */
+    private int walk(int start, double x, double y, double z) {
+        int t = start;
+        if (isInfinite(t)) {
+            t = tn[4 * t + infiniteCorner(t)] >> 2;
+        }
+
+        int steps = 0;
+        walk:
+        while (true) {
+            if (++steps > size) {
+                // Not expected with exact predicates, kept as a bound
+                return scan(x, y, z);
+            }
+
+            // Random first face, so the walk cannot cycle
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            int r = seed & 3;
+
+            for (int k = 0; k < 4; k++) {
+                int i = (r + k) & 3;
+                if (side(t, i, x, y, z) < 0) {
+                    t = tn[4 * t + i] >> 2;
+                    if (isInfinite(t)) {
+                        return t;
+                    }
+                    continue walk;
+                }
+            }
+            return t;
+        }
+    }
+
+    /**
+     * finds the tetrahedron that contains the point by testing all of them: the finite tetrahedron the
+     * point is the deepest inside, or an infinite one if the point is beyond its hull facet.
+     */
+    private int scan(double x, double y, double z) {
+        int best = -1, beyond = -1;
+        double deepest = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < size; t++) {
+            if (tv[4 * t] == FREE) {
+                continue;
+            }
+            int k = infiniteCorner(t);
+            if (k >= 0) {
+                if (beyond < 0 && side(t, k, x, y, z) > 0) {
+                    beyond = t;
+                }
+                continue;
+            }
+
+            double depth = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < 4; i++) {
+                depth = Math.min(depth, side(t, i, x, y, z));
+            }
+            if (depth > deepest) {
+                deepest = depth;
+                best = t;
+            }
+        }
+        return deepest < 0 && beyond >= 0 ? beyond : best;
+    }
+
+    /**
+     * returns the orientation of the face i of t and the point, positive on the side of corner i.
+     */
+    private double side(int t, int i, double x, double y, double z) {
+        int a = tv[4 * t + FACES[i][0]], b = tv[4 * t + FACES[i][1]], c = tv[4 * t + FACES[i][2]];
+        return orient(coords[3 * a], coords[3 * a + 1], coords[3 * a + 2], coords[3 * b], coords[3 * b + 1], coords[3 * b + 2], coords[3 * c], coords[3 * c + 1], coords[3 * c + 2], x, y, z);
+    }
+
+    /**
+     * returns true if p is strictly inside the circumsphere of t (for infinite tetrahedra: beyond the
+     * hull facet, or on its plane and strictly inside its circumcircle).
+     */
+    private boolean conflict(int t, int p) {
+        int k = infiniteCorner(t);
+        if (k >= 0) {
+            int a = tv[4 * t + FACES[k][0]], b = tv[4 * t + FACES[k][1]], c = tv[4 * t + FACES[k][2]];
+            double side = orient(a, b, c, p);
+            if (side != 0) {
+                return side > 0;
+            }
+            // On the plane of the facet: inside its circumcircle, that is inside the circumsphere
+            // of the finite tetrahedron across it (reversed, the facet is negative from inside)
+            int neighbor = tn[4 * t + k];
+            int d = tv[4 * (neighbor >> 2) + (neighbor & 3)];
+            return inSphere(b, a, c, d, p);
+        }
+
+        int a = tv[4 * t], b = tv[4 * t + 1], c = tv[4 * t + 2], d = tv[4 * t + 3];
+        return inSphere(a, b, c, d, p);
+    }
+
+    /**
+     * returns true if e is strictly inside the circumsphere of the positively oriented tetrahedron (a, b, c, d).
+     */
+    private boolean inSphere(int a, int b, int c, int d, int e) {
+        double aex = coords[3 * a] - coords[3 * e], aey = coords[3 * a + 1] - coords[3 * e + 1], aez = coords[3 * a + 2] - coords[3 * e + 2];
+        double bex = coords[3 * b] - coords[3 * e], bey = coords[3 * b + 1] - coords[3 * e + 1], bez = coords[3 * b + 2] - coords[3 * e + 2];
+        double cex = coords[3 * c] - coords[3 * e], cey = coords[3 * c + 1] - coords[3 * e + 1], cez = coords[3 * c + 2] - coords[3 * e + 2];
+        double dex = coords[3 * d] - coords[3 * e], dey = coords[3 * d + 1] - coords[3 * e + 1], dez = coords[3 * d + 2] - coords[3 * e + 2];
+
+        double aexbey = aex * bey, bexaey = bex * aey;
+        double bexcey = bex * cey, cexbey = cex * bey;
+        double cexdey = cex * dey, dexcey = dex * cey;
+        double dexaey = dex * aey, aexdey = aex * dey;
+        double aexcey = aex * cey, cexaey = cex * aey;
+        double bexdey = bex * dey, dexbey = dex * bey;
+
+        double ab = aexbey - bexaey;
+        double bc = bexcey - cexbey;
+        double cd = cexdey - dexcey;
+        double da = dexaey - aexdey;
+        double ac = aexcey - cexaey;
+        double bd = bexdey - dexbey;
+
+        double abc = aez * bc - bez * ac + cez * ab;
+        double bcd = bez * cd - cez * bd + dez * bc;
+        double cda = cez * da + dez * ac + aez * cd;
+        double dab = dez * ab + aez * bd + bez * da;
+
+        double alift = aex * aex + aey * aey + aez * aez;
+        double blift = bex * bex + bey * bey + bez * bez;
+        double clift = cex * cex + cey * cey + cez * cez;
+        double dlift = dex * dex + dey * dey + dez * dez;
+
+        // Negative for positive tetrahedra (the determinant is written for the opposite orientation)
+        double det = (dlift * abc - clift * dab) + (blift * cda - alift * bcd);
+
+        double pab = Math.abs(aexbey) + Math.abs(bexaey), pbc = Math.abs(bexcey) + Math.abs(cexbey);
+        double pcd = Math.abs(cexdey) + Math.abs(dexcey), pda = Math.abs(dexaey) + Math.abs(aexdey);
+        double pac = Math.abs(aexcey) + Math.abs(cexaey), pbd = Math.abs(bexdey) + Math.abs(dexbey);
+        double permanent = (pcd * Math.abs(bez) + pbd * Math.abs(cez) + pbc * Math.abs(dez)) * alift
+                + (pda * Math.abs(cez) + pac * Math.abs(dez) + pcd * Math.abs(aez)) * blift
+                + (pab * Math.abs(dez) + pbd * Math.abs(aez) + pda * Math.abs(bez)) * clift
+                + (pbc * Math.abs(aez) + pac * Math.abs(bez) + pab * Math.abs(cez)) * dlift;
+        double scale = 1 + Math.max(Math.max(Math.abs(aex) + Math.abs(aey) + Math.abs(aez), Math.abs(bex) + Math.abs(bey) + Math.abs(bez)),
+                Math.max(Math.abs(cex) + Math.abs(cey) + Math.abs(cez), Math.abs(dex) + Math.abs(dey) + Math.abs(dez)));
+        if (Math.abs(det) > SPHERE_BOUND * permanent + UNDERFLOW * scale * scale * scale) {
+            return det < 0;
+        }
+        return exactInSphere(a, b, c, d, e) < 0;
+    }
+
+    /**
+     * returns the sign of the determinant of inSphere, computed exactly.
+     */
+    private int exactInSphere(int a, int b, int c, int d, int e) {
+        int[] corners = {a, b, c, d, e};
+        int shift = Integer.MAX_VALUE;
+        for (int v : corners) {
+            shift = Math.min(shift, lowest(coords[3 * v], coords[3 * v + 1], coords[3 * v + 2]));
+        }
+
+        BigInteger ex = exact(coords[3 * e], shift), ey = exact(coords[3 * e + 1], shift), ez = exact(coords[3 * e + 2], shift);
+        BigInteger[] x = new BigInteger[4], y = new BigInteger[4], z = new BigInteger[4], lift = new BigInteger[4];
+        for (int i = 0; i < 4; i++) {
+            int v = corners[i];
+            x[i] = exact(coords[3 * v], shift).subtract(ex);
+            y[i] = exact(coords[3 * v + 1], shift).subtract(ey);
+            z[i] = exact(coords[3 * v + 2], shift).subtract(ez);
+            lift[i] = x[i].multiply(x[i]).add(y[i].multiply(y[i])).add(z[i].multiply(z[i]));
+        }
+
+        BigInteger ab = cross(x, y, 0, 1), bc = cross(x, y, 1, 2), cd = cross(x, y, 2, 3);
+        BigInteger da = cross(x, y, 3, 0), ac = cross(x, y, 0, 2), bd = cross(x, y, 1, 3);
+
+        BigInteger abc = z[0].multiply(bc).subtract(z[1].multiply(ac)).add(z[2].multiply(ab));
+        BigInteger bcd = z[1].multiply(cd).subtract(z[2].multiply(bd)).add(z[3].multiply(bc));
+        BigInteger cda = z[2].multiply(da).add(z[3].multiply(ac)).add(z[0].multiply(cd));
+        BigInteger dab = z[3].multiply(ab).add(z[0].multiply(bd)).add(z[1].multiply(da));
+
+        return lift[3].multiply(abc).subtract(lift[2].multiply(dab))
+                .add(lift[1].multiply(cda)).subtract(lift[0].multiply(bcd)).signum();
+    }
+
+    private static BigInteger cross(BigInteger[] x, BigInteger[] y, int i, int j) {
+        return x[i].multiply(y[j]).subtract(x[j].multiply(y[i]));
+    }
+
+    /**
+     * returns the exponent of the lowest bit of the values that are not zero: all of them are
+     * integers once scaled by 2^-exponent.
+     */
+    private static int lowest(double... values) {
+        int lowest = Integer.MAX_VALUE;
+        for (double v : values) {
+            if (v != 0) {
+                lowest = Math.min(lowest, lowBit(v));
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * returns e, v = m * 2^e with m an odd integer.
+     */
+    private static int lowBit(double v) {
+        long bits = Double.doubleToRawLongBits(v);
+        int exponent = (int) (bits >>> 52 & 0x7ff);
+        long mantissa = bits & 0xfffffffffffffL;
+        if (exponent != 0) {
+            mantissa |= 1L << 52;
+        }
+        return Math.max(exponent, 1) - 1075 + Long.numberOfTrailingZeros(mantissa);
+    }
+
+    /**
+     * returns v * 2^-shift, exactly (shift is at most the lowest bit of v).
+     */
+    private static BigInteger exact(double v, int shift) {
+        if (v == 0) {
+            return BigInteger.ZERO;
+        }
+        int e = lowBit(v);
+        return BigInteger.valueOf((long) Math.scalb(v, -e)).shiftLeft(e - shift);
+    }
+
+    /**
+     * returns value * 2^scale rounded to a double, never zero if the value is not.
+     */
+    private static double toDouble(BigInteger value, int scale) {
+        int excess = Math.max(value.bitLength() - 64, 0);
+        double v = Math.scalb(value.shiftRight(excess).doubleValue(), scale + excess);
+        return v != 0 || value.signum() == 0 ? v : value.signum() * Double.MIN_VALUE;
+    }
+
+    private double orient(int a, int b, int c, int d) {
+        return orient(coords[3 * a], coords[3 * a + 1], coords[3 * a + 2], coords[3 * b], coords[3 * b + 1], coords[3 * b + 2], coords[3 * c], coords[3 * c + 1], coords[3 * c + 2], coords[3 * d], coords[3 * d + 1], coords[3 * d + 2]);
+    }
+
+    /**
+     * returns true if a, b and c are on a line, exactly.
+     */
+    private boolean collinear(int a, int b, int c) {
+        double ux = coords[3 * b] - coords[3 * a], uy = coords[3 * b + 1] - coords[3 * a + 1], uz = coords[3 * b + 2] - coords[3 * a + 2];
+        double vx = coords[3 * c] - coords[3 * a], vy = coords[3 * c + 1] - coords[3 * a + 1], vz = coords[3 * c + 2] - coords[3 * a + 2];
+        if (nonZero(uy * vz, uz * vy) || nonZero(uz * vx, ux * vz) || nonZero(ux * vy, uy * vx)) {
+            return false;
+        }
+
+        int shift = Math.min(lowest(coords[3 * a], coords[3 * a + 1], coords[3 * a + 2]),
+                Math.min(lowest(coords[3 * b], coords[3 * b + 1], coords[3 * b + 2]), lowest(coords[3 * c], coords[3 * c + 1], coords[3 * c + 2])));
+        BigInteger ax = exact(coords[3 * a], shift), ay = exact(coords[3 * a + 1], shift), az = exact(coords[3 * a + 2], shift);
+        BigInteger eux = exact(coords[3 * b], shift).subtract(ax), euy = exact(coords[3 * b + 1], shift).subtract(ay), euz = exact(coords[3 * b + 2], shift).subtract(az);
+        BigInteger evx = exact(coords[3 * c], shift).subtract(ax), evy = exact(coords[3 * c + 1], shift).subtract(ay), evz = exact(coords[3 * c + 2], shift).subtract(az);
+        return euy.multiply(evz).equals(euz.multiply(evy))
+                && euz.multiply(evx).equals(eux.multiply(evz))
+                && eux.multiply(evy).equals(euy.multiply(evx));
+    }
+
+    /**
+     * returns true if l - r is surely not zero, despite the rounding of the products.
+     */
+    private static boolean nonZero(double l, double r) {
+        return Math.abs(l - r) > COLLINEAR_BOUND * (Math.abs(l) + Math.abs(r)) + UNDERFLOW;
+    }
+
+    private boolean isInfinite(int t) {
+        return infiniteCorner(t) >= 0;
+    }
+
+    private int infiniteCorner(int t) {
+        for (int i = 0; i < 4; i++) {
+            if (tv[4 * t + i] == infinite) return i;
+        }
+        return -1;
+    }
+
+    private void addToCavity(int t) {
+        if (cavityCount == cavity.length) {
+            cavity = Arrays.copyOf(cavity, cavity.length * 2);
+        }
+        cavity[cavityCount++] = t;
+        marks[t] = stamp;
+    }
+
+    private int allocate(int a, int b, int c, int d) {
+        int t;
+        if (freeCount > 0) {
+            t = free[--freeCount];
+        } else {
+            if (4 * size + 4 > tv.length) {
+                tv = Arrays.copyOf(tv, tv.length * 2);
+                tn = Arrays.copyOf(tn, tn.length * 2);
+                marks = Arrays.copyOf(marks, marks.length * 2);
+            }
+            t = size++;
+        }
+        tv[4 * t] = a;
+        tv[4 * t + 1] = b;
+        tv[4 * t + 2] = c;
+        tv[4 * t + 3] = d;
+        tn[4 * t] = tn[4 * t + 1] = tn[4 * t + 2] = tn[4 * t + 3] = -1;
+        marks[t] = 0;
+        return t;
+    }
+
+    private void release(int t) {
+        tv[4 * t] = FREE;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = t;
+    }
+
+    private void link(int t, int i, int u, int j) {
+        tn[4 * t + i] = 4 * u + j;
+        tn[4 * u + j] = 4 * t + i;
+    }
+
+    /**
+     * builds the compact output, without the infinite tetrahedra.
+     */
+    private void finish() {
+        compact = new int[size];
+        int count = 0;
+        for (int t = 0; t < size; t++) {
+            if (tv[4 * t] == FREE || isInfinite(t)) {
+                compact[t] = -1;
+            } else {
+                compact[t] = count++;
+            }
+        }
+
+        tetrahedra = new int[count * 4];
+        neighbors = new int[count * 4];
+        for (int t = 0; t < size; t++) {
+            int index = compact[t];
+            if (index < 0) continue;
+            for (int i = 0; i < 4; i++) {
+                tetrahedra[4 * index + i] = ids[tv[4 * t + i]];
+                neighbors[4 * index + i] = compact[tn[4 * t + i] >> 2];
+            }
+        }
+
+        if (isInfinite(last)) {
+            last = tn[4 * last + infiniteCorner(last)] >> 2;
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package com.harium.etyl.geometry.triangulation;
 
 import com.badlogic.gdx.math.Vector3;
 import com.harium.etyl.geometry.BoundingBox;
+import com.harium.etyl.geometry.Circle3;
+import com.harium.etyl.geometry.Polygon;
 
 import java.util.*;
 
@@ -40,6 +42,9 @@ import static com.harium.etyl.geometry.triangulation.PointLinePosition.ON_SEGMEN
 
 public class DelaunayTriangulation extends BaseTriangulation {
 
+	// tolerance of the line of sight test, an observer on the surface can see
+	private static final double LINE_OF_SIGHT_EPSILON = 1e-4;
+
 	// the first and last points (used only for first step construction)
 	private Vector3 firstP;
 	private Vector3 lastP;
@@ -54,11 +59,44 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	// the triangle the convex hull starts from
 	public Triangle startTriangleHull;
 
+	// the number of half planes, each one is an edge of the convex hull
+	private int hullSize;
+
 	private int modCount = 0, modCount2 = 0;
 
+	// stamp used to tag the triangles visited by the last traversal
+	private int markStamp = 0;
+
+	// the vertices of this triangulation, sorted by the PointComparator
+	private Set<Vector3> vertices;
+
+	// reusable buffers for the nearest vertex queries
+	private NearestVertexSearch nearestSearch;
+
+	// reusable buffers for the range queries
+	private RangeSearch rangeSearch;
+
+	// reusable stack of the edge visits
+	private Triangle[] edgeStack;
+
 	// the Bounding Box, {{x0,y0,z0} , {x1,y1,z1}}
 	private Vector3 bbMin, bbMax;
 
+	// counters of the current insertion, only updated when metrics are enabled
+	private int flips, inCircleTests;
+
+	// opt-in triangle recycling, null allocates new triangles
+	private TrianglePool pool;
+
+	// true once a WeightedVector3 is inserted: power tests, redundant vertices are removed
+	private boolean weighted;
+
+	// reusable buffer of the triangles around the inserted vertex (weighted mode)
+	private Triangle[] ring;
+
+	// modCounter of the triangles removed with a redundant vertex
+	private static final int REMOVED = -1;
+
 	/**
 	 * Index for faster point location searches
 	 */
@@ -75,6 +113,27 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		modCount = 0;
 		modCount2 = 0;
 		allCollinear = true;
+		weighted = false;
+		hullSize = 0;
+		vertices = new TreeSet<Vector3>(new PointComparator());
+		bbMin = null;
+		bbMax = null;
+		if (pool != null) {
+			pool.reset();
+		}
+	}
+
+	/**
+	 * draws the triangles of this triangulation from the pool, null disables it.
+	 * The pool is reset every time triangulate(List) starts a new triangulation,
+	 * so the triangles of the previous one are recycled (see TrianglePool).
+	 */
+	public void setTrianglePool(TrianglePool pool) {
+		this.pool = pool;
+	}
+
+	public TrianglePool getTrianglePool() {
+		return pool;
 	}
 
 	/**
@@ -84,6 +143,67 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		return this.modCount;
 	}
 
+	/**
+	 * returns the number of vertices in this triangulation
+	 */
+	public int size() {
+		return vertices.size();
+	}
+
+	/**
+	 * returns an iterator over the vertices of this triangulation,
+	 * sorted by x and then by y (see PointComparator).
+	 */
+	public Iterator<Vector3> verticesIterator() {
+		return Collections.unmodifiableSet(vertices).iterator();
+	}
+
+	/**
+	 * insert the point to this Delaunay Triangulation. Note: if p is null or
+	 * already exist in this triangulation p is ignored.
+	 * Points can be inserted one by one (e.g. while streaming them from a file)
+	 * and the resulting triangles retrieved with getTriangles().
+	 * @param p new vertex to be inserted the triangulation.
+	 */
+	public void insertPoint(Vector3 p) {
+		insertPoint(vertices, p);
+	}
+
+	/**
+	 * insert a double precision vertex (see Vector3d), for coordinates that
+	 * do not fit in a float (e.g. UTM). The predicates run in double precision
+	 * for every triangle with a Vector3d vertex.
+	 * @return the inserted vertex
+	 */
+	public Vector3d insertPoint(double x, double y, double z) {
+		Vector3d p = new Vector3d(x, y, z);
+		insertPoint(vertices, p);
+		return p;
+	}
+
+	/**
+	 * insert a weighted vertex (see WeightedVector3), the triangulation becomes a
+	 * regular triangulation. A redundant vertex (without power cell) is not
+	 * inserted, vertices made redundant by p are removed. A lighter vertex at
+	 * the same (x, y) is replaced by p.
+	 * @return the inserted vertex, null if it is redundant or a vertex at least
+	 * as heavy already exists at (x, y)
+	 */
+	public WeightedVector3 insertPoint(double x, double y, double z, double weight) {
+		WeightedVector3 p = new WeightedVector3(x, y, z, weight);
+		int mc = modCount;
+		insertPoint(vertices, p);
+		// modCount only changes if p was added, a redundant p was removed again
+		return mc != modCount && vertices.contains(p) ? p : null;
+	}
+
+	/**
+	 * returns true if a weighted vertex was inserted (regular triangulation).
+	 */
+	public boolean isWeighted() {
+		return weighted;
+	}
+
 	/**
 	 * insert the point to this Delaunay Triangulation. Note: if p is null or
 	 * already exist in this triangulation p is ignored.
@@ -91,22 +211,44 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	 * @param p new vertex to be inserted the triangulation.
 	 */
 	public void insertPoint(Set<Vector3> vertices, Vector3 p) {
+		if (p == null)
+			return;
+		if (!vertices.add(p)) {
+			if (p instanceof WeightedVector3) {
+				replaceLighter(vertices, (WeightedVector3) p);
+			}
+			return;
+		}
 
 		modCount++;
-		updateBoundingBox(p);
-		vertices.add(p);
+		if (metrics != null) {
+			flips = 0;
+			inCircleTests = 0;
+			orientationTests = 0;
+		}
+		if (p instanceof WeightedVector3) {
+			weighted = true;
+		}
 		Triangle t = insertPointSimple(vertices, p);
+		// a redundant weighted vertex is removed again and does not count
+		if (!weighted || vertices.contains(p)) {
+			updateBoundingBox(p);
+		}
 
-		if (t == null) //
-			return;
-
-		Triangle tt = t;
-		//currT = t; // recall the last point for - fast (last) update iterator.
-		do {
-			flip(tt, modCount);
-			tt = tt.canext;
-		} while (tt != t && !tt.halfplane);
+		if (t != null && weighted) {
+			flipRing(t, modCount);
+		} else if (t != null) {
+			Triangle tt = t;
+			//currT = t; // recall the last point for - fast (last) update iterator.
+			do {
+				flip(tt, modCount);
+				tt = tt.canext;
+			} while (tt != t && !tt.halfplane);
+		}
 
+		if (metrics != null) {
+			metrics.insertion(flips, orientationTests, inCircleTests);
+		}
 	}
 
 	/** return a point from the trangulation that is close to pointToDelete
@@ -115,37 +257,203 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	 * By Eyal Roth & Doron Ganel (2009).
 	 */
 	public Vector3 findClosePoint(Vector3 pointToDelete) {
-		Triangle triangle = find(pointToDelete);
-		Vector3 p1 = triangle.p1();
-		Vector3 p2 = triangle.p2();
-		double d1 = distanceXY(p1, pointToDelete);
-		double d2 = distanceXY(p2, pointToDelete);
-		if(triangle.isHalfplane()) {
-			if(d1<=d2) {
-				return p1;
-			}
-			else {
-				return p2;
-			}
-		} else {
-			Vector3 p3 = triangle.p3();
+		return findNearestVertex(pointToDelete);
+	}
 
-			double d3 = distanceXY(p3, pointToDelete);
+	/**
+	 * finds the vertex closest (in XY) to the query point, the search walks
+	 * on the Delaunay graph from the triangle returned by find.
+	 * @param q query point
+	 * @return the nearest vertex, null if this triangulation is empty
+	 */
+	public Vector3 findNearestVertex(Vector3 q) {
+		if (vertices.isEmpty()) {
+			return null;
+		}
+		if (allCollinear) {
+			return findNearestVertexLinear(q);
+		}
+		return nearestSearch().nearest(find(q), q);
+	}
 
-			if(d1<=d2 && d1<=d3) {
-				return p1;
-			}
-			else if(d2<=d1 && d2<=d3) {
-				return p2;
+	/**
+	 * finds the k vertices closest (in XY) to the query point. The search starts at the
+	 * nearest vertex and expands over the Delaunay neighbors, its cost depends on k and
+	 * not on the size of this triangulation.
+	 * @param q query point
+	 * @param k number of vertices to find
+	 * @param result the list the vertices are added to, sorted by distance
+	 * @return the number of vertices added (less than k if the triangulation is smaller)
+	 */
+	public int findNearestVertices(Vector3 q, int k, List<Vector3> result) {
+		if (vertices.isEmpty() || k <= 0) {
+			return 0;
+		}
+		if (allCollinear) {
+			// degenerate case, the triangulation has no triangles
+			List<Vector3> sorted = new ArrayList<Vector3>(vertices);
+			Collections.sort(sorted, new DistanceComparator(q));
+			int count = Math.min(k, sorted.size());
+			result.addAll(sorted.subList(0, count));
+			return count;
+		}
+		return nearestSearch().nearest(find(q), q, k, ++markStamp, result);
+	}
+
+	private NearestVertexSearch nearestSearch() {
+		if (nearestSearch == null) {
+			nearestSearch = new NearestVertexSearch();
+		}
+		return nearestSearch;
+	}
+
+	private Vector3 findNearestVertexLinear(Vector3 q) {
+		Vector3 best = null;
+		double bestDistance = Double.MAX_VALUE;
+		for (Vector3 p : vertices) {
+			double d = NearestVertexSearch.distance2(p, q);
+			if (d < bestDistance) {
+				best = p;
+				bestDistance = d;
 			}
-			else {
-				return p3;
+		}
+		return best;
+	}
+
+	/**
+	 * finds the triangles that intersect the box (minX, minY) - (maxX, maxY).
+	 * The search flood-fills from the box center, its cost is proportional to the output size.
+	 * @param result the list the triangles are added to
+	 * @return the number of triangles added
+	 */
+	public int findTriangles(float minX, float minY, float maxX, float maxY, List<Triangle> result) {
+		return findTriangles(new RangeSearch.Box(minX, minY, maxX, maxY), result);
+	}
+
+	/**
+	 * finds the triangles that intersect the box (Z is ignored).
+	 * @param result the list the triangles are added to
+	 * @return the number of triangles added
+	 */
+	public int findTriangles(BoundingBox box, List<Triangle> result) {
+		return findTriangles(box.minX(), box.minY(), box.maxX(), box.maxY(), result);
+	}
+
+	/**
+	 * finds the triangles that intersect the circle (Z is ignored).
+	 * @param result the list the triangles are added to
+	 * @return the number of triangles added
+	 */
+	public int findTriangles(Circle3 circle, List<Triangle> result) {
+		return findTriangles(new RangeSearch.Circle(circle.getCenter(), circle.getRadius()), result);
+	}
+
+	/**
+	 * finds the triangles that intersect the polygon, the search flood-fills over
+	 * the polygon bounding box.
+	 * @param result the list the triangles are added to
+	 * @return the number of triangles added
+	 */
+	public int findTriangles(Polygon polygon, List<Triangle> result) {
+		return findTriangles(RangeSearch.PolygonRegion.of(polygon), result);
+	}
+
+	/**
+	 * finds the vertices inside the box (minX, minY) - (maxX, maxY), boundary included.
+	 * @param result the list the vertices are added to
+	 * @return the number of vertices added
+	 */
+	public int findVertices(float minX, float minY, float maxX, float maxY, List<Vector3> result) {
+		return findVertices(new RangeSearch.Box(minX, minY, maxX, maxY), result);
+	}
+
+	/**
+	 * finds the vertices inside the box (Z is ignored).
+	 * @param result the list the vertices are added to
+	 * @return the number of vertices added
+	 */
+	public int findVertices(BoundingBox box, List<Vector3> result) {
+		return findVertices(box.minX(), box.minY(), box.maxX(), box.maxY(), result);
+	}
+
+	/**
+	 * finds the vertices inside the circle (Z is ignored).
+	 * @param result the list the vertices are added to
+	 * @return the number of vertices added
+	 */
+	public int findVertices(Circle3 circle, List<Vector3> result) {
+		return findVertices(new RangeSearch.Circle(circle.getCenter(), circle.getRadius()), result);
+	}
+
+	/**
+	 * finds the vertices inside the polygon.
+	 * @param result the list the vertices are added to
+	 * @return the number of vertices added
+	 */
+	public int findVertices(Polygon polygon, List<Vector3> result) {
+		return findVertices(RangeSearch.PolygonRegion.of(polygon), result);
+	}
+
+	int findTriangles(RangeSearch.Region region, List<Triangle> result) {
+		if (allCollinear) {
+			return 0;
+		}
+		Triangle start = find(region.centerX(), region.centerY());
+		int stamp = reserveMarkStamps(2);
+		return rangeSearch().findTriangles(start, region, stamp, result);
+	}
+
+	int findVertices(RangeSearch.Region region, List<Vector3> result) {
+		if (allCollinear) {
+			// degenerate case, the triangulation has no triangles
+			int count = 0;
+			for (Vector3 p : vertices) {
+				if (region.contains(p)) {
+					result.add(p);
+					count++;
+				}
 			}
+			return count;
 		}
+		Triangle start = find(region.centerX(), region.centerY());
+		int stamp = reserveMarkStamps(2);
+		return rangeSearch().findVertices(start, region, stamp, result);
 	}
 
-	private float distanceXY(Vector3 p, Vector3 q) {
-		return p.dst(q);
+	/**
+	 * reserves count consecutive mark stamps (see Triangle.mark), returns the first one.
+	 */
+	int reserveMarkStamps(int count) {
+		int stamp = markStamp + 1;
+		markStamp += count;
+		return stamp;
+	}
+
+	/**
+	 * returns the last reserved mark stamp, the marks set with older stamps are intact
+	 * as long as it does not change.
+	 */
+	int lastMarkStamp() {
+		return markStamp;
+	}
+
+	private RangeSearch rangeSearch() {
+		if (rangeSearch == null) {
+			rangeSearch = new RangeSearch();
+		}
+		return rangeSearch;
+	}
+
+	private static class DistanceComparator implements Comparator<Vector3> {
+		private final Vector3 q;
+
+		DistanceComparator(Vector3 q) {
+			this.q = q;
+		}
+
+		public int compare(Vector3 o1, Vector3 o2) {
+			return Double.compare(NearestVertexSearch.distance2(o1, q), NearestVertexSearch.distance2(o2, q));
+		}
 	}
 
 	/**
@@ -174,7 +482,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
 			int index = 0;
 			while (itn.hasNext()) {
 				Triangle tmp = itn.next();
-				vertices[index++] = tmp.circumcircle().getCenter();
+				vertices[index++] = tmp.circumcenter();
 			}
 
 			return vertices;
@@ -238,7 +546,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 			// the cell line is a line originating from the circumcircle to infinity
 			// x = 500.0 is used as a large enough value
-			Vector3 circumcircle = neighbor.circumcircle().getCenter();
+			Vector3 circumcircle = neighbor.circumcenter();
 			float x_cell_line = (circumcircle.x + (500.0f * sign));
 			float y_cell_line = perp_delta * (x_cell_line - circumcircle.x) + circumcircle.y;
 
@@ -250,9 +558,23 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		}
 	}
 
+	/**
+	 * Calculates a power cell (the Voronoi cell of a weighted vertex) for a
+	 * given neighborhood of a regular triangulation, see calcVoronoiCell.
+	 * The corners are the orthocenters of the triangles around p.
+	 *
+	 * @param triangle a triangle in the neighborhood
+	 * @param p weighted corner point whose surrounding neighbors will be checked
+	 * @return set of Points representing the cell polygon
+	 */
+	public Vector3[] calcPowerCell(Triangle triangle, Vector3 p) {
+		// the circumcenters of weighted triangles are their orthocenters
+		return calcVoronoiCell(triangle, p);
+	}
+
 	private Triangle insertPointSimple(Set<Vector3> vertices, Vector3 p) {
 		if (!allCollinear) {
-			return insertNonColinear(p);
+			return insertNonColinear(vertices, p);
 		} else {
 			return insertColinear(vertices, p);
 		}
@@ -269,8 +591,13 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		return null;
 	}
 
-	private Triangle insertNonColinear(Vector3 p) {
-		Triangle t = find(startTriangle, p);
+	private Triangle insertNonColinear(Set<Vector3> vertices, Vector3 p) {
+		Triangle t = locate(startTriangle, p);
+		if (weighted && !t.halfplane && !t.circumcircleContains(p)) {
+			// Redundant: p is below the power surface of the triangle, it has no cell
+			vertices.remove(p);
+			return null;
+		}
 		if (t.halfplane)
 			startTriangle = extendOutside(t, p);
 		else
@@ -292,6 +619,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		case ON_SEGMENT:
 			case INFRONT_OF_A:
 			case BEHIND_B:
+			degeneracy(TriangulationMetrics.Degeneracy.COLLINEAR);
 			insertCollinear(p, position);
 			break;
 		}
@@ -302,8 +630,8 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 		switch (res) {
 		case INFRONT_OF_A:
-			t = new Triangle(firstP, p);
-			tp = new Triangle(p, firstP);
+			t = newHalfplane(firstP, p);
+			tp = newHalfplane(p, firstP);
 			t.abnext = tp;
 			tp.abnext = t;
 			t.bcnext = tp;
@@ -316,8 +644,8 @@ public class DelaunayTriangulation extends BaseTriangulation {
 			firstP = p;
 			break;
 		case BEHIND_B:
-			t = new Triangle(p, lastP);
-			tp = new Triangle(lastP, p);
+			t = newHalfplane(p, lastP);
+			tp = newHalfplane(lastP, p);
 			t.abnext = tp;
 			tp.abnext = t;
 			t.bcnext = lastT;
@@ -333,8 +661,8 @@ public class DelaunayTriangulation extends BaseTriangulation {
 			u = firstT;
 			while (PointComparator.isGreater(p, u.a))
 				u = u.canext;
-			t = new Triangle(p, u.b);
-			tp = new Triangle(u.b, p);
+			t = newHalfplane(p, u.b);
+			tp = newHalfplane(u.b, p);
 			u.b = p;
 			u.abnext.a = p;
 			t.abnext = tp;
@@ -366,10 +694,10 @@ public class DelaunayTriangulation extends BaseTriangulation {
 			ps = p2;
 			pb = p1;
 		}
-		firstT = new Triangle(pb, ps);
+		firstT = newHalfplane(pb, ps);
 		lastT = firstT;
 
-		Triangle t = new Triangle(ps, pb);
+		Triangle t = newHalfplane(ps, pb);
 		firstT.abnext = t;
 		t.abnext = firstT;
 		firstT.bcnext = t;
@@ -386,11 +714,13 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 		Triangle h1, h2;
 		h1 = treatDegeneracyInside(t, p);
-		if (h1 != null)
+		if (h1 != null) {
+			degeneracy(TriangulationMetrics.Degeneracy.ON_HULL_EDGE);
 			return h1;
+		}
 
-		h1 = new Triangle(t.c, t.a, p);
-		h2 = new Triangle(t.b, t.c, p);
+		h1 = newTriangle(t.c, t.a, p);
+		h2 = newTriangle(t.b, t.c, p);
 		t.c = p;
 		t.circumcircle();
 		h1.abnext = t.canext;
@@ -422,8 +752,8 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 	private Triangle extendOutside(Triangle t, Vector3 p, PointLinePosition test) {
 		if (ON_SEGMENT == test) {
-			Triangle dg = new Triangle(t.a, t.b, p);
-			Triangle hp = new Triangle(p, t.b);
+			Triangle dg = newTriangle(t.a, t.b, p);
+			Triangle hp = newHalfplane(p, t.b);
 			t.b = p;
 			dg.abnext = t.abnext;
 			dg.abnext.switchneighbors(t, dg);
@@ -452,7 +782,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 	private Triangle extendcounterclock(Triangle t, Vector3 p) {
 
-		t.halfplane = false;
+		closeHalfplane(t);
 		t.c = p;
 		t.circumcircle();
 
@@ -464,7 +794,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
             case BEHIND_B:
             case INFRONT_OF_A:
             case ERROR:
-                Triangle nT = new Triangle(t.a, p);
+                Triangle nT = newHalfplane(t.a, p);
                 nT.abnext = t;
                 t.canext = nT;
                 nT.canext = tca;
@@ -479,7 +809,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
 
 	private Triangle extendclock(Triangle t, Vector3 p) {
 
-		t.halfplane = false;
+		closeHalfplane(t);
 		t.c = p;
 		t.circumcircle();
 
@@ -491,7 +821,7 @@ public class DelaunayTriangulation extends BaseTriangulation {
             case BEHIND_B:
             case INFRONT_OF_A:
             case ERROR:
-			Triangle nT = new Triangle(p, t.b);
+			Triangle nT = newHalfplane(p, t.b);
 			nT.abnext = t;
 			t.bcnext = nT;
 			nT.bcnext = tbc;
@@ -504,61 +834,301 @@ public class DelaunayTriangulation extends BaseTriangulation {
 		}
 	}
 
+	/**
+	 * creates a half plane, the hull grows by one edge.
+	 */
+	private Triangle newHalfplane(Vector3 a, Vector3 b) {
+		hullSize++;
+		return pool != null ? pool.halfplane(a, b) : new Triangle(a, b);
+	}
+
+	private Triangle newTriangle(Vector3 a, Vector3 b, Vector3 c) {
+		return pool != null ? pool.triangle(a, b, c) : new Triangle(a, b, c);
+	}
+
+	/**
+	 * turns a half plane into a triangle, the hull loses one edge.
+	 */
+	private void closeHalfplane(Triangle t) {
+		if (t.halfplane) {
+			t.halfplane = false;
+			hullSize--;
+		}
+	}
+
+	private void degeneracy(TriangulationMetrics.Degeneracy degeneracy) {
+		if (metrics != null) {
+			metrics.degeneracy(degeneracy);
+		}
+	}
+
+	/**
+	 * replaces the vertex at the (x, y) of p if it is lighter: p has the same
+	 * triangles, they are flipped as after an insertion since the power
+	 * surface only rises at p.
+	 */
+	private void replaceLighter(Set<Vector3> vertices, WeightedVector3 p) {
+		Triangle t = allCollinear ? firstT : locate(startTriangle, p);
+		Vector3 q = null;
+		if (t == null) {
+			q = firstP;
+		} else if (allCollinear) {
+			// every vertex is a corner of the half planes of the chain
+			Triangle h = t;
+			do {
+				q = sameXY(h.a, p) ? h.a : sameXY(h.b, p) ? h.b : null;
+				h = h.canext;
+			} while (q == null && h != t);
+		} else {
+			q = sameXY(t.a, p) ? t.a : sameXY(t.b, p) ? t.b : !t.halfplane && sameXY(t.c, p) ? t.c : null;
+		}
+		if (q == null || WeightedVector3.weight(q) >= p.weight) {
+			return;
+		}
+
+		modCount++;
+		if (metrics != null) {
+			flips = 0;
+			inCircleTests = 0;
+			orientationTests = 0;
+		}
+		weighted = true;
+		vertices.remove(q);
+		vertices.add(p);
+		updateBoundingBox(p);
+		if (firstP == q) firstP = p;
+		if (lastP == q) lastP = p;
+
+		if (ring == null) {
+			ring = new Triangle[16];
+		}
+		int size = 0;
+		if (t != null) {
+			// the triangles around q, its half planes on the hull included
+			Triangle tt = t;
+			do {
+				if (size == ring.length) {
+					ring = Arrays.copyOf(ring, size * 2);
+				}
+				ring[size++] = tt;
+				tt = allCollinear ? tt.canext : across(tt, q);
+			} while (tt != t);
+		}
+		int finite = 0;
+		for (int i = 0; i < size; i++) {
+			Triangle tt = ring[i];
+			if (tt.a == q) tt.a = p;
+			if (tt.b == q) tt.b = p;
+			if (tt.halfplane) {
+				continue;
+			}
+			if (tt.c == q) tt.c = p;
+			// flip() expects the new vertex at c
+			while (tt.c != p) {
+				Vector3 a = tt.a;
+				tt.a = tt.b;
+				tt.b = tt.c;
+				tt.c = a;
+				Triangle ab = tt.abnext;
+				tt.abnext = tt.bcnext;
+				tt.bcnext = tt.canext;
+				tt.canext = ab;
+			}
+			tt.circumcircle();
+			ring[finite++] = tt;
+		}
+		Arrays.fill(ring, finite, size, null);
+		for (int i = 0; i < finite; i++) {
+			flip(ring[i], modCount);
+		}
+		Arrays.fill(ring, 0, finite, null);
+
+		if (metrics != null) {
+			metrics.insertion(flips, orientationTests, inCircleTests);
+		}
+	}
+
+	private static boolean sameXY(Vector3 a, Vector3 b) {
+		return !PointComparator.isLess(a, b) && !PointComparator.isGreater(a, b);
+	}
+
+	/**
+	 * flips the triangles around the new vertex, the ring is copied first
+	 * since the removal of redundant vertices deletes triangles of the ring.
+	 */
+	private void flipRing(Triangle t, int mc) {
+		if (ring == null) {
+			ring = new Triangle[16];
+		}
+		int size = 0;
+		Triangle tt = t;
+		do {
+			if (size == ring.length) {
+				ring = Arrays.copyOf(ring, size * 2);
+			}
+			ring[size++] = tt;
+			tt = tt.canext;
+		} while (tt != t && !tt.halfplane);
+
+		for (int i = 0; i < size; i++) {
+			flip(ring[i], mc);
+		}
+		Arrays.fill(ring, 0, size, null);
+	}
+
 	private void flip(Triangle t, int mc) {
 
-		Triangle u = t.abnext, v;
+		Triangle u = t.abnext, uab, ubc;
+		Vector3 ua;
+		if (t.modCounter == REMOVED) {
+			return;
+		}
 		t.modCounter = mc;
-		if (u.halfplane || !u.circumcircleContains(t.c)) {
+		if (u.halfplane) {
+			return;
+		}
+		if (metrics != null) {
+			inCircleTests++;
+		}
+		if (!u.circumcircleContains(t.c)) {
+			return;
+		}
+		if (weighted && !isConvex(t, u)) {
+			// a or b is inside the other triangles, it can only be removed
+			removeRedundant(t, u, mc);
 			return;
 		}
+		if (metrics != null) {
+			flips++;
+		}
 
+		// t becomes (t.a, ua, t.c) and u is rewritten in place as (ua, t.b, t.c)
 		if (t.a == u.a) {
-			v = new Triangle(u.b, t.b, t.c);
-			v.abnext = u.bcnext;
+			ua = u.b;
+			uab = u.bcnext;
 			t.abnext = u.abnext;
 		} else if (t.a == u.b) {
-			v = new Triangle(u.c, t.b, t.c);
-			v.abnext = u.canext;
+			ua = u.c;
+			uab = u.canext;
 			t.abnext = u.bcnext;
 		} else if (t.a == u.c) {
-			v = new Triangle(u.a, t.b, t.c);
-			v.abnext = u.abnext;
+			ua = u.a;
+			uab = u.abnext;
 			t.abnext = u.canext;
 		} else {
 			throw new RuntimeException("Error in flip.");
 		}
 
-		v.modCounter = mc;
-		v.bcnext = t.bcnext;
-		v.abnext.switchneighbors(u, v);
-		v.bcnext.switchneighbors(t, v);
-		t.bcnext = v;
-		v.canext = t;
-		t.b = v.a;
+		ubc = t.bcnext;
+		ubc.switchneighbors(t, u);
 		t.abnext.switchneighbors(u, t);
+
+		// u changed, its stamp tells that to whoever holds it
+		u.modCounter = mc;
+		u.a = ua;
+		u.b = t.b;
+		u.c = t.c;
+		u.abnext = uab;
+		u.bcnext = ubc;
+		u.canext = t;
+		u.circumcircle();
+
+		t.bcnext = u;
+		t.b = ua;
 		t.circumcircle();
 
-		//currT = v;
+		//currT = u;
+		flip(t, mc);
+		flip(u, mc);
+	}
+
+	/**
+	 * returns true if the quadrilateral of t and u (across the edge ab of t)
+	 * is strictly convex, so the edge can be flipped.
+	 */
+	private static boolean isConvex(Triangle t, Triangle u) {
+		Vector3 d = u.cornerAfter(t.a);
+		double px = Vector3d.x(t.c), py = Vector3d.y(t.c);
+		double dx = Vector3d.x(d) - px, dy = Vector3d.y(d) - py;
+		// a and b on both sides of the diagonal c-d
+		double sa = dx * (Vector3d.y(t.a) - py) - dy * (Vector3d.x(t.a) - px);
+		double sb = dx * (Vector3d.y(t.b) - py) - dy * (Vector3d.x(t.b) - px);
+		return sa < 0 && sb > 0;
+	}
+
+	/**
+	 * 3-1 flip: if the reflex vertex of the non convex quadrilateral of t and u
+	 * has only three triangles (t, u and a third one), the vertex is redundant
+	 * and removed, t becomes the merged triangle. Otherwise the edge is left for
+	 * the next flips.
+	 */
+	private void removeRedundant(Triangle t, Triangle u, int mc) {
+		Vector3 d = u.cornerAfter(t.a);
+		Vector3 a = t.a, b = t.b, p = t.c;
+		double px = Vector3d.x(p), py = Vector3d.y(p);
+		double dx = Vector3d.x(d) - px, dy = Vector3d.y(d) - py;
+		boolean reflexA = dx * (Vector3d.y(a) - py) - dy * (Vector3d.x(a) - px) >= 0;
+
+		Triangle w;
+		if (reflexA) {
+			// Around a: t = (a, b, p), w = (a, p, d), u = (a, d, b)
+			w = t.canext;
+			if (w.halfplane || w.cornerAfter(p) != d || across(u, a) != w) {
+				return;
+			}
+			// t = (d, b, p)
+			t.abnext = across(u, d);
+			t.canext = across(w, p);
+			t.abnext.switchneighbors(u, t);
+			t.canext.switchneighbors(w, t);
+			t.a = d;
+		} else {
+			// Around b: t = (a, b, p), u = (b, a, d), w = (b, d, p)
+			w = t.bcnext;
+			if (w.halfplane || w.cornerAfter(d) != p || across(u, d) != w) {
+				return;
+			}
+			// t = (a, d, p)
+			t.abnext = across(u, a);
+			t.bcnext = across(w, d);
+			t.abnext.switchneighbors(u, t);
+			t.bcnext.switchneighbors(w, t);
+			t.b = d;
+		}
+
+		vertices.remove(reflexA ? a : b);
+		u.modCounter = REMOVED;
+		w.modCounter = REMOVED;
+		if (startTriangle == u || startTriangle == w) {
+			startTriangle = t;
+		}
+		t.modCounter = mc;
+		t.circumcircle();
 		flip(t, mc);
-		flip(v, mc);
 	}
 
 	/**
-	 * compute the number of vertices in the convex hull. <br />
-	 * NOTE: has a 'bug-like' behavor: <br />
-	 * in cases of colinear - not on a asix parallel rectangle,
-	 * colinear points are reported
+	 * returns the neighbor of t across its edge that starts at p.
+	 */
+	private static Triangle across(Triangle t, Vector3 p) {
+		if (t.a == p) return t.abnext;
+		if (t.b == p) return t.bcnext;
+		return t.canext;
+	}
+
+	/**
+	 * returns the number of vertices in the convex hull, in O(1). <br />
+	 * NOTE: vertices on the hull boundary are reported even if they are
+	 * collinear with their hull neighbors, if all the vertices are collinear
+	 * all of them are reported.
 	 *
 	 * @return the number of vertices in the convex hull.
 	 */
 	public int convexHullSize() {
-		int ans = 0;
-		Iterator<Vector3> it = this.getConvexHullVerticesIterator();
-		while (it.hasNext()) {
-			ans++;
-			it.next();
+		if (allCollinear) {
+			return vertices.size();
 		}
-		return ans;
+		return hullSize;
 	}
 
 	public List<Vector3> findConnectedVertices(Vector3 point, List<Triangle> triangles) {
@@ -694,14 +1264,120 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	 *            - Y cordination of the query point
 	 * @return the q point with updated Z value (z value is as given the
 	 *         triangulation).
+	 * @throws RuntimeException if (x, y) is outside the convex hull
 	 */
 	public double z(float x, float y) {
-		Vector3 q = new Vector3(x, y,0);
-		Triangle t = find(q);
-		return t.z_value(q);
+		return z((double) x, (double) y);
+	}
+
+	/**
+	 * double precision version of z(x, y), see Vector3d.
+	 * The location walk and the plane of the triangle (cached) do not allocate.
+	 * @return the z value of the triangulation at (x, y).
+	 * @throws RuntimeException if (x, y) is outside the convex hull
+	 */
+	public double z(double x, double y) {
+		Triangle t = find(x, y);
+		return t.z(x, y);
+	}
+
+	/**
+	 * walks the segment a-b (in XY) and reports the crossed triangles in order,
+	 * with the heights where the segment enters and leaves each one. The parts
+	 * of the segment outside of the convex hull are skipped.
+	 * The cost is proportional to the number of crossed triangles.
+	 * @param visitor receives the crossed triangles, can stop the walk
+	 * @return the number of visited triangles
+	 */
+	public int walk(Vector3 a, Vector3 b, SegmentVisitor visitor) {
+		if (allCollinear) {
+			return 0;
+		}
+		return SegmentWalk.walk(find(a), a, b, visitor);
+	}
+
+	/**
+	 * line of sight test: returns true if the 3D segment from-to is not below
+	 * the surface of this triangulation (outside of the convex hull nothing blocks it).
+	 */
+	public boolean isVisible(final Vector3 from, final Vector3 to) {
+		final boolean[] visible = {true};
+		walk(from, to, new SegmentVisitor() {
+			public boolean visit(Triangle triangle, double entry, double exit, double entryZ, double exitZ) {
+				// The surface and the line are both linear inside the triangle
+				double dz = to.z - from.z;
+				if (entryZ > from.z + entry * dz + LINE_OF_SIGHT_EPSILON
+						|| exitZ > from.z + exit * dz + LINE_OF_SIGHT_EPSILON) {
+					visible[0] = false;
+				}
+				return visible[0];
+			}
+		});
+		return visible[0];
+	}
+
+	/**
+	 * visits every edge of the triangulation once, with its two triangles.
+	 * An inner edge is seen as a-b in one triangle and b-a in the other, it is
+	 * reported by the triangle where a is before b in the PointComparator order,
+	 * hull edges by their only triangle. No edge set is built and the traversal
+	 * stack is reused, so the visit does not allocate.
+	 * @param visitor receives the edges, can stop the visit
+	 * @return the number of visited edges
+	 */
+	public int visitEdges(EdgeVisitor visitor) {
+		if (allCollinear || startTriangle == null) {
+			return 0;
+		}
+
+		if (edgeStack == null) {
+			edgeStack = new Triangle[64];
+		}
+		int stamp = reserveMarkStamps(1);
+
+		Triangle start = startTriangle.halfplane ? startTriangle.abnext : startTriangle;
+		start.mark = stamp;
+		edgeStack[0] = start;
+		int size = 1;
+		int count = 0;
+		boolean stop = false;
+
+		while (size > 0 && !stop) {
+			Triangle t = edgeStack[--size];
+			edgeStack[size] = null;
+
+			for (int i = 0; i < 3 && !stop; i++) {
+				Vector3 a = i == 0 ? t.a : i == 1 ? t.b : t.c;
+				Vector3 b = i == 0 ? t.b : i == 1 ? t.c : t.a;
+				Triangle u = i == 0 ? t.abnext : i == 1 ? t.bcnext : t.canext;
+
+				if (u.halfplane || PointComparator.isLess(a, b)) {
+					count++;
+					stop = !visitor.visit(a, b, t, u);
+				}
+
+				if (!u.halfplane && u.mark != stamp) {
+					u.mark = stamp;
+					if (size == edgeStack.length) {
+						edgeStack = Arrays.copyOf(edgeStack, size * 2);
+					}
+					edgeStack[size++] = u;
+				}
+			}
+		}
+
+		// Do not keep the triangles alive
+		Arrays.fill(edgeStack, 0, size, null);
+		return count;
 	}
 
 	private void updateBoundingBox(Vector3 p) {
+		if (bbMin == null) {
+			bbMin = new Vector3(p);
+			bbMax = new Vector3(p);
+			return;
+		}
+
 		float x = p.x, y = p.y, z = p.z;
 
 		// Check X
@@ -749,62 +1425,105 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	}
 
 	/**
-	 * returns an iterator to the set of all the points on the XY-convex hull
+	 * returns an iterator to the set of all the points on the XY-convex hull,
+	 * in clockwise order (see convexHullSize). The iterator walks the ring of
+	 * half planes, iterating over the whole hull takes O(h).
 	 * @return iterator to the set of all the points on the XY-convex hull.
 	 */
-	private Iterator<Vector3> getConvexHullVerticesIterator() {
-		List<Vector3> ans = new ArrayList<Vector3>();
-		Triangle curr = this.startTriangleHull;
-		boolean cont = true;
-		double x0 = bbMin.x, x1 = bbMax.x;
-		double y0 = bbMin.y, y1 = bbMax.y;
-		boolean sx, sy;
-		while (cont) {
-			sx = curr.p1().x == x0 || curr.p1().x == x1;
-			sy = curr.p1().y == y0 || curr.p1().y == y1;
-			if ((sx && sy) || (!sx && !sy)) {
-				ans.add(curr.p1());
-			}
-			if (curr.bcnext != null && curr.bcnext.halfplane)
-				curr = curr.bcnext;
-			if (curr == this.startTriangleHull)
-				cont = false;
+	public Iterator<Vector3> getConvexHullVerticesIterator() {
+		if (allCollinear) {
+			return verticesIterator();
 		}
-		return ans.iterator();
+
+		final Iterator<Triangle> edges = getConvexHullEdgesIterator();
+		return new Iterator<Vector3>() {
+			public boolean hasNext() {
+				return edges.hasNext();
+			}
+
+			public Vector3 next() {
+				return edges.next().p1();
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * returns an iterator to the edges of the XY-convex hull, in clockwise order.
+	 * Every edge is a half plane: p1() and p2() are the edge vertices and next_12()
+	 * is the triangle inside the hull. Empty if all the vertices are collinear.
+	 * @return iterator to the half planes of this triangulation.
+	 */
+	public Iterator<Triangle> getConvexHullEdgesIterator() {
+		final Triangle first = allCollinear ? null : startTriangleHull;
+
+		return new Iterator<Triangle>() {
+			private Triangle next = first;
+
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			public Triangle next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				Triangle edge = next;
+				next = edge.bcnext == first ? null : edge.bcnext;
+				return edge;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	private List<Triangle> generateTriangles() {
 
-		List<Triangle> front = new ArrayList<Triangle>();
+		Deque<Triangle> front = new ArrayDeque<Triangle>();
 
-		List<Triangle> triangles = new ArrayList<Triangle>();
+		List<Triangle> triangles = new ArrayList<Triangle>(2 * vertices.size());
 		front.add(this.startTriangle);
 
-		Set<Triangle> triSet = new HashSet<Triangle>();
+		int stamp = ++markStamp;
 
-		while (front.size() > 0) {
-			Triangle t = front.remove(0);
-			if (t.mark == false) {
-				t.mark = true;
+		while (!front.isEmpty()) {
+			Triangle t = front.poll();
+			if (t.mark != stamp) {
+				t.mark = stamp;
 
 				triangles.add(t);
-				triSet.add(t);
 
-				checkToInclude(t, t.abnext, front);
-				checkToInclude(t, t.bcnext, front);
-				checkToInclude(t, t.canext, front);
+				checkToInclude(t.abnext, front, stamp);
+				checkToInclude(t.bcnext, front, stamp);
+				checkToInclude(t.canext, front, stamp);
 			}
 		}
 
 		return triangles;
 	}
 
-	private void checkToInclude(Triangle t, Triangle nextTriangle, List<Triangle> front) {
-		if (nextTriangle != null && !nextTriangle.mark && !nextTriangle.isHalfplane()) {
+	private void checkToInclude(Triangle nextTriangle, Deque<Triangle> front, int stamp) {
+		if (nextTriangle != null && nextTriangle.mark != stamp && !nextTriangle.isHalfplane()) {
 			front.add(nextTriangle);
 		}
 	}
 
+	/**
+	 * returns the triangles of this triangulation (half planes are not included).
+	 * @return list of triangles, empty if all the vertices are collinear
+	 */
+	public List<Triangle> getTriangles() {
+		if (allCollinear) {
+			return new ArrayList<Triangle>();
+		}
+		return generateTriangles();
+	}
+
 	/**
 	 * Triangulate given points.
 	 * Note: duplicated points are ignored.
@@ -814,22 +1533,28 @@ public class DelaunayTriangulation extends BaseTriangulation {
 	public List<Triangle> triangulate(List<Vector3> points) {
 		init(points.size());
 
-		Set<Vector3> vertices = new TreeSet<Vector3>(new PointComparator());
-
-		bbMin = new Vector3(points.get(0));
-		bbMax = new Vector3(points.get(0));
+		long start = metrics != null ? System.nanoTime() : 0;
 
 		//Insert Points
 		for (Vector3 point:points) {
 			this.insertPoint(vertices, point);
 		}
 
+		if (metrics != null) {
+			long now = System.nanoTime();
+			metrics.phase(TriangulationMetrics.PHASE_INSERT, now - start);
+			start = now;
+		}
+
 		List<Triangle> triangles = null;
 
 		if (modCount != modCount2 && vertices.size() > 2) {
-			triangles = generateTriangles();
+			triangles = getTriangles();
+			if (metrics != null) {
+				metrics.phase(TriangulationMetrics.PHASE_TRIANGLES, System.nanoTime() - start);
+			}
 		}
 
 		return triangles;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
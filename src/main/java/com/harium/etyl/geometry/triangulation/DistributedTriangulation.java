@@ -0,0 +1,240 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triangulates a point set as a grid of tiles (see TiledTriangulation) on worker processes.
+ * <br>
+ * The coordinator keeps the points, the workers ask it for the points of their tile plus the overlap
+ * margin, then only for the points past the margin in conflict with the triangles along the seams
+ * (see TileBuilder). A worker sends back the triangles it owns as point indices, the union of the
+ * tiles is the Delaunay triangulation of the points, there is no merge step.
+ * <br>
+ * The workers pull the tiles one at a time, a slow worker takes less of them (see TriangulationWorker
+ * for the protocol).
+ */
+public class DistributedTriangulation {
+
+    private final int columns;
+    private final int rows;
+    private final float margin;
+
+    /**
+     * @param columns the number of tiles along x
+     * @param rows    the number of tiles along y
+     * @param margin  the initial overlap margin around the tiles, grown where it is too small
+     */
+    public DistributedTriangulation(int columns, int rows, float margin) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("At least one tile is required");
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("The margin must not be negative");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.margin = margin;
+    }
+
+    /**
+     * triangulates the points on the workers (the connections stay open).
+     *
+     * @return the triangles, 3 indices of points per triangle, tile by tile
+     */
+    public int[] triangulate(List<Vector3> points, List<WorkerConnection> workers) throws IOException {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+
+        final TileGrid grid = new TileGrid(points, columns, rows);
+        final boolean precise = isPrecise(points);
+        final int[][] results = new int[columns * rows][];
+        final AtomicInteger next = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(workers.size());
+        try {
+            for (final WorkerConnection worker : workers) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        for (int tile = next.getAndIncrement(); tile < results.length; tile = next.getAndIncrement()) {
+                            results[tile] = session(worker, grid, tile % columns, tile / columns, precise);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while triangulating the tiles", e);
+        } catch (ExecutionException e) {
+            // Stops the other workers after their current tile, and waits for them: a connection
+            // left in the middle of a session could not be used again
+            next.set(results.length);
+            Throwable cause = e.getCause();
+            awaitOthers(futures, cause);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdown();
+        }
+
+        int count = 0;
+        for (int[] result : results) {
+            count += result.length;
+        }
+        int[] triangles = new int[count];
+        count = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, triangles, count, result.length);
+            count += result.length;
+        }
+        return triangles;
+    }
+
+    /**
+     * waits for the sessions in progress after a failure, their own failures are suppressed by it.
+     */
+    private static void awaitOthers(List<Future<Void>> futures, Throwable failure) {
+        boolean interrupted = false;
+        for (Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() != failure) {
+                        failure.addSuppressed(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * sends a tile to a worker and answers its requests until it sends the result.
+     */
+    private int[] session(WorkerConnection worker, TileGrid grid, int column, int row, boolean precise) throws IOException {
+        DataInputStream input = worker.input;
+        DataOutputStream output = worker.output;
+
+        output.write(TriangulationWorker.TILE);
+        output.writeDouble(grid.minX);
+        output.writeDouble(grid.minY);
+        output.writeDouble(grid.maxX);
+        output.writeDouble(grid.maxY);
+        output.writeInt(columns);
+        output.writeInt(rows);
+        output.writeInt(column);
+        output.writeInt(row);
+        output.writeDouble(margin);
+        output.writeBoolean(precise);
+        output.flush();
+
+        // The points the worker has. A tile has less triangles (and seam queries) than the
+        // triangulation of all the points, larger counts are rejected before allocating
+        BitSet sent = new BitSet();
+        int n = grid.points.size();
+        int maxTriangles = (int) Math.min(2L * n, Integer.MAX_VALUE / 4);
+        while (true) {
+            int type = input.read();
+            if (type == TriangulationWorker.FETCH) {
+                double x0 = input.readDouble(), y0 = input.readDouble(), x1 = input.readDouble(), y1 = input.readDouble();
+                writePoints(output, grid, grid.fetch(x0, y0, x1, y1, sent));
+            } else if (type == TriangulationWorker.QUERIES) {
+                double x0 = input.readDouble(), y0 = input.readDouble(), x1 = input.readDouble(), y1 = input.readDouble();
+                int circleCount = readCount(input, maxTriangles);
+                double[] circles = readDoubles(input, 3 * circleCount);
+                int halfplaneCount = readCount(input, maxTriangles);
+                double[] halfplanes = readDoubles(input, 4 * halfplaneCount);
+                writePoints(output, grid, grid.resolve(circles, circleCount, halfplanes, halfplaneCount, x0, y0, x1, y1, sent));
+            } else if (type == TriangulationWorker.RESULT) {
+                int[] triangles = readInts(input, 3 * readCount(input, maxTriangles));
+                for (int i : triangles) {
+                    if (i < 0 || i >= n) {
+                        throw new IOException("Invalid point index: " + i);
+                    }
+                }
+                return triangles;
+            } else if (type == TriangulationWorker.ERROR) {
+                throw new IllegalStateException("Worker failed on tile (" + column + "," + row + "): " + input.readUTF());
+            } else {
+                throw new IOException(type == -1 ? "Worker closed the connection" : "Unexpected message: " + type);
+            }
+        }
+    }
+
+    private static void writePoints(DataOutputStream output, TileGrid grid, int[] indices) throws IOException {
+        output.write(TriangulationWorker.POINTS);
+        output.writeInt(indices.length);
+        for (int i : indices) {
+            Vector3 p = grid.points.get(i);
+            output.writeInt(i);
+            output.writeDouble(Vector3d.x(p));
+            output.writeDouble(Vector3d.y(p));
+            output.writeDouble(Vector3d.z(p));
+        }
+        output.flush();
+    }
+
+    private static int readCount(DataInputStream input, int max) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    private static double[] readDoubles(DataInputStream input, int count) throws IOException {
+        double[] values = new double[count];
+        for (int k = 0; k < count; k++) {
+            values[k] = input.readDouble();
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream input, int count) throws IOException {
+        int[] values = new int[count];
+        for (int k = 0; k < count; k++) {
+            values[k] = input.readInt();
+        }
+        return values;
+    }
+
+    private static boolean isPrecise(List<Vector3> points) {
+        for (Vector3 p : points) {
+            if (p instanceof Vector3d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
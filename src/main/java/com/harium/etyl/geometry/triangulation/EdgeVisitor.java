@@ -0,0 +1,21 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Receives the edges of a triangulation, each one once (see DelaunayTriangulation.visitEdges).
+ */
+public interface EdgeVisitor {
+
+    /**
+     * called once per edge.
+     *
+     * @param a     the first vertex of the edge
+     * @param b     the second vertex of the edge
+     * @param left  the triangle on the left of a-b (a, b are counterclockwise in it)
+     * @param right the triangle on the right of a-b, a half plane if the edge is on the convex hull
+     * @return false to stop the visit
+     */
+    boolean visit(Vector3 a, Vector3 b, Triangle left, Triangle right);
+
+}
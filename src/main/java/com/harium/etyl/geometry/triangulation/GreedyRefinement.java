@@ -0,0 +1,111 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Greedy insertion (Garland and Heckbert): repeatedly inserts the candidate with the largest
+ * vertical error until the error is below the requested tolerance.
+ * <br>
+ * Every triangle is scanned once for its worst candidate, the candidates are kept in a heap.
+ * After an insertion only the triangles around the new vertex are scanned again: a heap entry
+ * remembers the modCounter of its triangle, entries of triangles changed since then are stale
+ * and discarded.
+ * <br>
+ * Candidates are identified by an int (a sample of a grid, a vertex of a triangulation, ...),
+ * subclasses say what the vertex of a candidate is and how a triangle is scanned.
+ */
+abstract class GreedyRefinement {
+
+    final DelaunayTriangulation triangulation = new DelaunayTriangulation();
+    final List<Vector3> vertices = new ArrayList<Vector3>();
+    final BitSet inserted = new BitSet();
+
+    // candidates keyed by -error (largest error first), value is the candidate
+    private final TriangleQueue queue = new TriangleQueue();
+
+    /**
+     * returns the vertex of a candidate.
+     */
+    abstract Vector3 vertex(int candidate);
+
+    /**
+     * finds the worst candidate in t (not inserted yet) and pushes it.
+     */
+    abstract void scan(Triangle t);
+
+    /**
+     * inserts a candidate in the triangulation.
+     */
+    void insert(int candidate) {
+        Vector3 p = vertex(candidate);
+        inserted.set(candidate);
+        vertices.add(p);
+        triangulation.insertPoint(p);
+    }
+
+    /**
+     * scans every triangle, once the initial vertices are inserted.
+     */
+    void scanAll() {
+        for (Triangle t : triangulation.getTriangles()) {
+            scan(t);
+        }
+    }
+
+    void push(Triangle t, double error, int candidate) {
+        queue.push(t, -error, t.modCounter, candidate);
+    }
+
+    /**
+     * inserts candidates until the largest error is at most maxError or
+     * the triangulation has maxVertices vertices.
+     *
+     * @return the number of inserted vertices
+     */
+    int refine(double maxError, int maxVertices) {
+        int count = 0;
+        while (vertices.size() < maxVertices && nextCandidate() && -queue.peekKey() > maxError) {
+            int candidate = queue.peekValue();
+            queue.pop();
+
+            insert(candidate);
+            count++;
+
+            // Scan the triangles around the new vertex
+            Vector3 p = vertices.get(vertices.size() - 1);
+            Triangle first = triangulation.find(p);
+            Triangle t = first;
+            do {
+                scan(t);
+                t = t.nextAround(p);
+            } while (t != first);
+        }
+        return count;
+    }
+
+    /**
+     * returns the largest vertical error of the current triangulation, 0 if every candidate was inserted.
+     */
+    float error() {
+        return nextCandidate() ? (float) -queue.peekKey() : 0;
+    }
+
+    /**
+     * discards the stale entries on top of the queue, returns false if there is no candidate left.
+     */
+    private boolean nextCandidate() {
+        while (!queue.isEmpty()) {
+            Triangle t = queue.peek();
+            if (!t.halfplane && t.modCounter == queue.peekStamp()) {
+                return true;
+            }
+            queue.pop();
+        }
+        return false;
+    }
+
+}
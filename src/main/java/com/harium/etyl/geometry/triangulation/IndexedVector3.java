@@ -0,0 +1,38 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * A vertex created from a primitive array, it remembers its position in the input
+ * (see BaseTriangulation.triangulate(float[], int, int)).
+ */
+class IndexedVector3 extends Vector3 {
+
+    final int index;
+
+    IndexedVector3(float x, float y, float z, int index) {
+        super(x, y, z);
+        this.index = index;
+    }
+
+    static int indexOf(Vector3 p) {
+        if (p instanceof IndexedVector3) {
+            return ((IndexedVector3) p).index;
+        }
+        return ((Precise) p).index;
+    }
+
+    /**
+     * The double precision version.
+     */
+    static class Precise extends Vector3d {
+
+        final int index;
+
+        Precise(double x, double y, double z, int index) {
+            super(x, y, z);
+            this.index = index;
+        }
+    }
+
+}
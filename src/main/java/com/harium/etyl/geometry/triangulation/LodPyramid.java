@@ -0,0 +1,303 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A level of detail hierarchy of triangulations built from a base (full resolution) triangulation.
+ * <br>
+ * The base vertices are ordered by greedy insertion: starting from the convex hull, the vertex
+ * with the largest vertical error is inserted first. Each level is the Delaunay triangulation of a
+ * prefix of that order, so every level uses a subset of the vertices of the finer ones.
+ * <br>
+ * Level 0 is the coarsest, the last level is the base triangulation itself. The triangles of a
+ * level are linked to the triangle of the coarser level that contains their centroid (parent),
+ * and to the triangles of the finer level that point back to them (children).
+ * <br>
+ * The error of a level is measured at the base vertices.
+ */
+public class LodPyramid {
+
+    private final List<Level> levels;
+
+    private LodPyramid(List<Level> levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * builds the pyramid.
+     *
+     * @param base   the full resolution triangulation, must not be collinear
+     * @param errors the vertical tolerance of each level, from the coarsest (largest) to the finest
+     * @return the pyramid: one level per tolerance, up to the first tolerance that keeps every base
+     * vertex (the base level already meets it), plus the base level
+     */
+    public static LodPyramid build(DelaunayTriangulation base, float... errors) {
+        for (int i = 1; i < errors.length; i++) {
+            if (errors[i] > errors[i - 1]) {
+                throw new IllegalArgumentException("The errors must be sorted from the coarsest to the finest level");
+            }
+        }
+
+        Refiner refiner = new Refiner(base);
+
+        List<Level> levels = new ArrayList<Level>();
+        for (float maxError : errors) {
+            refiner.refine(maxError);
+
+            List<Vector3> vertices = refiner.vertices;
+            if (vertices.size() == base.size()) {
+                break;
+            }
+
+            DelaunayTriangulation triangulation = new DelaunayTriangulation();
+            for (Vector3 p : vertices) {
+                triangulation.insertPoint(p);
+            }
+            levels.add(new Level(triangulation, refiner.error()));
+        }
+        levels.add(new Level(base, 0));
+
+        for (int i = 1; i < levels.size(); i++) {
+            levels.get(i).link(levels.get(i - 1));
+        }
+
+        return new LodPyramid(Collections.unmodifiableList(levels));
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * @param level the level, 0 is the coarsest
+     */
+    public Level getLevel(int level) {
+        return levels.get(level);
+    }
+
+    public List<Level> getLevels() {
+        return levels;
+    }
+
+    /**
+     * returns the coarsest level whose error, once projected, is at most maxPixelError.
+     *
+     * @param pixelsPerUnit the size of one world unit on the screen
+     * @param maxPixelError the tolerance in pixels
+     * @return the cheapest level that meets the tolerance (the base level if none is coarse enough)
+     */
+    public Level selectLevel(double pixelsPerUnit, double maxPixelError) {
+        for (Level level : levels) {
+            if (level.error * pixelsPerUnit <= maxPixelError) {
+                return level;
+            }
+        }
+        return levels.get(levels.size() - 1);
+    }
+
+    /**
+     * returns the coarsest level whose error, projected by a perspective camera, is at most maxPixelError.
+     *
+     * @param distance      the distance between the camera and the terrain
+     * @param fovY          the vertical field of view in radians
+     * @param screenHeight  the viewport height in pixels
+     * @param maxPixelError the tolerance in pixels
+     * @return the cheapest level that meets the tolerance
+     */
+    public Level selectLevel(double distance, double fovY, int screenHeight, double maxPixelError) {
+        double pixelsPerUnit = screenHeight / (2 * distance * Math.tan(fovY / 2));
+        return selectLevel(pixelsPerUnit, maxPixelError);
+    }
+
+    public static class Level {
+
+        private final DelaunayTriangulation triangulation;
+        private final float error;
+        private final List<Triangle> triangles;
+
+        // the triangles are marked with consecutive stamps from this one, in list order
+        private int stamp;
+
+        // index of the parent in the coarser level, null for the coarsest level
+        private int[] parents;
+
+        // children in the finer level (CSR), null for the finest level
+        private int[] childOffsets;
+        private int[] children;
+
+        Level(DelaunayTriangulation triangulation, float error) {
+            this.triangulation = triangulation;
+            this.error = error;
+            this.triangles = Collections.unmodifiableList(triangulation.getTriangles());
+            mark();
+        }
+
+        /**
+         * marks every triangle with its index, see DelaunayTriangulation.reserveMarkStamps.
+         */
+        private void mark() {
+            stamp = triangulation.reserveMarkStamps(triangles.size());
+            for (int i = 0; i < triangles.size(); i++) {
+                triangles.get(i).mark = stamp + i;
+            }
+        }
+
+        /**
+         * links this level with the coarser one.
+         */
+        private void link(Level coarser) {
+            parents = new int[triangles.size()];
+            int[] offsets = new int[coarser.triangles.size() + 1];
+
+            Triangle start = null;
+            for (int i = 0; i < parents.length; i++) {
+                Triangle t = triangles.get(i);
+                double x = (Vector3d.x(t.a) + Vector3d.x(t.b) + Vector3d.x(t.c)) / 3;
+                double y = (Vector3d.y(t.a) + Vector3d.y(t.b) + Vector3d.y(t.c)) / 3;
+
+                Triangle parent = coarser.triangulation.find(start, x, y);
+                if (parent.halfplane) {
+                    parent = parent.abnext;
+                }
+                start = parent;
+
+                parents[i] = coarser.indexOf(parent);
+                offsets[parents[i] + 1]++;
+            }
+
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+
+            int[] next = offsets.clone();
+            int[] list = new int[parents.length];
+            for (int i = 0; i < parents.length; i++) {
+                list[next[parents[i]]++] = i;
+            }
+
+            coarser.childOffsets = offsets;
+            coarser.children = list;
+        }
+
+        public DelaunayTriangulation getTriangulation() {
+            return triangulation;
+        }
+
+        /**
+         * returns the largest vertical distance between the base vertices and this level.
+         */
+        public float getError() {
+            return error;
+        }
+
+        public List<Triangle> getTriangles() {
+            return triangles;
+        }
+
+        /**
+         * returns the index of the triangle in this level, -1 if it is not part of it.
+         */
+        public int indexOf(Triangle triangle) {
+            int index = triangle.mark - stamp;
+            if (index >= 0 && index < triangles.size() && triangles.get(index) == triangle) {
+                return index;
+            }
+            if (triangulation.lastMarkStamp() != stamp + triangles.size() - 1) {
+                // A search of the triangulation reused the marks since
+                mark();
+                return indexOf(triangle);
+            }
+            return -1;
+        }
+
+        /**
+         * returns the index of the parent triangle in the coarser level, -1 for the coarsest level.
+         */
+        public int getParent(int triangle) {
+            return parents != null ? parents[triangle] : -1;
+        }
+
+        /**
+         * returns the number of children of the triangle in the finer level, 0 for the finest level.
+         */
+        public int getChildCount(int triangle) {
+            return childOffsets != null ? childOffsets[triangle + 1] - childOffsets[triangle] : 0;
+        }
+
+        /**
+         * returns the index of the i-th child of the triangle in the finer level.
+         */
+        public int getChild(int triangle, int i) {
+            return children[childOffsets[triangle] + i];
+        }
+    }
+
+    /**
+     * Greedy insertion of the base vertices, see GreedyRefinement.
+     */
+    private static class Refiner extends GreedyRefinement {
+
+        private final DelaunayTriangulation base;
+        private final VertexIndex index;
+
+        private final List<Vector3> buffer = new ArrayList<Vector3>();
+
+        Refiner(DelaunayTriangulation base) {
+            if (base.getTriangles().isEmpty()) {
+                throw new IllegalArgumentException("The base triangulation has no triangles");
+            }
+
+            this.base = base;
+            this.index = new VertexIndex(base);
+
+            Iterator<Vector3> hull = base.getConvexHullVerticesIterator();
+            while (hull.hasNext()) {
+                insert(index.indexOf(hull.next()));
+            }
+            scanAll();
+        }
+
+        void refine(float maxError) {
+            refine(maxError, Integer.MAX_VALUE);
+        }
+
+        @Override
+        Vector3 vertex(int candidate) {
+            return index.get(candidate);
+        }
+
+        @Override
+        void scan(Triangle t) {
+            if (t.halfplane) {
+                return;
+            }
+
+            buffer.clear();
+            base.findVertices(new RangeSearch.TriangleRegion(t.a, t.b, t.c), buffer);
+
+            double worst = -1;
+            int candidate = -1;
+            for (Vector3 p : buffer) {
+                int i = index.indexOf(p);
+                if (inserted.get(i)) {
+                    continue;
+                }
+                double error = Math.abs(p.z - t.z((double) p.x, (double) p.y));
+                if (error > worst) {
+                    worst = error;
+                    candidate = i;
+                }
+            }
+
+            if (candidate >= 0) {
+                push(t, worst, candidate);
+            }
+        }
+    }
+
+}
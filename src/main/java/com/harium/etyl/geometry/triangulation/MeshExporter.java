@@ -0,0 +1,184 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.List;
+
+/**
+ * Exports a triangulation as an indexed mesh, ready to be uploaded to the GPU.
+ * <br>
+ * Every vertex is written once, in the PointComparator order, and the triangles reference
+ * them by index (counterclockwise, seen from +Z). The index of a vertex is found in constant
+ * time (see VertexIndex), so every write is one linear pass without boxing.
+ * <br>
+ * Vector3d vertices are read in double precision, the buffers hold floats.
+ * <br>
+ * The write methods reuse the given buffer when it has enough capacity, otherwise a new direct
+ * buffer (native order) is allocated. The returned buffer is flipped, ready to be read.
+ */
+public class MeshExporter {
+
+    private final VertexIndex index;
+    private final List<Triangle> triangles;
+
+    public MeshExporter(DelaunayTriangulation triangulation) {
+        this.index = new VertexIndex(triangulation);
+        this.triangles = triangulation.getTriangles();
+    }
+
+    public int getVertexCount() {
+        return index.size();
+    }
+
+    public int getTriangleCount() {
+        return triangles.size();
+    }
+
+    /**
+     * writes x, y, z for every vertex.
+     *
+     * @param buffer the buffer to reuse, may be null
+     * @return the written buffer
+     */
+    public FloatBuffer writeVertices(FloatBuffer buffer) {
+        return writeVertices(buffer, false);
+    }
+
+    /**
+     * writes x, y, z for every vertex, followed by the normal nx, ny, nz if normals is true (interleaved).
+     *
+     * @param buffer  the buffer to reuse, may be null
+     * @param normals true to interleave the vertex normals
+     * @return the written buffer
+     */
+    public FloatBuffer writeVertices(FloatBuffer buffer, boolean normals) {
+        int n = index.size();
+        float[] vertexNormals = normals ? computeNormals() : null;
+
+        buffer = floatBuffer(buffer, n * (normals ? 6 : 3));
+        for (int i = 0; i < n; i++) {
+            Vector3 p = index.get(i);
+            buffer.put((float) Vector3d.x(p)).put((float) Vector3d.y(p)).put((float) Vector3d.z(p));
+            if (normals) {
+                buffer.put(vertexNormals, i * 3, 3);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * writes the vertex normals (nx, ny, nz), the area weighted average of the normals of the
+     * triangles around each vertex.
+     *
+     * @param buffer the buffer to reuse, may be null
+     * @return the written buffer
+     */
+    public FloatBuffer writeNormals(FloatBuffer buffer) {
+        float[] normals = computeNormals();
+        buffer = floatBuffer(buffer, normals.length);
+        buffer.put(normals);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * writes three indices per triangle.
+     *
+     * @param buffer the buffer to reuse, may be null
+     * @return the written buffer
+     */
+    public IntBuffer writeIndices(IntBuffer buffer) {
+        int capacity = triangles.size() * 3;
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = allocate(capacity * 4).asIntBuffer();
+        }
+        buffer.clear();
+
+        for (Triangle t : triangles) {
+            buffer.put(index.indexOf(t.a)).put(index.indexOf(t.b)).put(index.indexOf(t.c));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * writes three indices per triangle as unsigned shorts (GL_UNSIGNED_SHORT).
+     *
+     * @param buffer the buffer to reuse, may be null
+     * @return the written buffer
+     * @throws IllegalStateException if the mesh has more than 65536 vertices
+     */
+    public ShortBuffer writeIndices(ShortBuffer buffer) {
+        if (index.size() > 65536) {
+            throw new IllegalStateException("Too many vertices for short indices: " + index.size());
+        }
+
+        int capacity = triangles.size() * 3;
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = allocate(capacity * 2).asShortBuffer();
+        }
+        buffer.clear();
+
+        for (Triangle t : triangles) {
+            buffer.put((short) index.indexOf(t.a)).put((short) index.indexOf(t.b)).put((short) index.indexOf(t.c));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private float[] computeNormals() {
+        double[] sums = new double[index.size() * 3];
+
+        for (Triangle t : triangles) {
+            // The cross product length is twice the area, so bigger triangles weight more
+            double ax = Vector3d.x(t.a), ay = Vector3d.y(t.a), az = Vector3d.z(t.a);
+            double ux = Vector3d.x(t.b) - ax, uy = Vector3d.y(t.b) - ay, uz = Vector3d.z(t.b) - az;
+            double vx = Vector3d.x(t.c) - ax, vy = Vector3d.y(t.c) - ay, vz = Vector3d.z(t.c) - az;
+            double nx = uy * vz - uz * vy;
+            double ny = uz * vx - ux * vz;
+            double nz = ux * vy - uy * vx;
+
+            add(sums, index.indexOf(t.a), nx, ny, nz);
+            add(sums, index.indexOf(t.b), nx, ny, nz);
+            add(sums, index.indexOf(t.c), nx, ny, nz);
+        }
+
+        float[] normals = new float[sums.length];
+        for (int i = 0; i < normals.length; i += 3) {
+            double length = Math.sqrt(sums[i] * sums[i] + sums[i + 1] * sums[i + 1] + sums[i + 2] * sums[i + 2]);
+            if (length > 0) {
+                normals[i] = (float) (sums[i] / length);
+                normals[i + 1] = (float) (sums[i + 1] / length);
+                normals[i + 2] = (float) (sums[i + 2] / length);
+            } else {
+                normals[i + 2] = 1;
+            }
+        }
+        return normals;
+    }
+
+    private static void add(double[] sums, int i, double nx, double ny, double nz) {
+        sums[i * 3] += nx;
+        sums[i * 3 + 1] += ny;
+        sums[i * 3 + 2] += nz;
+    }
+
+    private static FloatBuffer floatBuffer(FloatBuffer buffer, int capacity) {
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = allocate(capacity * 4).asFloatBuffer();
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.harium.etyl.geometry.triangulation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates the metrics of one or more triangulations, not thread safe.
+ * <br>
+ * The walk lengths are kept in a power of two histogram: bucket 0 counts the walks of 0 steps
+ * and bucket i counts the walks of 2^(i-1) to 2^i - 1 steps.
+ */
+public class MetricsRecorder implements TriangulationMetrics {
+
+    private final long[] walkHistogram = new long[32];
+    private long walks, walkSteps;
+    private int maxWalk;
+
+    private long insertions, flips, orientationTests, inCircleTests;
+    private int maxFlips;
+
+    private final long[] degeneracies = new long[Degeneracy.values().length];
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    public void walk(int steps) {
+        walks++;
+        walkSteps += steps;
+        maxWalk = Math.max(maxWalk, steps);
+        walkHistogram[32 - Integer.numberOfLeadingZeros(steps)]++;
+    }
+
+    public void insertion(int flips, int orientationTests, int inCircleTests) {
+        insertions++;
+        this.flips += flips;
+        this.orientationTests += orientationTests;
+        this.inCircleTests += inCircleTests;
+        maxFlips = Math.max(maxFlips, flips);
+    }
+
+    public void degeneracy(Degeneracy degeneracy) {
+        degeneracies[degeneracy.ordinal()]++;
+    }
+
+    public void phase(String phase, long nanos) {
+        Long total = phases.get(phase);
+        phases.put(phase, total != null ? total + nanos : nanos);
+    }
+
+    public void reset() {
+        Arrays.fill(walkHistogram, 0);
+        walks = walkSteps = 0;
+        maxWalk = 0;
+        insertions = flips = orientationTests = inCircleTests = 0;
+        maxFlips = 0;
+        Arrays.fill(degeneracies, 0);
+        phases.clear();
+    }
+
+    public long getWalkCount() {
+        return walks;
+    }
+
+    public long getWalkSteps() {
+        return walkSteps;
+    }
+
+    public int getMaxWalk() {
+        return maxWalk;
+    }
+
+    public double getAverageWalk() {
+        return walks > 0 ? (double) walkSteps / walks : 0;
+    }
+
+    /**
+     * returns a copy of the walk length histogram (see the class comment).
+     */
+    public long[] getWalkHistogram() {
+        return walkHistogram.clone();
+    }
+
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public long getFlips() {
+        return flips;
+    }
+
+    public int getMaxFlips() {
+        return maxFlips;
+    }
+
+    public double getFlipsPerInsertion() {
+        return insertions > 0 ? (double) flips / insertions : 0;
+    }
+
+    public long getOrientationTests() {
+        return orientationTests;
+    }
+
+    public long getInCircleTests() {
+        return inCircleTests;
+    }
+
+    public long getDegeneracies(Degeneracy degeneracy) {
+        return degeneracies[degeneracy.ordinal()];
+    }
+
+    /**
+     * returns the total time of each phase in nanoseconds.
+     */
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("insertions=").append(insertions)
+                .append(" flips/insertion=").append(String.format("%.2f", getFlipsPerInsertion()))
+                .append(" maxFlips=").append(maxFlips)
+                .append(" walks=").append(walks)
+                .append(" avgWalk=").append(String.format("%.2f", getAverageWalk()))
+                .append(" maxWalk=").append(maxWalk)
+                .append(" orientationTests=").append(orientationTests)
+                .append(" inCircleTests=").append(inCircleTests);
+        for (Degeneracy degeneracy : Degeneracy.values()) {
+            builder.append(' ').append(degeneracy.name().toLowerCase()).append('=').append(getDegeneracies(degeneracy));
+        }
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            builder.append(' ').append(phase.getKey()).append("Ms=").append(phase.getValue() / 1000000);
+        }
+        return builder.toString();
+    }
+
+}
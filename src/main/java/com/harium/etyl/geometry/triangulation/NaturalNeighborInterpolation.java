@@ -0,0 +1,365 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Natural neighbor (Sibson) interpolation: smooth across the edges, where the linear interpolation
+ * of the triangles (see Triangle.z) leaves facets.
+ * <br>
+ * The query point is inserted virtually: the triangles with the point inside their circumcircle (the
+ * cavity of a Bowyer-Watson insertion) are found with a walk over the neighbors of the triangle it falls
+ * in, and the area its Voronoi cell would take from each vertex of the cavity is computed from the
+ * circumcenters. The weight of a vertex is its share of the cell.
+ * <br>
+ * The triangulation is only read (no marks, no cached circles or planes), so the batches run in parallel
+ * over a triangulation that does not change. Outside the convex hull the value is NaN.
+ */
+public class NaturalNeighborInterpolation {
+
+    // points per task of a parallel batch, walked in order from the previous point
+    private static final int CHUNK = 4096;
+
+    private final DelaunayTriangulation triangulation;
+
+    public NaturalNeighborInterpolation(DelaunayTriangulation triangulation) {
+        this.triangulation = triangulation;
+    }
+
+    /**
+     * returns the interpolated z at (x, y), NaN outside the convex hull.
+     */
+    public double z(double x, double y) {
+        Cavity cavity = new Cavity();
+        return z(x, y, cavity);
+    }
+
+    /**
+     * interpolates z at count points, the location walks on from the previous point.
+     *
+     * @param xy  x, y per point
+     * @param out receives z per point, NaN outside the convex hull
+     * @return the number of points inside the convex hull
+     */
+    public int z(double[] xy, int count, double[] out) {
+        return z(xy, 0, count, out);
+    }
+
+    /**
+     * interpolates z at count points, in tasks of consecutive points on the given executor (which is not
+     * shut down). The triangulation must not change meanwhile.
+     *
+     * @param xy  x, y per point
+     * @param out receives z per point, NaN outside the convex hull
+     * @return the number of points inside the convex hull
+     */
+    public int z(final double[] xy, int count, final double[] out, ExecutorService executor) {
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (int start = 0; start < count; start += CHUNK) {
+            final int from = start, to = Math.min(count, start + CHUNK);
+            futures.add(executor.submit(new Callable<Integer>() {
+                public Integer call() {
+                    return z(xy, from, to, out);
+                }
+            }));
+        }
+
+        int inside = 0;
+        try {
+            for (Future<Integer> future : futures) {
+                inside += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while interpolating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return inside;
+    }
+
+    /**
+     * interpolates all the channels of the attributes at (x, y).
+     *
+     * @param out receives the channels at offset
+     * @return false if (x, y) is outside the convex hull (out is not changed)
+     */
+    public boolean interpolate(double x, double y, VertexAttributes attributes, float[] out, int offset) {
+        Cavity cavity = new Cavity();
+        if (!neighbors(x, y, cavity)) {
+            return false;
+        }
+
+        int channels = attributes.getChannels();
+        float[] values = attributes.getValues();
+        for (int k = 0; k < channels; k++) {
+            double value = 0;
+            for (int i = 0; i < cavity.vertexCount; i++) {
+                int row = attributes.indexOf(cavity.vertices[i]);
+                if (row < 0) {
+                    throw new IllegalStateException("Not a vertex of the triangulation: " + cavity.vertices[i]);
+                }
+                value += cavity.weights[i] * values[row * channels + k];
+            }
+            out[offset + k] = (float) value;
+        }
+        return true;
+    }
+
+    private int z(double[] xy, int from, int to, double[] out) {
+        Cavity cavity = new Cavity();
+        int inside = 0;
+        for (int i = from; i < to; i++) {
+            out[i] = z(xy[2 * i], xy[2 * i + 1], cavity);
+            if (!Double.isNaN(out[i])) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    private double z(double x, double y, Cavity cavity) {
+        if (!neighbors(x, y, cavity)) {
+            return Double.NaN;
+        }
+        double z = 0;
+        for (int i = 0; i < cavity.vertexCount; i++) {
+            z += cavity.weights[i] * Vector3d.z(cavity.vertices[i]);
+        }
+        return z;
+    }
+
+    /**
+     * finds the natural neighbors of (x, y) and their weights.
+     *
+     * @return false outside the convex hull
+     */
+    private boolean neighbors(double x, double y, Cavity cavity) {
+        cavity.size = 0;
+        cavity.vertexCount = 0;
+        Triangle start = cavity.last != null ? cavity.last : triangulation.startTriangle;
+        if (start == null) {
+            return false;
+        }
+        Triangle t = BaseTriangulation.find(start, x, y, null);
+        cavity.last = t;
+        if (t.halfplane) {
+            return false;
+        }
+
+        // On a vertex, its value
+        Vector3[] corners = {t.a, t.b, t.c};
+        for (Vector3 corner : corners) {
+            if (Vector3d.x(corner) == x && Vector3d.y(corner) == y) {
+                cavity.weight(corner, 1);
+                return true;
+            }
+        }
+
+        // The cavity, t contains the point
+        if (!cavity.add(t, x, y)) {
+            return linear(t, x, y, cavity);
+        }
+        for (int i = 0; i < cavity.size; i++) {
+            Triangle c = cavity.triangles[i];
+            if (!visit(c.abnext, x, y, cavity) || !visit(c.bcnext, x, y, cavity) || !visit(c.canext, x, y, cavity)) {
+                return linear(t, x, y, cavity);
+            }
+        }
+
+        // The area taken from each vertex u: the polygon of the circumcenters of the cavity triangles
+        // around u, closed by the circumcenters of the new triangles on the bisector of u and the point
+        for (int i = 0; i < cavity.size; i++) {
+            Triangle c = cavity.triangles[i];
+            if (!stolen(cavity, i, c.a, c.b, c.c, c.abnext, c.canext, x, y)
+                    || !stolen(cavity, i, c.b, c.c, c.a, c.bcnext, c.abnext, x, y)
+                    || !stolen(cavity, i, c.c, c.a, c.b, c.canext, c.bcnext, x, y)) {
+                return linear(t, x, y, cavity);
+            }
+        }
+
+        double total = 0;
+        for (int i = 0; i < cavity.vertexCount; i++) {
+            total += cavity.weights[i];
+        }
+        if (total == 0 || Double.isNaN(total) || Double.isInfinite(total)) {
+            return linear(t, x, y, cavity);
+        }
+        for (int i = 0; i < cavity.vertexCount; i++) {
+            cavity.weights[i] /= total;
+        }
+        return true;
+    }
+
+    private static boolean visit(Triangle n, double x, double y, Cavity cavity) {
+        if (n.halfplane || cavity.indexOf(n) >= 0 || !inCircle(n, x, y)) {
+            return true;
+        }
+        return cavity.add(n, x, y);
+    }
+
+    /**
+     * adds the part of the polygon of u (corner of the i-th cavity triangle, next and prev are the other
+     * corners in order, across the edges u-next and prev-u), relative to the middle of u and the point
+     * (the closing side is on the bisector, it adds nothing).
+     *
+     * @return false if a new triangle is degenerate
+     */
+    private static boolean stolen(Cavity cavity, int i, Vector3 u, Vector3 next, Vector3 prev,
+                                  Triangle acrossNext, Triangle acrossPrev, double x, double y) {
+        double ux = Vector3d.x(u) - x, uy = Vector3d.y(u) - y;
+        double mx = ux / 2, my = uy / 2;
+        double ax = cavity.centers[2 * i] - mx, ay = cavity.centers[2 * i + 1] - my;
+
+        double area;
+        int j = cavity.indexOf(acrossNext);
+        if (j >= 0) {
+            area = cross(ax, ay, cavity.centers[2 * j] - mx, cavity.centers[2 * j + 1] - my);
+        } else {
+            // The new triangle u, next, point
+            if (!circumcenter(ux, uy, Vector3d.x(next) - x, Vector3d.y(next) - y, cavity.center)) {
+                return false;
+            }
+            area = cross(ax, ay, cavity.center[0] - mx, cavity.center[1] - my);
+        }
+        if (cavity.indexOf(acrossPrev) < 0) {
+            // The new triangle prev, u, point
+            if (!circumcenter(Vector3d.x(prev) - x, Vector3d.y(prev) - y, ux, uy, cavity.center)) {
+                return false;
+            }
+            area += cross(cavity.center[0] - mx, cavity.center[1] - my, ax, ay);
+        }
+        cavity.weight(u, area);
+        return true;
+    }
+
+    /**
+     * the linear interpolation of the triangle, where a circumcenter is degenerate (the point on the
+     * convex hull, collinear vertices).
+     */
+    private static boolean linear(Triangle t, double x, double y, Cavity cavity) {
+        cavity.vertexCount = 0;
+        double cx = Vector3d.x(t.c), cy = Vector3d.y(t.c);
+        double ax = Vector3d.x(t.a) - cx, ay = Vector3d.y(t.a) - cy;
+        double bx = Vector3d.x(t.b) - cx, by = Vector3d.y(t.b) - cy;
+        double px = x - cx, py = y - cy;
+        double d = ax * by - ay * bx;
+        double wa = 1, wb = 0;
+        if (d != 0) {
+            wa = (px * by - py * bx) / d;
+            wb = (ax * py - ay * px) / d;
+        }
+        cavity.weight(t.a, wa);
+        cavity.weight(t.b, wb);
+        cavity.weight(t.c, 1 - wa - wb);
+        return true;
+    }
+
+    /**
+     * returns true if (x, y) is strictly inside the circumcircle of t, from the in circle determinant.
+     */
+    private static boolean inCircle(Triangle t, double x, double y) {
+        double adx = Vector3d.x(t.a) - x, ady = Vector3d.y(t.a) - y;
+        double bdx = Vector3d.x(t.b) - x, bdy = Vector3d.y(t.b) - y;
+        double cdx = Vector3d.x(t.c) - x, cdy = Vector3d.y(t.c) - y;
+        double ab = adx * bdy - bdx * ady;
+        double bc = bdx * cdy - cdx * bdy;
+        double ca = cdx * ady - adx * cdy;
+        double det = (adx * adx + ady * ady) * bc + (bdx * bdx + bdy * bdy) * ca + (cdx * cdx + cdy * cdy) * ab;
+        return ab + bc + ca > 0 ? det > 0 : det < 0;
+    }
+
+    /**
+     * computes the circumcenter of the origin, s and t.
+     *
+     * @return false if they are collinear
+     */
+    private static boolean circumcenter(double sx, double sy, double tx, double ty, double[] center) {
+        double d = 2 * (sx * ty - sy * tx);
+        if (d == 0) {
+            return false;
+        }
+        double s2 = sx * sx + sy * sy, t2 = tx * tx + ty * ty;
+        center[0] = (ty * s2 - sy * t2) / d;
+        center[1] = (sx * t2 - tx * s2) / d;
+        return true;
+    }
+
+    private static double cross(double ax, double ay, double bx, double by) {
+        return ax * by - ay * bx;
+    }
+
+    /**
+     * The cavity of a query, reused along a batch: the triangles and their circumcenters (relative to the
+     * point), then the natural neighbors and their weights.
+     */
+    private static class Cavity {
+
+        Triangle last;
+
+        Triangle[] triangles = new Triangle[16];
+        double[] centers = new double[32];
+        int size;
+
+        Vector3[] vertices = new Vector3[16];
+        double[] weights = new double[16];
+        int vertexCount;
+
+        final double[] center = new double[2];
+
+        /**
+         * @return false if the triangle is degenerate
+         */
+        boolean add(Triangle t, double x, double y) {
+            double ax = Vector3d.x(t.a) - x, ay = Vector3d.y(t.a) - y;
+            if (!circumcenter(Vector3d.x(t.b) - x - ax, Vector3d.y(t.b) - y - ay,
+                    Vector3d.x(t.c) - x - ax, Vector3d.y(t.c) - y - ay, center)) {
+                return false;
+            }
+            if (size == triangles.length) {
+                triangles = Arrays.copyOf(triangles, size * 2);
+                centers = Arrays.copyOf(centers, size * 4);
+            }
+            triangles[size] = t;
+            centers[2 * size] = ax + center[0];
+            centers[2 * size + 1] = ay + center[1];
+            size++;
+            return true;
+        }
+
+        int indexOf(Triangle t) {
+            for (int i = 0; i < size; i++) {
+                if (triangles[i] == t) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void weight(Vector3 vertex, double weight) {
+            for (int i = 0; i < vertexCount; i++) {
+                if (vertices[i] == vertex) {
+                    weights[i] += weight;
+                    return;
+                }
+            }
+            if (vertexCount == vertices.length) {
+                vertices = Arrays.copyOf(vertices, vertexCount * 2);
+                weights = Arrays.copyOf(weights, vertexCount * 2);
+            }
+            vertices[vertexCount] = vertex;
+            weights[vertexCount++] = weight;
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.List;
+
+/**
+ * Exact nearest and k-nearest vertex queries (in XY) over a Delaunay triangulation.
+ * <br>
+ * The nearest vertex is found with a greedy walk on the Delaunay graph starting from the
+ * triangle returned by find: a vertex that is not the nearest always has a closer neighbor.
+ * <br>
+ * The k nearest vertices are collected by expanding the triangles around the nearest vertex in
+ * order of their distance to the query point, until the closest unexpanded triangle is farther
+ * than the k-th candidate. The candidates are kept in a bounded max-heap.
+ * <br>
+ * The buffers are reused between queries, an instance must not be shared between threads.
+ */
+class NearestVertexSearch {
+
+    private final TriangleQueue queue = new TriangleQueue();
+
+    // Bounded max-heap of candidates (farthest first)
+    private Vector3[] candidates = new Vector3[16];
+    private double[] distances = new double[16];
+    private int size;
+
+    // The triangle that contains the last nearest vertex
+    private Triangle nearestTriangle;
+
+    /**
+     * @param start a triangle to start the search from (see find)
+     * @param q     the query point
+     * @return the vertex closest to q
+     */
+    Vector3 nearest(Triangle start, Vector3 q) {
+        Vector3 best = start.a;
+        double bestDistance = distance2(start.a, q);
+        double d = distance2(start.b, q);
+        if (d < bestDistance) {
+            best = start.b;
+            bestDistance = d;
+        }
+        if (!start.halfplane) {
+            d = distance2(start.c, q);
+            if (d < bestDistance) {
+                best = start.c;
+                bestDistance = d;
+            }
+        }
+
+        Triangle triangle = start;
+        Vector3 current;
+        do {
+            current = best;
+
+            // Visit every neighbor of the current vertex
+            Triangle around = triangle;
+            do {
+                Vector3 neighbor = around.cornerAfter(current);
+                if (neighbor != null) {
+                    d = distance2(neighbor, q);
+                    if (d < bestDistance) {
+                        best = neighbor;
+                        bestDistance = d;
+                        triangle = around;
+                    }
+                }
+                around = around.nextAround(current);
+            } while (around != triangle && best == current);
+
+        } while (best != current);
+
+        nearestTriangle = triangle;
+        return best;
+    }
+
+    /**
+     * @param start  a triangle to start the search from (see find)
+     * @param q      the query point
+     * @param k      the number of vertices to find
+     * @param stamp  a mark stamp not used by any triangle
+     * @param result the list the vertices are added to, sorted by distance
+     * @return the number of vertices added
+     */
+    int nearest(Triangle start, Vector3 q, int k, int stamp, List<Vector3> result) {
+        if (k <= 0) {
+            return 0;
+        }
+        ensureCapacity(k);
+        size = 0;
+
+        nearest(start, q);
+
+        Triangle first = nearestTriangle;
+        if (first.halfplane) {
+            first = first.abnext;
+        }
+        first.mark = stamp;
+        queue.push(first, 0);
+
+        while (!queue.isEmpty()) {
+            if (size == k && queue.peekKey() > distances[0]) {
+                break;
+            }
+            Triangle t = queue.pop();
+
+            offer(t.a, q, k);
+            offer(t.b, q, k);
+            offer(t.c, q, k);
+
+            expand(t.abnext, q, stamp);
+            expand(t.bcnext, q, stamp);
+            expand(t.canext, q, stamp);
+        }
+        queue.clear();
+
+        // Sort the candidates by distance
+        int count = size;
+        int offset = result.size();
+        for (int i = 0; i < count; i++) {
+            result.add(null);
+        }
+        while (size > 0) {
+            result.set(offset + size - 1, candidates[0]);
+            removeFarthest();
+        }
+
+        return count;
+    }
+
+    private void expand(Triangle t, Vector3 q, int stamp) {
+        if (t.halfplane || t.mark == stamp) {
+            return;
+        }
+        t.mark = stamp;
+        queue.push(t, distance2(t, q));
+    }
+
+    private void offer(Vector3 p, Vector3 q, int k) {
+        double d = distance2(p, q);
+        if (size == k && d >= distances[0]) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (candidates[i] == p) {
+                return;
+            }
+        }
+        if (size == k) {
+            removeFarthest();
+        }
+
+        // Sift up
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= d) {
+                break;
+            }
+            candidates[i] = candidates[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        candidates[i] = p;
+        distances[i] = d;
+    }
+
+    private void removeFarthest() {
+        size--;
+        Vector3 last = candidates[size];
+        double d = distances[size];
+        candidates[size] = null;
+
+        // Sift down
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (d >= distances[child]) {
+                break;
+            }
+            candidates[i] = candidates[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        if (size > 0) {
+            candidates[i] = last;
+            distances[i] = d;
+        }
+    }
+
+    private void ensureCapacity(int k) {
+        if (candidates.length < k) {
+            candidates = new Vector3[k];
+            distances = new double[k];
+        }
+    }
+
+    static double distance2(Vector3 p, Vector3 q) {
+        double dx = Vector3d.x(p) - Vector3d.x(q);
+        double dy = Vector3d.y(p) - Vector3d.y(q);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * returns the squared XY distance between q and the triangle t (0 if q is inside).
+     */
+    static double distance2(Triangle t, Vector3 q) {
+        if (t.contains(q)) {
+            return 0;
+        }
+        double d = segmentDistance2(t.a, t.b, q);
+        d = Math.min(d, segmentDistance2(t.b, t.c, q));
+        return Math.min(d, segmentDistance2(t.c, t.a, q));
+    }
+
+    static double segmentDistance2(Vector3 a, Vector3 b, Vector3 q) {
+        double ax = Vector3d.x(a), ay = Vector3d.y(a);
+        double qx = Vector3d.x(q), qy = Vector3d.y(q);
+        double dx = Vector3d.x(b) - ax;
+        double dy = Vector3d.y(b) - ay;
+        double length2 = dx * dx + dy * dy;
+
+        double t = 0;
+        if (length2 > 0) {
+            t = ((qx - ax) * dx + (qy - ay) * dy) / length2;
+            t = Math.max(0, Math.min(1, t));
+        }
+
+        double px = ax + t * dx - qx;
+        double py = ay + t * dy - qy;
+        return px * px + py * py;
+    }
+
+}
@@ -0,0 +1,304 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Streaming reader for point files in TSIN or plain XYZ/CSV text format.
+ * <br>
+ * Every line holds one point: "x y z" separated by spaces, tabs, commas or semicolons
+ * (a missing z is read as 0). Lines with a single value (the TSIN vertex count),
+ * empty lines and lines that do not start with a number (headers, comments) are skipped.
+ * <br>
+ * The file is read through a reusable buffer and the numbers are parsed straight
+ * from the bytes, no String is created per line.
+ * <br>
+ * The numbers are parsed as doubles, in precise mode the points are Vector3d so nothing is lost
+ * (e.g. projected UTM coordinates), otherwise they are rounded to floats.
+ */
+public class PointCloudReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int MAX_DIGITS = 18;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final ByteBuffer buffer;
+
+    // the values of the current line
+    private final double[] values = new double[3];
+
+    // the position after the last parsed number
+    private int position;
+
+    private boolean precise;
+
+    public PointCloudReader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the size of the read buffer, must be larger than the longest line
+     */
+    public PointCloudReader(int bufferSize) {
+        buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    /**
+     * @param precise true to read the points as Vector3d (double precision)
+     */
+    public void setPrecise(boolean precise) {
+        this.precise = precise;
+    }
+
+    /**
+     * reads the points of a file and inserts them in the triangulation.
+     *
+     * @param path          the TSIN/XYZ file
+     * @param triangulation the triangulation the points are inserted to
+     * @return the number of points read
+     */
+    public int read(Path path, DelaunayTriangulation triangulation) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return read(channel, triangulation, null);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * reads the points of a channel and inserts them in the triangulation.
+     *
+     * @param channel       the TSIN/XYZ data
+     * @param triangulation the triangulation the points are inserted to
+     * @return the number of points read
+     */
+    public int read(ReadableByteChannel channel, DelaunayTriangulation triangulation) throws IOException {
+        return read(channel, triangulation, null);
+    }
+
+    /**
+     * reads the points of a file.
+     *
+     * @param path   the TSIN/XYZ file
+     * @param points the collection the points are added to
+     * @return the number of points read
+     */
+    public int read(Path path, Collection<Vector3> points) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return read(channel, null, points);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * reads the points of a channel.
+     *
+     * @param channel the TSIN/XYZ data
+     * @param points  the collection the points are added to
+     * @return the number of points read
+     */
+    public int read(ReadableByteChannel channel, Collection<Vector3> points) throws IOException {
+        return read(channel, null, points);
+    }
+
+    private int read(ReadableByteChannel channel, DelaunayTriangulation triangulation,
+                     Collection<Vector3> points) throws IOException {
+        byte[] data = buffer.array();
+        int count = 0;
+        boolean eof = false;
+
+        buffer.clear();
+
+        while (!eof) {
+            eof = channel.read(buffer) < 0;
+
+            int limit = buffer.position();
+            int lineStart = 0;
+
+            for (int i = 0; i < limit; i++) {
+                if (data[i] == '\n') {
+                    count += readLine(data, lineStart, i, triangulation, points);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (eof && lineStart < limit) {
+                count += readLine(data, lineStart, limit, triangulation, points);
+                lineStart = limit;
+            }
+
+            // Keep the incomplete line at the beginning of the buffer
+            int remaining = limit - lineStart;
+            if (remaining == data.length) {
+                throw new IOException("Line longer than the read buffer (" + data.length + " bytes).");
+            }
+            System.arraycopy(data, lineStart, data, 0, remaining);
+            buffer.clear();
+            buffer.position(remaining);
+        }
+
+        return count;
+    }
+
+    private int readLine(byte[] data, int start, int end, DelaunayTriangulation triangulation,
+                         Collection<Vector3> points) {
+        int fields = parseLine(data, start, end);
+        if (fields < 2) {
+            return 0;
+        }
+
+        double z = fields > 2 ? values[2] : 0;
+        Vector3 p;
+        if (precise) {
+            p = new Vector3d(values[0], values[1], z);
+        } else {
+            p = new Vector3((float) values[0], (float) values[1], (float) z);
+        }
+
+        if (triangulation != null) {
+            triangulation.insertPoint(p);
+        } else {
+            points.add(p);
+        }
+        return 1;
+    }
+
+    /**
+     * parses up to three numbers of a line into values.
+     *
+     * @return the number of values parsed, -1 if the line is not numeric
+     */
+    private int parseLine(byte[] data, int start, int end) {
+        int fields = 0;
+        int i = start;
+
+        while (fields < values.length) {
+            while (i < end && isSeparator(data[i])) {
+                i++;
+            }
+            if (i >= end) {
+                break;
+            }
+
+            double value = parseNumber(data, i, end);
+            if (Double.isNaN(value)) {
+                return fields == 0 ? -1 : fields;
+            }
+            values[fields++] = value;
+            i = position;
+        }
+
+        return fields;
+    }
+
+    private double parseNumber(byte[] data, int i, int end) {
+        boolean negative = false;
+        if (data[i] == '-') {
+            negative = true;
+            i++;
+        } else if (data[i] == '+') {
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean numeric = false;
+
+        // Integer part
+        while (i < end && isDigit(data[i])) {
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (data[i] - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            numeric = true;
+            i++;
+        }
+
+        // Fraction part
+        if (i < end && data[i] == '.') {
+            i++;
+            while (i < end && isDigit(data[i])) {
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (data[i] - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                }
+                numeric = true;
+                i++;
+            }
+        }
+
+        if (!numeric) {
+            return Double.NaN;
+        }
+
+        // Exponent part
+        if (i < end && (data[i] == 'e' || data[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && data[i] == '-') {
+                negativeExponent = true;
+                i++;
+            } else if (i < end && data[i] == '+') {
+                i++;
+            }
+
+            int e = 0;
+            while (i < end && isDigit(data[i])) {
+                if (e < 1000) {
+                    e = e * 10 + (data[i] - '0');
+                }
+                i++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if (i < end && !isSeparator(data[i])) {
+            return Double.NaN;
+        }
+        position = i;
+
+        double value = mantissa;
+        if (exponent < 0) {
+            value = -exponent < POW10.length ? value / POW10[-exponent] : value / Math.pow(10, -exponent);
+        } else if (exponent > 0) {
+            value = exponent < POW10.length ? value * POW10[exponent] : value * Math.pow(10, exponent);
+        }
+
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(byte c) {
+        return c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r';
+    }
+
+}
@@ -19,6 +19,10 @@ public class PointComparator implements Comparator<Vector3> {
 			Vector3 d1 = o1;
 			Vector3 d2 = o2;
 
+			if (Vector3d.isPrecise(d1, d2)) {
+				return compare(Vector3d.x(d1), Vector3d.y(d1), Vector3d.x(d2), Vector3d.y(d2));
+			}
+
 			if (d1.x > d2.x)
 				return 1;
 			if (d1.x < d2.x)
@@ -40,15 +44,27 @@ public class PointComparator implements Comparator<Vector3> {
 		return ans;
 	}
 
+	private static int compare(double x1, double y1, double x2, double y2) {
+		if (x1 != x2)
+			return x1 > x2 ? 1 : -1;
+		if (y1 != y2)
+			return y1 > y2 ? 1 : -1;
+		return 0;
+	}
+
 	public boolean equals(Point3D ob) {
 		return false;
 	}
 
 	public static boolean isLess(Vector3 a, Vector3 b) {
+		if (Vector3d.isPrecise(a, b))
+			return compare(Vector3d.x(a), Vector3d.y(a), Vector3d.x(b), Vector3d.y(b)) < 0;
 		return (a.x < b.x) || ((a.x == b.x) && (a.y < b.y));
 	}
 
 	public static boolean isGreater(Vector3 a, Vector3 b) {
+		if (Vector3d.isPrecise(a, b))
+			return compare(Vector3d.x(a), Vector3d.y(a), Vector3d.x(b), Vector3d.y(b)) > 0;
 		return (a.x > b.x) || ((a.x == b.x) && (a.y > b.y));
 	}
 }
@@ -23,40 +23,60 @@ public class PointLineTest {
 	 */
 	public static PointLinePosition pointLineTest(Vector3 a, Vector3 b, Vector3 c) {
 
+		if (Vector3d.isPrecise(a, b, c)) {
+			return pointLineTest(Vector3d.x(a), Vector3d.y(a), Vector3d.x(b), Vector3d.y(b), Vector3d.x(c), Vector3d.y(c));
+		}
+
 		double dx = b.x - a.x;
 		double dy = b.y - a.y;
 		double res = dy * (c.x - a.x) - dx * (c.y - a.y);
 
+		return position(res, dx, dy, a.x, a.y, b.x, b.y, c.x, c.y);
+	}
+
+	/**
+	 * double precision version of pointLineTest(a, b, c).
+	 */
+	public static PointLinePosition pointLineTest(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double res = dy * (cx - ax) - dx * (cy - ay);
+
+		return position(res, dx, dy, ax, ay, bx, by, cx, cy);
+	}
+
+	private static PointLinePosition position(double res, double dx, double dy,
+			double ax, double ay, double bx, double by, double cx, double cy) {
 		if (res < 0)
 			return PointLinePosition.LEFT;
 		if (res > 0)
 			return PointLinePosition.RIGHT;
 
 		if (dx > 0) {
-			if (c.x < a.x)
+			if (cx < ax)
 				return PointLinePosition.INFRONT_OF_A;
-			if (b.x < c.x)
+			if (bx < cx)
 				return PointLinePosition.BEHIND_B;
 			return PointLinePosition.ON_SEGMENT;
 		}
 		if (dx < 0) {
-			if (c.x > a.x)
+			if (cx > ax)
 				return PointLinePosition.INFRONT_OF_A;
-			if (b.x > c.x)
+			if (bx > cx)
 				return PointLinePosition.BEHIND_B;
 			return PointLinePosition.ON_SEGMENT;
 		}
 		if (dy > 0) {
-			if (c.y < a.y)
+			if (cy < ay)
 				return PointLinePosition.INFRONT_OF_A;
-			if (b.y < c.y)
+			if (by < cy)
 				return PointLinePosition.BEHIND_B;
 			return PointLinePosition.ON_SEGMENT;
 		}
 		if (dy < 0) {
-			if (c.y > a.y)
+			if (cy > ay)
 				return PointLinePosition.INFRONT_OF_A;
-			if (b.y > c.y)
+			if (by > cy)
 				return PointLinePosition.BEHIND_B;
 			return PointLinePosition.ON_SEGMENT;
 		}
@@ -0,0 +1,237 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+
+/**
+ * Proximity graphs of the vertices of a triangulation, all of them subgraphs of the Delaunay edges:
+ * the Euclidean minimum spanning tree, the Gabriel graph and the relative neighborhood graph.
+ * <br>
+ * Every Delaunay edge is enumerated once (see DelaunayTriangulation.visitEdges) together with
+ * the vertices opposite to it, so the Gabriel test only looks at these two vertices. The vertices
+ * are numbered in the PointComparator order (as in MeshExporter) and the graphs are returned as
+ * primitive arrays of vertex index pairs: u0, v0, u1, v1, ...
+ * <br>
+ * If all the vertices are collinear there are no triangles, the edges join consecutive vertices
+ * of the PointComparator order, which is the order along the line.
+ * <br>
+ * The distances are measured on the XY plane, like the triangulation.
+ */
+public class ProximityGraph {
+
+    private final VertexIndex index;
+
+    // u, v per edge and the vertices opposite to it, -1 on the convex hull
+    private int[] edges;
+    private int[] opposite;
+    private int edgeCount;
+
+    public ProximityGraph(DelaunayTriangulation triangulation) {
+        this.index = new VertexIndex(triangulation);
+
+        // At most 3 n edges
+        edges = new int[triangulation.size() * 6 + 2];
+        opposite = new int[edges.length];
+
+        triangulation.visitEdges(new EdgeVisitor() {
+            public boolean visit(Vector3 a, Vector3 b, Triangle left, Triangle right) {
+                add(a, b, left, right);
+                return true;
+            }
+        });
+        if (edgeCount == 0) {
+            // All collinear: a path, nothing opposite to its edges
+            for (int i = 1; i < index.size(); i++) {
+                add(i - 1, i, -1, -1);
+            }
+        }
+    }
+
+    private void add(Vector3 u, Vector3 v, Triangle left, Triangle right) {
+        add(index.indexOf(u), index.indexOf(v), index.indexOf(apex(left, u, v)),
+                right.halfplane ? -1 : index.indexOf(apex(right, u, v)));
+    }
+
+    private void add(int u, int v, int left, int right) {
+        if (2 * edgeCount + 2 > edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+            opposite = Arrays.copyOf(opposite, opposite.length * 2);
+        }
+        edges[2 * edgeCount] = u;
+        edges[2 * edgeCount + 1] = v;
+        opposite[2 * edgeCount] = left;
+        opposite[2 * edgeCount + 1] = right;
+        edgeCount++;
+    }
+
+    private static Vector3 apex(Triangle t, Vector3 u, Vector3 v) {
+        if (t.a != u && t.a != v) return t.a;
+        if (t.b != u && t.b != v) return t.b;
+        return t.c;
+    }
+
+    public int getVertexCount() {
+        return index.size();
+    }
+
+    /**
+     * returns the vertex at the given index.
+     */
+    public Vector3 getVertex(int i) {
+        return index.get(i);
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * returns the Delaunay edges, two vertex indices per edge.
+     */
+    public int[] getEdges() {
+        return Arrays.copyOf(edges, edgeCount * 2);
+    }
+
+    /**
+     * returns the Euclidean minimum spanning tree (Kruskal over the Delaunay edges),
+     * two vertex indices per edge, in increasing length.
+     */
+    public int[] minimumSpanningTree() {
+        // Length and edge packed in a long, so the sort runs on primitives
+        long[] keys = new long[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            keys[e] = (long) Float.floatToIntBits((float) dst2(edges[2 * e], edges[2 * e + 1])) << 32 | e;
+        }
+        Arrays.sort(keys);
+
+        int n = index.size();
+        int[] parent = new int[n];
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+
+        int[] tree = new int[Math.max(0, 2 * (n - 1))];
+        int count = 0;
+        for (int k = 0; k < keys.length && count < tree.length; k++) {
+            int e = (int) keys[k];
+            int u = edges[2 * e], v = edges[2 * e + 1];
+            int ru = root(parent, u), rv = root(parent, v);
+            if (ru == rv) {
+                continue;
+            }
+
+            if (rank[ru] < rank[rv]) {
+                parent[ru] = rv;
+            } else if (rank[ru] > rank[rv]) {
+                parent[rv] = ru;
+            } else {
+                parent[rv] = ru;
+                rank[ru]++;
+            }
+            tree[count++] = u;
+            tree[count++] = v;
+        }
+        return count == tree.length ? tree : Arrays.copyOf(tree, count);
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            // Path halving
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * returns the Gabriel graph: the edges whose diametral circle contains no other vertex.
+     */
+    public int[] gabrielGraph() {
+        int[] graph = new int[edgeCount * 2];
+        int count = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (isGabriel(e)) {
+                graph[count++] = edges[2 * e];
+                graph[count++] = edges[2 * e + 1];
+            }
+        }
+        return Arrays.copyOf(graph, count);
+    }
+
+    /**
+     * returns the relative neighborhood graph: the edges (u, v) without a vertex w closer to
+     * both u and v than they are to each other.
+     * <br>
+     * A Delaunay edge with a vertex in its lune also has one among the Delaunay neighbors of
+     * u or v, so only these are tested.
+     */
+    public int[] relativeNeighborhoodGraph() {
+        int n = index.size();
+
+        // Adjacency lists (compressed rows)
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount * 2; i++) {
+            offsets[edges[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] adjacency = new int[edgeCount * 2];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edgeCount; e++) {
+            int u = edges[2 * e], v = edges[2 * e + 1];
+            adjacency[fill[u]++] = v;
+            adjacency[fill[v]++] = u;
+        }
+
+        int[] graph = new int[edgeCount * 2];
+        int count = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            // The relative neighborhood graph is a subgraph of the Gabriel graph
+            if (!isGabriel(e)) {
+                continue;
+            }
+            int u = edges[2 * e], v = edges[2 * e + 1];
+            double d2 = dst2(u, v);
+            if (!inLune(u, v, d2, u, offsets, adjacency) && !inLune(u, v, d2, v, offsets, adjacency)) {
+                graph[count++] = u;
+                graph[count++] = v;
+            }
+        }
+        return Arrays.copyOf(graph, count);
+    }
+
+    private boolean inLune(int u, int v, double d2, int center, int[] offsets, int[] adjacency) {
+        for (int k = offsets[center]; k < offsets[center + 1]; k++) {
+            int w = adjacency[k];
+            if (w != u && w != v && dst2(u, w) < d2 && dst2(v, w) < d2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isGabriel(int e) {
+        int u = edges[2 * e], v = edges[2 * e + 1];
+        // The opposite vertices must see the edge with an acute angle
+        return isAcute(u, v, opposite[2 * e]) && isAcute(u, v, opposite[2 * e + 1]);
+    }
+
+    private boolean isAcute(int u, int v, int apex) {
+        if (apex < 0) {
+            return true;
+        }
+        Vector3 a = index.get(u), b = index.get(v), c = index.get(apex);
+        double cx = Vector3d.x(c), cy = Vector3d.y(c);
+        return (Vector3d.x(a) - cx) * (Vector3d.x(b) - cx) + (Vector3d.y(a) - cy) * (Vector3d.y(b) - cy) > 0;
+    }
+
+    private double dst2(int u, int v) {
+        Vector3 a = index.get(u), b = index.get(v);
+        double dx = Vector3d.x(a) - Vector3d.x(b), dy = Vector3d.y(a) - Vector3d.y(b);
+        return dx * dx + dy * dy;
+    }
+
+}
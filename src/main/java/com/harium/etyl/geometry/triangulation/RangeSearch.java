@@ -0,0 +1,353 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.harium.etyl.geometry.BoundingBox;
+import com.harium.etyl.geometry.Polygon;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Range queries (box, circle or polygon) over a triangulation.
+ * <br>
+ * The search starts at a triangle that intersects the region and flood-fills across the
+ * neighbors only while they intersect the region, so its cost is proportional to the
+ * size of the output and not to the size of the triangulation.
+ * <br>
+ * The buffers are reused between queries, an instance must not be shared between threads.
+ * The vertices are read in double precision (see Vector3d), like the nearest vertex search.
+ */
+class RangeSearch {
+
+    private final Deque<Triangle> front = new ArrayDeque<Triangle>();
+
+    /**
+     * collects the triangles that intersect the region.
+     *
+     * @param start  the triangle returned by find for the region center
+     * @param region the query region
+     * @param stamp  two consecutive mark stamps (stamp and stamp + 1) not used by any triangle
+     * @param result the list the triangles are added to
+     * @return the number of triangles added
+     */
+    int findTriangles(Triangle start, Region region, int stamp, List<Triangle> result) {
+        Triangle seed = seed(start, region);
+        if (seed == null) {
+            return 0;
+        }
+
+        int count = 0;
+        seed.mark = stamp;
+        front.add(seed);
+
+        while (!front.isEmpty()) {
+            Triangle t = front.poll();
+
+            if (region.accepts(t)) {
+                result.add(t);
+                count++;
+            }
+
+            expand(t.abnext, region, stamp);
+            expand(t.bcnext, region, stamp);
+            expand(t.canext, region, stamp);
+        }
+        return count;
+    }
+
+    /**
+     * collects the vertices inside the region.
+     *
+     * @param start  the triangle returned by find for the region center
+     * @param region the query region
+     * @param stamp  two consecutive mark stamps (stamp and stamp + 1) not used by any triangle
+     * @param result the list the vertices are added to
+     * @return the number of vertices added
+     */
+    int findVertices(Triangle start, Region region, int stamp, List<Vector3> result) {
+        Triangle seed = seed(start, region);
+        if (seed == null) {
+            return 0;
+        }
+
+        // queued triangles are marked with stamp, visited triangles with stamp + 1
+        int visited = stamp + 1;
+
+        int count = 0;
+        seed.mark = stamp;
+        front.add(seed);
+
+        while (!front.isEmpty()) {
+            Triangle t = front.poll();
+            t.mark = visited;
+
+            // A vertex is reported by the first visited triangle around it
+            count += offer(t, t.a, region, visited, result);
+            count += offer(t, t.b, region, visited, result);
+            count += offer(t, t.c, region, visited, result);
+
+            expand(t.abnext, region, stamp);
+            expand(t.bcnext, region, stamp);
+            expand(t.canext, region, stamp);
+        }
+        return count;
+    }
+
+    private static int offer(Triangle t, Vector3 p, Region region, int visited, List<Vector3> result) {
+        if (!region.contains(p)) {
+            return 0;
+        }
+
+        Triangle around = t.nextAround(p);
+        while (around != t) {
+            if (around.mark == visited) {
+                return 0;
+            }
+            around = around.nextAround(p);
+        }
+
+        result.add(p);
+        return 1;
+    }
+
+    private void expand(Triangle t, Region region, int stamp) {
+        if (t.halfplane || t.mark - stamp == 0 || t.mark - stamp == 1) {
+            return;
+        }
+        if (region.intersects(t)) {
+            t.mark = stamp;
+            front.add(t);
+        }
+    }
+
+    /**
+     * returns a triangle that intersects the region, null if there is none.
+     */
+    private static Triangle seed(Triangle start, Region region) {
+        if (!start.halfplane) {
+            return region.intersects(start) ? start : null;
+        }
+
+        // The region center is outside the convex hull, walk along the hull
+        Triangle halfplane = start;
+        do {
+            if (region.intersects(halfplane.abnext)) {
+                return halfplane.abnext;
+            }
+            halfplane = halfplane.bcnext;
+        } while (halfplane != start);
+
+        return null;
+    }
+
+    abstract static class Region {
+
+        abstract double centerX();
+
+        abstract double centerY();
+
+        /**
+         * returns true if the region may intersect the triangle (the flood fill continues).
+         */
+        abstract boolean intersects(Triangle t);
+
+        /**
+         * returns true if the triangle is part of the result.
+         */
+        boolean accepts(Triangle t) {
+            return true;
+        }
+
+        abstract boolean contains(Vector3 p);
+    }
+
+    static class Box extends Region {
+        final double minX, minY, maxX, maxY;
+
+        Box(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        double centerX() {
+            return (minX + maxX) / 2;
+        }
+
+        double centerY() {
+            return (minY + maxY) / 2;
+        }
+
+        boolean intersects(Triangle t) {
+            Vector3 a = t.a, b = t.b, c = t.c;
+            double ax = Vector3d.x(a), bx = Vector3d.x(b), cx = Vector3d.x(c);
+            double ay = Vector3d.y(a), by = Vector3d.y(b), cy = Vector3d.y(c);
+
+            if (Math.max(ax, Math.max(bx, cx)) < minX || Math.min(ax, Math.min(bx, cx)) > maxX ||
+                    Math.max(ay, Math.max(by, cy)) < minY || Math.min(ay, Math.min(by, cy)) > maxY) {
+                return false;
+            }
+
+            return !separates(a, b, c) && !separates(b, c, a) && !separates(c, a, b);
+        }
+
+        /**
+         * returns true if the line p-q leaves the box and the vertex r on opposite sides.
+         */
+        private boolean separates(Vector3 p, Vector3 q, Vector3 r) {
+            double side = side(p, q, Vector3d.x(r), Vector3d.y(r));
+            if (side == 0) {
+                return false;
+            }
+            return side * side(p, q, minX, minY) < 0 && side * side(p, q, maxX, minY) < 0 &&
+                    side * side(p, q, maxX, maxY) < 0 && side * side(p, q, minX, maxY) < 0;
+        }
+
+        boolean contains(Vector3 p) {
+            double x = Vector3d.x(p), y = Vector3d.y(p);
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+    }
+
+    static class Circle extends Region {
+        final Vector3 center;
+        final double radius2;
+
+        Circle(Vector3 center, double radius) {
+            this.center = center;
+            this.radius2 = radius * radius;
+        }
+
+        double centerX() {
+            return Vector3d.x(center);
+        }
+
+        double centerY() {
+            return Vector3d.y(center);
+        }
+
+        boolean intersects(Triangle t) {
+            return NearestVertexSearch.distance2(t, center) <= radius2;
+        }
+
+        boolean contains(Vector3 p) {
+            return NearestVertexSearch.distance2(p, center) <= radius2;
+        }
+    }
+
+    /**
+     * A simple polygon (possibly concave): the flood fill runs over its bounding box,
+     * so disconnected parts of the polygon are found too.
+     */
+    static class PolygonRegion extends Box {
+        final Vector3[] points;
+
+        PolygonRegion(Vector3[] points, BoundingBox box) {
+            super(box.minX(), box.minY(), box.maxX(), box.maxY());
+            this.points = points;
+        }
+
+        static PolygonRegion of(Polygon polygon) {
+            List<Vector2> list = polygon.getList();
+            Vector3[] points = new Vector3[list.size()];
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < points.length; i++) {
+                Vector2 p = list.get(i);
+                points[i] = new Vector3(p.x, p.y, 0);
+                minX = Math.min(minX, p.x);
+                minY = Math.min(minY, p.y);
+                maxX = Math.max(maxX, p.x);
+                maxY = Math.max(maxY, p.y);
+            }
+            return new PolygonRegion(points, new BoundingBox(minX, minY, 0, maxX, maxY, 0));
+        }
+
+        boolean accepts(Triangle t) {
+            if (contains(t.a) || contains(t.b) || contains(t.c)) {
+                return true;
+            }
+
+            int n = points.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                if (t.contains(points[i])) {
+                    return true;
+                }
+                if (crosses(t.a, t.b, points[j], points[i]) ||
+                        crosses(t.b, t.c, points[j], points[i]) ||
+                        crosses(t.c, t.a, points[j], points[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean contains(Vector3 p) {
+            if (!super.contains(p)) {
+                return false;
+            }
+
+            // Even-odd rule
+            boolean inside = false;
+            double x = Vector3d.x(p), y = Vector3d.y(p);
+            int n = points.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double xi = points[i].x, yi = points[i].y, xj = points[j].x, yj = points[j].y;
+                if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        /**
+         * returns true if the segments p-q and r-s intersect (touching included).
+         */
+        private static boolean crosses(Vector3 p, Vector3 q, Vector3 r, Vector3 s) {
+            if (side(p, q, Vector3d.x(r), Vector3d.y(r)) * side(p, q, Vector3d.x(s), Vector3d.y(s)) > 0) {
+                return false;
+            }
+            return side(r, s, Vector3d.x(p), Vector3d.y(p)) * side(r, s, Vector3d.x(q), Vector3d.y(q)) <= 0;
+        }
+    }
+
+    /**
+     * A triangle (any orientation), boundary included.
+     */
+    static class TriangleRegion extends Box {
+        final Vector3 a, b, c;
+        final double sign;
+
+        TriangleRegion(Vector3 a, Vector3 b, Vector3 c) {
+            super(Math.min(Vector3d.x(a), Math.min(Vector3d.x(b), Vector3d.x(c))),
+                    Math.min(Vector3d.y(a), Math.min(Vector3d.y(b), Vector3d.y(c))),
+                    Math.max(Vector3d.x(a), Math.max(Vector3d.x(b), Vector3d.x(c))),
+                    Math.max(Vector3d.y(a), Math.max(Vector3d.y(b), Vector3d.y(c))));
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.sign = side(a, b, Vector3d.x(c), Vector3d.y(c)) < 0 ? -1 : 1;
+        }
+
+        boolean contains(Vector3 p) {
+            if (!super.contains(p)) {
+                return false;
+            }
+            double x = Vector3d.x(p), y = Vector3d.y(p);
+            return sign * side(a, b, x, y) >= 0 && sign * side(b, c, x, y) >= 0 && sign * side(c, a, x, y) >= 0;
+        }
+    }
+
+    /**
+     * returns the side of (x, y) relative to the line p-q (positive on the left).
+     */
+    static double side(Vector3 p, Vector3 q, double x, double y) {
+        double px = Vector3d.x(p), py = Vector3d.y(p);
+        return (Vector3d.x(q) - px) * (y - py) - (Vector3d.y(q) - py) * (x - px);
+    }
+
+}
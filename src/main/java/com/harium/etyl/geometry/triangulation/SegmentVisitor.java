@@ -0,0 +1,20 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Receives the triangles crossed by a segment a-b, in order from a to b (see DelaunayTriangulation.walk).
+ */
+public interface SegmentVisitor {
+
+    /**
+     * called once per crossed triangle.
+     *
+     * @param triangle the crossed triangle
+     * @param entry    where the segment enters the triangle, from 0 (at a) to 1 (at b)
+     * @param exit     where the segment leaves the triangle, from 0 (at a) to 1 (at b)
+     * @param entryZ   the height of the triangle at the entry point
+     * @param exitZ    the height of the triangle at the exit point
+     * @return false to stop the walk
+     */
+    boolean visit(Triangle triangle, double entry, double exit, double entryZ, double exitZ);
+
+}
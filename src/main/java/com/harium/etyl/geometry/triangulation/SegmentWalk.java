@@ -0,0 +1,102 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Walks a segment through a triangulation, from triangle to triangle across the shared edges.
+ * <br>
+ * In every triangle the exit edge is the first edge the segment leaves through (Cyrus-Beck
+ * clipping), so the cost is proportional to the number of crossed triangles. The parts of the
+ * segment outside the convex hull are skipped. The coordinates are read in double precision
+ * (see Vector3d).
+ */
+class SegmentWalk {
+
+    private SegmentWalk() {
+    }
+
+    /**
+     * @param start the triangle returned by find for a
+     * @return the number of visited triangles
+     */
+    static int walk(Triangle start, Vector3 a, Vector3 b, SegmentVisitor visitor) {
+        double ax = Vector3d.x(a), ay = Vector3d.y(a), bx = Vector3d.x(b), by = Vector3d.y(b);
+        double entry = 0;
+        Triangle t = start;
+
+        if (t.halfplane) {
+            // a is outside of the convex hull, find where the segment enters it
+            t = null;
+            double exit = 1;
+            Triangle halfplane = start;
+            do {
+                // the inner triangle sees the hull edge as b-a
+                double f0 = RangeSearch.side(halfplane.b, halfplane.a, ax, ay);
+                double f1 = RangeSearch.side(halfplane.b, halfplane.a, bx, by);
+                if (f0 < 0) {
+                    if (f1 <= f0) {
+                        return 0;
+                    }
+                    double s = f0 / (f0 - f1);
+                    if (s > entry) {
+                        entry = s;
+                        t = halfplane.abnext;
+                    }
+                } else if (f1 < 0) {
+                    exit = Math.min(exit, f0 / (f0 - f1));
+                }
+                halfplane = halfplane.bcnext;
+            } while (halfplane != start);
+
+            if (t == null || entry > exit) {
+                return 0;
+            }
+        }
+
+        double dx = bx - ax, dy = by - ay;
+
+        int count = 0;
+        Triangle previous = null;
+        while (true) {
+            // Cyrus-Beck: the first edge the segment leaves through
+            double exit = 1;
+            Triangle next = null;
+            for (int edge = 0; edge < 3; edge++) {
+                Vector3 p = edge == 0 ? t.a : edge == 1 ? t.b : t.c;
+                Vector3 q = edge == 0 ? t.b : edge == 1 ? t.c : t.a;
+                Triangle neighbor = edge == 0 ? t.abnext : edge == 1 ? t.bcnext : t.canext;
+                if (neighbor == previous) {
+                    continue;
+                }
+
+                double f0 = RangeSearch.side(p, q, ax, ay);
+                double f1 = RangeSearch.side(p, q, bx, by);
+                if (f1 < f0) {
+                    double s = f0 / (f0 - f1);
+                    if (s < exit) {
+                        exit = s;
+                        next = neighbor;
+                    }
+                }
+            }
+            if (exit < entry) {
+                exit = entry;
+            }
+
+            count++;
+            double entryZ = t.z(ax + entry * dx, ay + entry * dy);
+            double exitZ = t.z(ax + exit * dx, ay + exit * dy);
+            if (!visitor.visit(t, entry, exit, entryZ, exitZ)) {
+                return count;
+            }
+
+            if (next == null || next.halfplane) {
+                return count;
+            }
+            previous = t;
+            t = next;
+            entry = exit;
+        }
+    }
+
+}
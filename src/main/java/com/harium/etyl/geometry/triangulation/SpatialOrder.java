@@ -0,0 +1,87 @@
+package com.harium.etyl.geometry.triangulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Biased randomized insertion order (BRIO), shared by TileBuilder and DelaunayTetrahedralization.
+ * <br>
+ * The points are shuffled and split in rounds (the last one has half of the points, the one
+ * before a quarter, ...), every round is sorted along a Morton (Z order) curve: consecutive
+ * points are close, so the walks of the point location are short, and the hull is found early.
+ * <br>
+ * A key is the Morton code of a point in the high 32 bits and its index in the low ones.
+ */
+final class SpatialOrder {
+
+    // rounds smaller than this are merged with the first one
+    static final int MIN_ROUND = 64;
+
+    private SpatialOrder() {
+    }
+
+    /**
+     * returns the key of point index, x and y are between 0 and 0x7fff.
+     */
+    static long key(int x, int y, int index) {
+        return (spread2(x) | spread2(y) << 1) << 32 | index;
+    }
+
+    /**
+     * returns the key of point index, x, y and z are between 0 and 1023.
+     */
+    static long key(int x, int y, int z, int index) {
+        return (spread3(x) | spread3(y) << 1 | spread3(z) << 2) << 32 | index;
+    }
+
+    /**
+     * shuffles and sorts the keys by rounds, returns the indices in insertion order.
+     */
+    static int[] order(long[] keys) {
+        int count = keys.length;
+        Random random = new Random(count);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+        int end = count;
+        while (end > 0) {
+            int begin = end > MIN_ROUND ? end / 2 : 0;
+            Arrays.sort(keys, begin, end);
+            end = begin;
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * spreads the 15 bits of v, a zero bit between each of them.
+     */
+    private static long spread2(int v) {
+        long x = v & 0x7fff;
+        x = (x | x << 8) & 0x00ff00ffL;
+        x = (x | x << 4) & 0x0f0f0f0fL;
+        x = (x | x << 2) & 0x33333333L;
+        x = (x | x << 1) & 0x55555555L;
+        return x;
+    }
+
+    /**
+     * spreads the 10 bits of v, two zero bits between each of them.
+     */
+    private static long spread3(int v) {
+        long x = v & 0x3ff;
+        x = (x | x << 16) & 0x30000ffL;
+        x = (x | x << 8) & 0x300f00fL;
+        x = (x | x << 4) & 0x30c30c3L;
+        x = (x | x << 2) & 0x9249249L;
+        return x;
+    }
+
+}
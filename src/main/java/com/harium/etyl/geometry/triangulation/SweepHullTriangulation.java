@@ -0,0 +1,641 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sweep-hull (S-hull) Delaunay triangulation, for bulk construction of static point sets.
+ * <br>
+ * The points are sorted by their distance from the circumcenter of a seed triangle and added in
+ * that order: every point is outside the hull built so far, it is connected to the hull edges it
+ * sees and the new triangles are legalized with flips. The construction works on flat int arrays
+ * (vertex and twin half edge of each triangle corner), the Triangle objects (with half planes
+ * around the hull, so find works as in DelaunayTriangulation) are created once at the end.
+ * <br>
+ * The seed edge joins a point and its nearest neighbor and the third seed is its Delaunay neighbor,
+ * so no point falls inside the seed circumcircle and the sweep never meets a point inside the hull.
+ * If rounding breaks that invariant the points are triangulated by DelaunayTriangulation instead.
+ * <br>
+ * Duplicated points (same x and y) are ignored, the first occurrence is kept.
+ */
+public class SweepHullTriangulation extends BaseTriangulation {
+
+    // sweep results
+    private static final int SWEPT = 0, COLLINEAR = 1, FAILED = 2;
+
+    private Vector3[] points;
+    private double[] xs, ys;
+
+    // corner i of triangle t is triangles[3 * t + i], half edge e goes from triangles[e] to the next corner
+    private int[] triangles;
+    // the twin of each half edge, -1 on the hull
+    private int[] halfedges;
+    private int trianglesLen;
+
+    // hull as a counterclockwise linked list, hullTri[v] is the half edge from v to hullNext[v]
+    private int[] hullPrev, hullNext, hullTri, hullHash;
+    private int hullStart, hashSize;
+    private double cx, cy;
+
+    private int[] edgeStack = new int[512];
+
+    private List<Triangle> result;
+
+    /**
+     * Triangulate given points.
+     * Note: duplicated points are ignored.
+     *
+     * @param pointCloud the points
+     * @return list of triangles, empty if the points are collinear, null if there are less than 3 points
+     */
+    public List<Triangle> triangulate(List<Vector3> pointCloud) {
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        startTriangle = null;
+        result = null;
+
+        int n = 0;
+        points = new Vector3[pointCloud.size()];
+        for (Vector3 p : pointCloud) {
+            if (p != null) {
+                points[n++] = p;
+            }
+        }
+        if (n < 3) {
+            return release(null);
+        }
+
+        xs = new double[n];
+        ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = Vector3d.x(points[i]);
+            ys[i] = Vector3d.y(points[i]);
+        }
+
+        int sweep = sweep(n);
+        if (sweep == COLLINEAR) {
+            return release(new ArrayList<Triangle>());
+        } else if (sweep == FAILED) {
+            return release(fallback(pointCloud));
+        }
+
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.phase(TriangulationMetrics.PHASE_INSERT, now - start);
+            start = now;
+        }
+
+        result = build();
+
+        if (metrics != null) {
+            metrics.phase(TriangulationMetrics.PHASE_TRIANGLES, System.nanoTime() - start);
+        }
+        return release(result);
+    }
+
+    /**
+     * triangulates the points stored as x0, y0, z0, x1, y1, z1, ... (see BaseTriangulation): the
+     * sweep reads the coordinates and its triangles are the result, no vertex or triangle object is
+     * created (unless the sweep fails, see fallback).
+     */
+    @Override
+    public int[] triangulate(float[] xyz, int offset, int count) {
+        xs = new double[count];
+        ys = new double[count];
+        for (int i = 0, j = offset; i < count; i++, j += 3) {
+            xs[i] = xyz[j];
+            ys[i] = xyz[j + 1];
+        }
+        int[] indices = sweepIndices(count);
+        return indices != null ? indices : super.triangulate(xyz, offset, count);
+    }
+
+    @Override
+    public int[] triangulate(double[] xyz, int offset, int count) {
+        xs = new double[count];
+        ys = new double[count];
+        for (int i = 0, j = offset; i < count; i++, j += 3) {
+            xs[i] = xyz[j];
+            ys[i] = xyz[j + 1];
+        }
+        int[] indices = sweepIndices(count);
+        return indices != null ? indices : super.triangulate(xyz, offset, count);
+    }
+
+    @Override
+    public int[] triangulate(float[] x, float[] y, float[] z, int offset, int count) {
+        xs = new double[count];
+        ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = x[offset + i];
+            ys[i] = y[offset + i];
+        }
+        int[] indices = sweepIndices(count);
+        return indices != null ? indices : super.triangulate(x, y, z, offset, count);
+    }
+
+    @Override
+    public int[] triangulate(double[] x, double[] y, double[] z, int offset, int count) {
+        xs = Arrays.copyOfRange(x, offset, offset + count);
+        ys = Arrays.copyOfRange(y, offset, offset + count);
+        int[] indices = sweepIndices(count);
+        return indices != null ? indices : super.triangulate(x, y, z, offset, count);
+    }
+
+    /**
+     * sweeps the points in xs and ys, returns three indices per triangle, null if the sweep failed.
+     */
+    private int[] sweepIndices(int n) {
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        startTriangle = null;
+        int sweep = n < 3 ? COLLINEAR : sweep(n);
+        int[] indices = null;
+        if (sweep == SWEPT) {
+            indices = Arrays.copyOf(triangles, trianglesLen);
+        } else if (sweep == COLLINEAR) {
+            indices = new int[0];
+        }
+        release(null);
+
+        if (metrics != null) {
+            metrics.phase(TriangulationMetrics.PHASE_INSERT, System.nanoTime() - start);
+        }
+        return indices;
+    }
+
+    /**
+     * returns the triangles of the last triangulation, null if there is none.
+     */
+    public List<Triangle> getTriangles() {
+        return result;
+    }
+
+    private List<Triangle> release(List<Triangle> triangles) {
+        // Only the Triangle objects are kept
+        points = null;
+        xs = ys = null;
+        this.triangles = halfedges = null;
+        hullPrev = hullNext = hullTri = hullHash = null;
+        result = triangles;
+        return triangles;
+    }
+
+    /**
+     * runs the sweep, returns SWEPT, COLLINEAR or FAILED (a point could not be added).
+     */
+    private int sweep(int n) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        // Seed edge: the point closest to the center of the bounding box and its nearest neighbor
+        int i0 = closest((minX + maxX) / 2, (minY + maxY) / 2, -1, n);
+        int i1 = closest(xs[i0], ys[i0], i0, n);
+        if (i1 < 0) {
+            return COLLINEAR;
+        }
+
+        int i2 = delaunayNeighbor(i0, i1, n);
+        if (i2 < 0) {
+            return COLLINEAR;
+        }
+        if (orient(i0, i1, i2) < 0) {
+            int swap = i1;
+            i1 = i2;
+            i2 = swap;
+        }
+        circumcenter(i0, i1, i2);
+
+        int[] ids = new int[n];
+        double[] dists = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            double dx = xs[i] - cx, dy = ys[i] - cy;
+            dists[i] = dx * dx + dy * dy;
+        }
+        sort(ids, dists, 0, n - 1);
+
+        int maxTriangles = Math.max(2 * n - 5, 1);
+        triangles = new int[maxTriangles * 3];
+        halfedges = new int[maxTriangles * 3];
+        trianglesLen = 0;
+
+        hashSize = (int) Math.ceil(Math.sqrt(n));
+        hullPrev = new int[n];
+        hullNext = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[hashSize];
+        Arrays.fill(hullHash, -1);
+
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+
+        addTriangle(i0, i1, i2, -1, -1, -1);
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+
+        hullHash[hashKey(i0)] = i0;
+        hullHash[hashKey(i1)] = i1;
+        hullHash[hashKey(i2)] = i2;
+
+        int previous = -1;
+        for (int k = 0; k < n; k++) {
+            int i = ids[k];
+
+            // Duplicates are next to each other, the first occurrence comes first
+            boolean duplicate = previous >= 0 && xs[i] == xs[previous] && ys[i] == ys[previous];
+            previous = i;
+            if (duplicate || isSeed(i, i0, i1, i2)) {
+                continue;
+            }
+
+            if (!add(i)) {
+                return FAILED;
+            }
+        }
+        return SWEPT;
+    }
+
+    /**
+     * adds the point i, outside the current hull.
+     */
+    private boolean add(int i) {
+        // Find a hull vertex close to the point direction
+        int start = -1;
+        int key = hashKey(i);
+        for (int j = 0; j < hashSize; j++) {
+            start = hullHash[(key + j) % hashSize];
+            if (start != -1 && start != hullNext[start]) {
+                break;
+            }
+        }
+        if (start == -1 || start == hullNext[start]) {
+            start = hullStart;
+        }
+
+        // Walk to the first edge visible from the point
+        start = hullPrev[start];
+        int e = start, q;
+        while (orient(e, hullNext[e], i) >= 0) {
+            e = hullNext[e];
+            if (e == start) {
+                return false;
+            }
+        }
+
+        q = hullNext[e];
+        int t = addTriangle(e, i, q, -1, -1, hullTri[e]);
+        hullTri[e] = t;
+        hullTri[i] = t + 1;
+        legalize(t + 2);
+
+        // Connect the following visible edges
+        int next = q;
+        while (orient(next, q = hullNext[next], i) < 0) {
+            t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+            hullTri[i] = t + 1;
+            hullNext[next] = next; // removed from the hull
+            legalize(t + 2);
+            next = q;
+        }
+
+        // And the previous ones
+        if (e == start) {
+            while (orient(q = hullPrev[e], e, i) < 0) {
+                t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                hullTri[q] = t;
+                hullNext[e] = e; // removed from the hull
+                legalize(t + 2);
+                e = q;
+            }
+        }
+
+        hullStart = hullPrev[i] = e;
+        hullNext[e] = hullPrev[next] = i;
+        hullNext[i] = next;
+
+        hullHash[hashKey(i)] = i;
+        hullHash[hashKey(e)] = e;
+        return true;
+    }
+
+    /**
+     * restores the Delaunay property around the half edge a, the corner opposite to a is the new point.
+     */
+    private void legalize(int a) {
+        int i = 0;
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            int ar = a0 + (a + 2) % 3;
+
+            if (b == -1) {
+                if (i == 0) break;
+                a = edgeStack[--i];
+                continue;
+            }
+
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+
+            // Triangle (pr, pl, p0) and its neighbor across pr-pl, with the opposite corner p1
+            int p0 = triangles[ar];
+            int pr = triangles[a];
+            int pl = triangles[al];
+            int p1 = triangles[bl];
+
+            if (inCircle(pr, pl, p0, p1)) {
+                // Flip to (p1, pl, p0) and (p0, pr, p1)
+                triangles[a] = p1;
+                triangles[b] = p0;
+
+                int hbl = halfedges[bl];
+                int har = halfedges[ar];
+
+                // The hull half edges move with the flip
+                if (hbl == -1) {
+                    hullTri[p1] = a;
+                }
+                if (har == -1) {
+                    hullTri[p0] = b;
+                }
+
+                link(a, hbl);
+                link(b, har);
+                link(ar, bl);
+
+                int br = b0 + (b + 1) % 3;
+                if (i == edgeStack.length) {
+                    edgeStack = Arrays.copyOf(edgeStack, edgeStack.length * 2);
+                }
+                edgeStack[i++] = br;
+            } else {
+                if (i == 0) break;
+                a = edgeStack[--i];
+            }
+        }
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLen;
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLen += 3;
+        return t;
+    }
+
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if (b != -1) {
+            halfedges[b] = a;
+        }
+    }
+
+    /**
+     * creates the Triangle objects, linked with their neighbors and the half planes around the hull.
+     */
+    private List<Triangle> build() {
+        int count = trianglesLen / 3;
+        Triangle[] built = new Triangle[count];
+        for (int t = 0; t < count; t++) {
+            built[t] = new Triangle(points[triangles[3 * t]], points[triangles[3 * t + 1]], points[triangles[3 * t + 2]]);
+        }
+
+        for (int e = 0; e < trianglesLen; e++) {
+            int twin = halfedges[e];
+            if (twin != -1) {
+                setNeighbor(built[e / 3], e % 3, built[twin / 3]);
+            }
+        }
+
+        // A half plane per hull edge, seen from outside (see DelaunayTriangulation)
+        Triangle[] halfplanes = new Triangle[hullNext.length];
+        int v = hullStart;
+        do {
+            Triangle h = new Triangle(points[hullNext[v]], points[v]);
+            int e = hullTri[v];
+            h.abnext = built[e / 3];
+            setNeighbor(built[e / 3], e % 3, h);
+            halfplanes[v] = h;
+            v = hullNext[v];
+        } while (v != hullStart);
+
+        do {
+            Triangle h = halfplanes[v];
+            h.bcnext = halfplanes[hullPrev[v]];
+            h.canext = halfplanes[hullNext[v]];
+            v = hullNext[v];
+        } while (v != hullStart);
+
+        startTriangle = built[0];
+
+        List<Triangle> list = new ArrayList<Triangle>(count);
+        Collections.addAll(list, built);
+        return list;
+    }
+
+    private static void setNeighbor(Triangle t, int edge, Triangle neighbor) {
+        switch (edge) {
+            case 0:
+                t.abnext = neighbor;
+                break;
+            case 1:
+                t.bcnext = neighbor;
+                break;
+            default:
+                t.canext = neighbor;
+                break;
+        }
+    }
+
+    private List<Triangle> fallback(List<Vector3> pointCloud) {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        List<Triangle> list = triangulation.triangulate(pointCloud);
+        startTriangle = triangulation.startTriangle;
+        return list;
+    }
+
+    /**
+     * returns the point closest to (x, y), skipping the points equal to exclude, -1 if there is none.
+     */
+    private int closest(double x, double y, int exclude, int n) {
+        int closest = -1;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (exclude >= 0 && xs[i] == xs[exclude] && ys[i] == ys[exclude]) {
+                continue;
+            }
+            double dx = xs[i] - x, dy = ys[i] - y;
+            double d = dx * dx + dy * dy;
+            if (d < min) {
+                min = d;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * returns the third corner of the Delaunay triangle on the left of the edge i0-i1
+     * (on the right if there is no point on the left), -1 if every point is collinear.
+     * <br>
+     * The circumcenter of (i0, i1, p) is m + s * normal, where m is the middle of the edge and normal
+     * its left normal: the Delaunay neighbor on the left has the smallest s, on the right the largest.
+     */
+    private int delaunayNeighbor(int i0, int i1, int n) {
+        double mx = (xs[i0] + xs[i1]) / 2, my = (ys[i0] + ys[i1]) / 2;
+        double dx = xs[i1] - xs[i0], dy = ys[i1] - ys[i0];
+        double nx = -dy, ny = dx;
+        double half2 = (dx * dx + dy * dy) / 4;
+
+        double[] sides = new double[n];
+        BatchPredicates.orientation(xs[i0], ys[i0], xs[i1], ys[i1], xs, ys, sides, 0, n);
+
+        int left = -1, right = -1;
+        double minS = Double.POSITIVE_INFINITY, maxS = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double side = sides[i];
+            if (side == 0) {
+                continue;
+            }
+            double px = mx - xs[i], py = my - ys[i];
+            double s = (half2 - (px * px + py * py)) / (2 * (nx * px + ny * py));
+            if (side > 0) {
+                if (s < minS) {
+                    minS = s;
+                    left = i;
+                }
+            } else if (s > maxS) {
+                maxS = s;
+                right = i;
+            }
+        }
+        return left >= 0 ? left : right;
+    }
+
+    private boolean isSeed(int i, int i0, int i1, int i2) {
+        return (xs[i] == xs[i0] && ys[i] == ys[i0]) ||
+                (xs[i] == xs[i1] && ys[i] == ys[i1]) ||
+                (xs[i] == xs[i2] && ys[i] == ys[i2]);
+    }
+
+    private void circumcenter(int a, int b, int c) {
+        double bx = xs[b] - xs[a], by = ys[b] - ys[a];
+        double ex = xs[c] - xs[a], ey = ys[c] - ys[a];
+        double bl = bx * bx + by * by;
+        double cl = ex * ex + ey * ey;
+        double d = 2 * (bx * ey - by * ex);
+        cx = xs[a] + (ey * bl - by * cl) / d;
+        cy = ys[a] + (bx * cl - ex * bl) / d;
+    }
+
+    /**
+     * twice the signed area of (a, b, c), positive if counterclockwise.
+     */
+    private double orient(int a, int b, int c) {
+        return (xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]);
+    }
+
+    /**
+     * returns true if d is inside the circumcircle of the counterclockwise triangle (a, b, c).
+     */
+    private boolean inCircle(int a, int b, int c, int d) {
+        double adx = xs[a] - xs[d], ady = ys[a] - ys[d];
+        double bdx = xs[b] - xs[d], bdy = ys[b] - ys[d];
+        double cdx = xs[c] - xs[d], cdy = ys[c] - ys[d];
+
+        double ad = adx * adx + ady * ady;
+        double bd = bdx * bdx + bdy * bdy;
+        double cd = cdx * cdx + cdy * cdy;
+
+        return adx * (bdy * cd - bd * cdy) -
+                ady * (bdx * cd - bd * cdx) +
+                ad * (bdx * cdy - bdy * cdx) > 0;
+    }
+
+    /**
+     * a monotone function of the angle of the point around the center, in [0, 1).
+     */
+    private int hashKey(int i) {
+        double dx = xs[i] - cx, dy = ys[i] - cy;
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+        return (int) Math.floor(angle * hashSize) % hashSize;
+    }
+
+    /**
+     * sorts the ids by distance, then by x and y (so duplicates are next to each other) and then by id.
+     */
+    private void sort(int[] ids, double[] dists, int left, int right) {
+        while (right - left > 16) {
+            int median = (left + right) >>> 1;
+            swap(ids, median, left + 1);
+            if (greater(ids[left], ids[right], dists)) swap(ids, left, right);
+            if (greater(ids[left + 1], ids[right], dists)) swap(ids, left + 1, right);
+            if (greater(ids[left], ids[left + 1], dists)) swap(ids, left, left + 1);
+
+            int i = left + 1;
+            int j = right;
+            int pivot = ids[left + 1];
+            while (true) {
+                do i++; while (greater(pivot, ids[i], dists));
+                do j--; while (greater(ids[j], pivot, dists));
+                if (j < i) break;
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = pivot;
+
+            // Recurse on the smaller side
+            if (j - left < right - j) {
+                sort(ids, dists, left, j - 1);
+                left = i;
+            } else {
+                sort(ids, dists, i, right);
+                right = j - 1;
+            }
+        }
+
+        for (int i = left + 1; i <= right; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= left && greater(ids[j], id, dists)) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    private boolean greater(int i, int j, double[] dists) {
+        if (dists[i] != dists[j]) return dists[i] > dists[j];
+        if (xs[i] != xs[j]) return xs[i] > xs[j];
+        if (ys[i] != ys[j]) return ys[i] > ys[j];
+        return i > j;
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int tmp = ids[i];
+        ids[i] = ids[j];
+        ids[j] = tmp;
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Greedy insertion terrain simplification (Garland and Heckbert).
+ * <br>
+ * Builds a Delaunay triangulation that approximates a height grid: it starts from the four
+ * corners of the grid and repeatedly inserts the sample with the largest vertical error until
+ * the error is below the requested tolerance (see GreedyRefinement).
+ * <br>
+ * Sample (col, row) is heights[row * width + col] and is placed at
+ * (originX + col * cellSize, originY + row * cellSize).
+ */
+public class TerrainSimplifier extends GreedyRefinement {
+
+    private static final double EPSILON = 1e-6;
+
+    private final float[] heights;
+    private final int width, height;
+    private final float originX, originY, cellSize;
+
+    /**
+     * @param heights the samples, row by row
+     * @param width   the number of columns (at least 2)
+     * @param height  the number of rows (at least 2)
+     */
+    public TerrainSimplifier(float[] heights, int width, int height) {
+        this(heights, width, height, 0, 0, 1);
+    }
+
+    /**
+     * @param heights  the samples, row by row
+     * @param width    the number of columns (at least 2)
+     * @param height   the number of rows (at least 2)
+     * @param originX  the x coordinate of the first column
+     * @param originY  the y coordinate of the first row
+     * @param cellSize the distance between two samples
+     */
+    public TerrainSimplifier(float[] heights, int width, int height, float originX, float originY, float cellSize) {
+        if (width < 2 || height < 2) {
+            throw new IllegalArgumentException("The grid must have at least 2x2 samples");
+        }
+        if (heights.length < (long) width * height) {
+            throw new IllegalArgumentException("Expected " + (long) width * height + " samples, found " + heights.length);
+        }
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Invalid cell size: " + cellSize);
+        }
+
+        this.heights = heights;
+        this.width = width;
+        this.height = height;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+
+        insert(0);
+        insert(width - 1);
+        insert((height - 1) * width);
+        insert((height - 1) * width + width - 1);
+        scanAll();
+    }
+
+    /**
+     * inserts samples until the largest error is at most maxError.
+     *
+     * @param maxError the vertical tolerance
+     * @return the number of inserted vertices
+     */
+    public int simplify(float maxError) {
+        return simplify(maxError, Integer.MAX_VALUE);
+    }
+
+    /**
+     * inserts samples until the largest error is at most maxError or
+     * the triangulation has maxVertices vertices. Can be called again with a
+     * smaller tolerance to refine the same triangulation.
+     *
+     * @param maxError    the vertical tolerance
+     * @param maxVertices the vertex budget
+     * @return the number of inserted vertices
+     */
+    public int simplify(float maxError, int maxVertices) {
+        return refine(maxError, maxVertices);
+    }
+
+    /**
+     * returns the largest vertical error of the current triangulation, 0 if every sample was inserted.
+     */
+    public float getError() {
+        return error();
+    }
+
+    public DelaunayTriangulation getTriangulation() {
+        return triangulation;
+    }
+
+    /**
+     * returns the vertices in insertion order (the first ones are the most significant).
+     */
+    public List<Vector3> getVertices() {
+        return Collections.unmodifiableList(vertices);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    Vector3 vertex(int index) {
+        int col = index % width;
+        int row = index / width;
+        return new Vector3(originX + col * cellSize, originY + row * cellSize, heights[index]);
+    }
+
+    /**
+     * finds the worst sample in t (not inserted yet) and pushes it as a candidate.
+     */
+    @Override
+    void scan(Triangle t) {
+        if (t.halfplane) {
+            return;
+        }
+
+        // Grid coordinates
+        double ax = (t.a.x - originX) / cellSize, ay = (t.a.y - originY) / cellSize;
+        double bx = (t.b.x - originX) / cellSize, by = (t.b.y - originY) / cellSize;
+        double cx = (t.c.x - originX) / cellSize, cy = (t.c.y - originY) / cellSize;
+
+        // The plane of the triangle, per sample: z = a.z + dzdx * (x - ax) + dzdy * (y - ay)
+        double dzdx = t.slopeX() * cellSize;
+        double dzdy = t.slopeY() * cellSize;
+
+        int minRow = Math.max(0, (int) Math.ceil(Math.min(ay, Math.min(by, cy)) - EPSILON));
+        int maxRow = Math.min(height - 1, (int) Math.floor(Math.max(ay, Math.max(by, cy)) + EPSILON));
+
+        double worst = -1;
+        int candidate = -1;
+
+        for (int row = minRow; row <= maxRow; row++) {
+            // The span of the row inside the triangle
+            double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+            for (int e = 0; e < 3; e++) {
+                double px = e == 0 ? ax : e == 1 ? bx : cx;
+                double py = e == 0 ? ay : e == 1 ? by : cy;
+                double qx = e == 0 ? bx : e == 1 ? cx : ax;
+                double qy = e == 0 ? by : e == 1 ? cy : ay;
+
+                if (py == qy) {
+                    if (Math.abs(row - py) <= EPSILON) {
+                        left = Math.min(left, Math.min(px, qx));
+                        right = Math.max(right, Math.max(px, qx));
+                    }
+                } else if ((row >= Math.min(py, qy) - EPSILON) && (row <= Math.max(py, qy) + EPSILON)) {
+                    double x = px + (row - py) * (qx - px) / (qy - py);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+            }
+
+            int minCol = Math.max(0, (int) Math.ceil(left - EPSILON));
+            int maxCol = Math.min(width - 1, (int) Math.floor(right + EPSILON));
+
+            double z = t.a.z + dzdx * (minCol - ax) + dzdy * (row - ay);
+            int index = row * width + minCol;
+            for (int col = minCol; col <= maxCol; col++, index++, z += dzdx) {
+                double error = Math.abs(heights[index] - z);
+                if (error > worst && !inserted.get(index)) {
+                    worst = error;
+                    candidate = index;
+                }
+            }
+        }
+
+        if (candidate >= 0) {
+            push(t, worst, candidate);
+        }
+    }
+
+}
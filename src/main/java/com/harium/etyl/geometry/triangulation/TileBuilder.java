@@ -0,0 +1,308 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Builds the triangulation of one tile, whatever holds the rest of the points: the grid of a
+ * TiledTriangulation or the coordinator of a DistributedTriangulation (see Source).
+ * <br>
+ * The tile starts with the points of its cell plus an overlap margin (the extended cell). Every round,
+ * the local triangles touching the cell with a circumcircle that gets out of the extended cell, and the
+ * convex hull edges with the cell (partly) outside, become queries: circles and outer half planes.
+ * The source answers with the points out there in conflict with them, which are inserted. The tile is
+ * done when no query has a conflict: then no point of the whole set is inside the circumcircles of the
+ * triangles touching the cell, they are triangles of the global Delaunay triangulation.
+ * <br>
+ * A tile that cannot be tested yet (less than 3 points, all collinear) or that takes too many rounds
+ * doubles its margin instead.
+ */
+class TileBuilder {
+
+    /**
+     * Where the points of a tile come from.
+     */
+    interface Source {
+
+        /**
+         * inserts the points of the extended cell the tile does not have yet (see insert).
+         */
+        void fetch(TileBuilder tile);
+
+        /**
+         * inserts the points outside the extended cell in conflict with the queries of the tile.
+         *
+         * @return the number of points inserted, 0 if the tile is done
+         */
+        int resolve(TileBuilder tile);
+    }
+
+    // rounds of conflicts before the margin is doubled
+    static final int ROUNDS = 16;
+
+    final int column, row;
+
+    // the grid of tiles
+    final double gridMinX, gridMinY, gridMaxX, gridMaxY;
+    final int columns, rows;
+    final double width, height;
+
+    // the cell
+    final double minX, minY, maxX, maxY;
+
+    // tolerance for the rounding of the cell bounds
+    private final double eps;
+
+    double margin;
+
+    final DelaunayTriangulation triangulation = new DelaunayTriangulation();
+
+    // the queries, circles as x, y, squared radius and outer half planes as a point and a direction
+    // (the outside on the left)
+    double[] circles = new double[48];
+    int circleCount;
+    double[] halfplanes = new double[32];
+    int halfplaneCount;
+
+    private final List<Triangle> owned = new ArrayList<Triangle>();
+
+    TileBuilder(double gridMinX, double gridMinY, double gridMaxX, double gridMaxY, int columns, int rows,
+                int column, int row, double margin) {
+        this.gridMinX = gridMinX;
+        this.gridMinY = gridMinY;
+        this.gridMaxX = gridMaxX;
+        this.gridMaxY = gridMaxY;
+        this.columns = columns;
+        this.rows = rows;
+        this.width = (gridMaxX - gridMinX) / columns;
+        this.height = (gridMaxY - gridMinY) / rows;
+        this.column = column;
+        this.row = row;
+        this.margin = margin;
+
+        this.minX = gridMinX + column * width;
+        this.minY = gridMinY + row * height;
+        this.maxX = column == columns - 1 ? gridMaxX : gridMinX + (column + 1) * width;
+        this.maxY = row == rows - 1 ? gridMaxY : gridMinY + (row + 1) * height;
+        this.eps = 1e-9 * Math.max(1, Math.max(gridMaxX - gridMinX, gridMaxY - gridMinY));
+    }
+
+    /**
+     * returns the cell of v along one axis of a grid.
+     */
+    static int cell(double v, double min, double size, int count) {
+        if (size <= 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(count - 1, (int) Math.floor((v - min) / size)));
+    }
+
+    double x0() {
+        return minX - margin;
+    }
+
+    double y0() {
+        return minY - margin;
+    }
+
+    double x1() {
+        return maxX + margin;
+    }
+
+    double y1() {
+        return maxY + margin;
+    }
+
+    /**
+     * returns true if the extended cell covers all the points.
+     */
+    boolean coversAll() {
+        return x0() <= gridMinX && y0() <= gridMinY && x1() >= gridMaxX && y1() >= gridMaxY;
+    }
+
+    /**
+     * builds the tile.
+     */
+    void build(Source source) {
+        source.fetch(this);
+        int round = 0;
+        while (true) {
+            boolean testable = collect();
+            if (coversAll()) {
+                if (!testable) {
+                    own();
+                }
+                return;
+            }
+            if (testable && circleCount + halfplaneCount == 0) {
+                return;
+            }
+
+            if (testable && round < ROUNDS) {
+                if (source.resolve(this) == 0) {
+                    return;
+                }
+                round++;
+            } else {
+                margin = margin > 0 ? 2 * margin : Math.max(width, height) / 4;
+                source.fetch(this);
+                round = 0;
+            }
+        }
+    }
+
+    /**
+     * inserts points in the tile, large batches in a spatial order.
+     */
+    void insert(List<? extends Vector3> points) {
+        if (points.size() < SpatialOrder.MIN_ROUND) {
+            for (Vector3 p : points) {
+                triangulation.insertPoint(p);
+            }
+            return;
+        }
+        for (int i : spatialOrder(points, x0(), y0(), x1(), y1())) {
+            triangulation.insertPoint(points.get(i));
+        }
+    }
+
+    /**
+     * returns the triangles with their centroid in the cell, final once the tile is built.
+     */
+    List<Triangle> getOwned() {
+        return owned;
+    }
+
+    /**
+     * finds the queries and the owned triangles of the current triangulation.
+     *
+     * @return false if the tile cannot be tested yet
+     */
+    private boolean collect() {
+        owned.clear();
+        circleCount = 0;
+        halfplaneCount = 0;
+
+        List<Triangle> local = triangulation.size() < 3 ? null : triangulation.getTriangles();
+        if (local == null || local.isEmpty()) {
+            return false;
+        }
+
+        double x0 = x0(), y0 = y0(), x1 = x1(), y1 = y1();
+        for (Triangle t : local) {
+            double ax = Vector3d.x(t.a), ay = Vector3d.y(t.a);
+            double bx = Vector3d.x(t.b), by = Vector3d.y(t.b);
+            double cx = Vector3d.x(t.c), cy = Vector3d.y(t.c);
+
+            double tx0 = Math.min(ax, Math.min(bx, cx)), tx1 = Math.max(ax, Math.max(bx, cx));
+            double ty0 = Math.min(ay, Math.min(by, cy)), ty1 = Math.max(ay, Math.max(by, cy));
+            if (tx1 < minX - eps || tx0 > maxX + eps || ty1 < minY - eps || ty0 > maxY + eps) {
+                continue;
+            }
+
+            // Circumcircle, relative to a
+            double ux = bx - ax, uy = by - ay, vx = cx - ax, vy = cy - ay;
+            double d = 2 * (ux * vy - uy * vx);
+            if (d == 0) {
+                return false;
+            }
+            double u2 = ux * ux + uy * uy, v2 = vx * vx + vy * vy;
+            double ox = (vy * u2 - uy * v2) / d, oy = (ux * v2 - vx * u2) / d;
+            double r2 = ox * ox + oy * oy;
+            double r = Math.sqrt(r2);
+            ox += ax;
+            oy += ay;
+            if (ox - r < x0 || ox + r > x1 || oy - r < y0 || oy + r > y1) {
+                if (3 * circleCount + 3 > circles.length) {
+                    circles = Arrays.copyOf(circles, circles.length * 2);
+                }
+                circles[3 * circleCount] = ox;
+                circles[3 * circleCount + 1] = oy;
+                circles[3 * circleCount + 2] = r2;
+                circleCount++;
+            }
+
+            if (cell((ax + bx + cx) / 3, gridMinX, width, columns) == column
+                    && cell((ay + by + cy) / 3, gridMinY, height, rows) == row) {
+                owned.add(t);
+            }
+        }
+
+        Iterator<Triangle> hull = triangulation.getConvexHullEdgesIterator();
+        while (hull.hasNext()) {
+            Triangle h = hull.next();
+            double ax = Vector3d.x(h.a), ay = Vector3d.y(h.a);
+            double dx = Vector3d.x(h.b) - ax, dy = Vector3d.y(h.b) - ay;
+
+            // The outside is opposite to the vertex of the triangle inside the hull
+            Triangle in = h.abnext;
+            Vector3 apex = in.a != h.a && in.a != h.b ? in.a : in.b != h.a && in.b != h.b ? in.b : in.c;
+            if (side(ax, ay, dx, dy, Vector3d.x(apex), Vector3d.y(apex)) > 0) {
+                ax += dx;
+                ay += dy;
+                dx = -dx;
+                dy = -dy;
+            }
+
+            // Only the edges with the cell (partly) outside matter
+            if (side(ax, ay, dx, dy, minX, minY) > 0 || side(ax, ay, dx, dy, maxX, minY) > 0
+                    || side(ax, ay, dx, dy, minX, maxY) > 0 || side(ax, ay, dx, dy, maxX, maxY) > 0) {
+                if (4 * halfplaneCount + 4 > halfplanes.length) {
+                    halfplanes = Arrays.copyOf(halfplanes, halfplanes.length * 2);
+                }
+                halfplanes[4 * halfplaneCount] = ax;
+                halfplanes[4 * halfplaneCount + 1] = ay;
+                halfplanes[4 * halfplaneCount + 2] = dx;
+                halfplanes[4 * halfplaneCount + 3] = dy;
+                halfplaneCount++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * keeps the triangles with their centroid in the cell, without testing them.
+     */
+    private void own() {
+        owned.clear();
+        if (triangulation.size() < 3) {
+            return;
+        }
+        for (Triangle t : triangulation.getTriangles()) {
+            double x = (Vector3d.x(t.a) + Vector3d.x(t.b) + Vector3d.x(t.c)) / 3;
+            double y = (Vector3d.y(t.a) + Vector3d.y(t.b) + Vector3d.y(t.c)) / 3;
+            if (cell(x, gridMinX, width, columns) == column && cell(y, gridMinY, height, rows) == row) {
+                owned.add(t);
+            }
+        }
+    }
+
+    /**
+     * returns a value greater than 0 if (x, y) is on the left of the line a + t d.
+     */
+    static double side(double ax, double ay, double dx, double dy, double x, double y) {
+        return dx * (y - ay) - dy * (x - ax);
+    }
+
+    /**
+     * returns the insertion order of the points (see SpatialOrder). Cell by cell, the hull would grow
+     * in bands of long thin triangles.
+     */
+    private static int[] spatialOrder(List<? extends Vector3> points, double x0, double y0, double x1, double y1) {
+        int count = points.size();
+        double extent = Math.max(x1 - x0, y1 - y0);
+        double scale = extent > 0 ? 0x7fff / extent : 0;
+
+        long[] keys = new long[count];
+        for (int k = 0; k < count; k++) {
+            Vector3 p = points.get(k);
+            keys[k] = SpatialOrder.key((int) ((Vector3d.x(p) - x0) * scale), (int) ((Vector3d.y(p) - y0) * scale), k);
+        }
+        return SpatialOrder.order(keys);
+    }
+
+}
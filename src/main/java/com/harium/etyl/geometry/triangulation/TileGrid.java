@@ -0,0 +1,256 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The points bucketed by tile (compressed rows of point indices), answers the requests of the
+ * tiles (see TileBuilder.Source).
+ * <br>
+ * The coordinates of the points of each cell are copied in arrays, so a cell is tested against a
+ * half plane in one batch (see BatchPredicates).
+ */
+class TileGrid {
+
+    final List<? extends Vector3> points;
+    final int columns, rows;
+    final double minX, minY, maxX, maxY;
+    final double width, height;
+    private final int[] offsets;
+    private final int[] indices;
+    private final double[] bounds;
+
+    // the coordinates of the points of each cell, in the order of indices
+    private final double[][] xs, ys;
+    private final int maxCellSize;
+
+    TileGrid(List<? extends Vector3> points, int columns, int rows) {
+        this.points = points;
+        this.columns = columns;
+        this.rows = rows;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (Vector3 p : points) {
+            double x = Vector3d.x(p), y = Vector3d.y(p);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        if (points.isEmpty()) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.width = (maxX - minX) / columns;
+        this.height = (maxY - minY) / rows;
+
+        int n = points.size();
+        int[] cells = new int[n];
+        offsets = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            Vector3 p = points.get(i);
+            cells[i] = row(Vector3d.y(p)) * columns + column(Vector3d.x(p));
+            offsets[cells[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        indices = new int[n];
+        int[] fill = new int[columns * rows];
+        System.arraycopy(offsets, 0, fill, 0, fill.length);
+        for (int i = 0; i < n; i++) {
+            indices[fill[cells[i]]++] = i;
+        }
+
+        // Coordinates and bounds of the points of each cell, empty cells are inside any box
+        xs = new double[columns * rows][];
+        ys = new double[columns * rows][];
+        bounds = new double[4 * columns * rows];
+        int maxCellSize = 0;
+        for (int c = 0; c < columns * rows; c++) {
+            int size = offsets[c + 1] - offsets[c];
+            maxCellSize = Math.max(maxCellSize, size);
+            xs[c] = new double[size];
+            ys[c] = new double[size];
+            bounds[4 * c] = bounds[4 * c + 1] = Double.POSITIVE_INFINITY;
+            bounds[4 * c + 2] = bounds[4 * c + 3] = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < size; k++) {
+                Vector3 p = points.get(indices[offsets[c] + k]);
+                double x = Vector3d.x(p), y = Vector3d.y(p);
+                xs[c][k] = x;
+                ys[c][k] = y;
+                bounds[4 * c] = Math.min(bounds[4 * c], x);
+                bounds[4 * c + 1] = Math.min(bounds[4 * c + 1], y);
+                bounds[4 * c + 2] = Math.max(bounds[4 * c + 2], x);
+                bounds[4 * c + 3] = Math.max(bounds[4 * c + 3], y);
+            }
+        }
+        this.maxCellSize = maxCellSize;
+    }
+
+    /**
+     * creates the builder of a tile of this grid.
+     */
+    TileBuilder tile(int column, int row, double margin) {
+        return new TileBuilder(minX, minY, maxX, maxY, columns, rows, column, row, margin);
+    }
+
+    /**
+     * returns the points inside the box not added yet, and adds them.
+     */
+    int[] fetch(double x0, double y0, double x1, double y1, BitSet added) {
+        int[] selected = new int[16];
+        int count = 0;
+        int c0 = column(x0), c1 = column(x1), r0 = row(y0), r1 = row(y1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                double[] cx = xs[cell], cy = ys[cell];
+                for (int k = 0; k < cx.length; k++) {
+                    int i = indices[offsets[cell] + k];
+                    double x = cx[k], y = cy[k];
+                    if (x >= x0 && x <= x1 && y >= y0 && y <= y1 && !added.get(i)) {
+                        if (count == selected.length) {
+                            selected = Arrays.copyOf(selected, count * 2);
+                        }
+                        selected[count++] = i;
+                        added.set(i);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * returns the points in conflict with the queries of a tile (at most one per query, see inCircle
+     * and beyond), and adds them.
+     */
+    int[] resolve(double[] circles, int circleCount, double[] halfplanes, int halfplaneCount,
+                  double x0, double y0, double x1, double y1, BitSet added) {
+        int[] conflicts = new int[circleCount + halfplaneCount];
+        int count = 0;
+        double[] sides = halfplaneCount > 0 ? new double[maxCellSize] : null;
+        for (int k = 0; k < circleCount; k++) {
+            int conflict = inCircle(circles[3 * k], circles[3 * k + 1], circles[3 * k + 2], x0, y0, x1, y1, added);
+            count = conflict(conflicts, count, conflict);
+        }
+        for (int k = 0; k < halfplaneCount; k++) {
+            int conflict = beyond(halfplanes[4 * k], halfplanes[4 * k + 1], halfplanes[4 * k + 2], halfplanes[4 * k + 3],
+                    x0, y0, x1, y1, added, sides);
+            count = conflict(conflicts, count, conflict);
+        }
+        for (int k = 0; k < count; k++) {
+            added.set(conflicts[k]);
+        }
+        return Arrays.copyOf(conflicts, count);
+    }
+
+    private static int conflict(int[] conflicts, int count, int conflict) {
+        if (conflict < 0) {
+            return count;
+        }
+        for (int k = 0; k < count; k++) {
+            if (conflicts[k] == conflict) {
+                return count;
+            }
+        }
+        conflicts[count] = conflict;
+        return count + 1;
+    }
+
+    /**
+     * returns the point outside the box (and not added) the deepest inside the circle, -1 if there is none.
+     */
+    int inCircle(double ox, double oy, double r2, double x0, double y0, double x1, double y1, BitSet added) {
+        double r = Math.sqrt(r2);
+        if (ox - r >= x0 && ox + r <= x1 && oy - r >= y0 && oy + r <= y1) {
+            return -1;
+        }
+        // Points on the circle (within the rounding) are not inside
+        double limit = r2 * (1 - 1e-9);
+        int found = -1;
+        int c0 = column(ox - r), c1 = column(ox + r), r0 = row(oy - r), r1 = row(oy + r);
+        for (int row = r0; row <= r1; row++) {
+            for (int column = c0; column <= c1; column++) {
+                int cell = row * columns + column;
+                double bx0 = bounds[4 * cell], by0 = bounds[4 * cell + 1];
+                double bx1 = bounds[4 * cell + 2], by1 = bounds[4 * cell + 3];
+                if (bx0 >= x0 && bx1 <= x1 && by0 >= y0 && by1 <= y1) {
+                    continue;
+                }
+                // Distance from the center to the points of the cell
+                double dx = Math.max(0, Math.max(bx0 - ox, ox - bx1));
+                double dy = Math.max(0, Math.max(by0 - oy, oy - by1));
+                if (dx * dx + dy * dy >= limit) {
+                    continue;
+                }
+                double[] cx = xs[cell], cy = ys[cell];
+                for (int k = 0; k < cx.length; k++) {
+                    double x = cx[k], y = cy[k];
+                    int i = indices[offsets[cell] + k];
+                    if ((x < x0 || x > x1 || y < y0 || y > y1) && !added.get(i)) {
+                        double px = x - ox, py = y - oy;
+                        if (px * px + py * py < limit) {
+                            limit = px * px + py * py;
+                            found = i;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * returns the point outside the box (and not added) the farthest on the left of the line a + t d,
+     * -1 if there is none.
+     *
+     * @param sides a buffer for the sides of the points of a cell (maxCellSize values)
+     */
+    int beyond(double ax, double ay, double dx, double dy, double x0, double y0, double x1, double y1, BitSet added,
+               double[] sides) {
+        double max = 0;
+        int found = -1;
+        for (int cell = 0; cell < columns * rows; cell++) {
+            double bx0 = bounds[4 * cell], by0 = bounds[4 * cell + 1];
+            double bx1 = bounds[4 * cell + 2], by1 = bounds[4 * cell + 3];
+            if (bx0 >= x0 && bx1 <= x1 && by0 >= y0 && by1 <= y1) {
+                continue;
+            }
+            if (TileBuilder.side(ax, ay, dx, dy, bx0, by0) <= max && TileBuilder.side(ax, ay, dx, dy, bx1, by0) <= max
+                    && TileBuilder.side(ax, ay, dx, dy, bx0, by1) <= max && TileBuilder.side(ax, ay, dx, dy, bx1, by1) <= max) {
+                continue;
+            }
+            double[] cx = xs[cell], cy = ys[cell];
+            BatchPredicates.orientation(ax, ay, ax + dx, ay + dy, cx, cy, sides, 0, cx.length);
+            for (int k = 0; k < cx.length; k++) {
+                if (sides[k] > max) {
+                    double x = cx[k], y = cy[k];
+                    int i = indices[offsets[cell] + k];
+                    if ((x < x0 || x > x1 || y < y0 || y > y1) && !added.get(i)) {
+                        max = sides[k];
+                        found = i;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    int column(double x) {
+        return TileBuilder.cell(x, minX, width, columns);
+    }
+
+    int row(double y) {
+        return TileBuilder.cell(y, minY, height, rows);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Receives the tiles of a TiledTriangulation as soon as they are done, to stream them
+ * before the whole point set is triangulated.
+ */
+public interface TileListener {
+
+    /**
+     * called once per tile, from the thread that triangulated it (tiles may complete concurrently
+     * and in any order).
+     *
+     * @param tile the finished tile, its triangles are final
+     */
+    void tileCompleted(TiledTriangulation.Tile tile);
+
+}
@@ -0,0 +1,216 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Triangulates a point set as a grid of tiles, each one in its own DelaunayTriangulation and
+ * concurrently with the others.
+ * <br>
+ * A tile triangulates the points of its cell plus the points within an overlap margin around it.
+ * A local triangle whose circumcircle lies inside that extended cell has no point of the whole set
+ * inside its circumcircle, so it is a triangle of the global Delaunay triangulation. The same holds
+ * for the convex hull edges, with the half plane outside the edge instead of the circumcircle.
+ * When a circle or half plane touching the cell gets out of the extended cell, the points out there
+ * are tested (the cells far from it are skipped by their bounds) and the ones in conflict are added
+ * to the tile, which is tested again. After a few rounds the margin of the tile is doubled instead.
+ * <br>
+ * Each tile keeps the certified triangles whose centroid lies in its cell, so the seams are stitched
+ * without a merge step: the union of the tiles is the global Delaunay triangulation (for points in
+ * general position; with four or more cocircular points next to a seam, two tiles may pick different
+ * diagonals). The neighbors of a triangle (abnext, bcnext, canext) belong to its tile triangulation.
+ * <br>
+ * The points are triangulated as they are (weights are ignored), see DelaunayTriangulation.
+ */
+public class TiledTriangulation {
+
+    private final int columns;
+    private final int rows;
+    private final float margin;
+
+    private TileListener listener;
+
+    /**
+     * @param columns the number of tiles along x
+     * @param rows    the number of tiles along y
+     * @param margin  the initial overlap margin around the tiles, grown where it is too small
+     */
+    public TiledTriangulation(int columns, int rows, float margin) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("At least one tile is required");
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("The margin must not be negative");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.margin = margin;
+    }
+
+    /**
+     * sets the listener notified as each tile completes, null to disable it.
+     */
+    public void setListener(TileListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * triangulates the points with one thread per available processor.
+     *
+     * @return the tiles, row by row
+     */
+    public List<Tile> triangulate(List<Vector3> points) {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return triangulate(points, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * triangulates the points, one task per tile on the given executor (which is not shut down).
+     *
+     * @return the tiles, row by row
+     */
+    public List<Tile> triangulate(List<Vector3> points, ExecutorService executor) {
+        final TileGrid grid = new TileGrid(points, columns, rows);
+
+        List<Future<Tile>> futures = new ArrayList<Future<Tile>>(columns * rows);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final Tile tile = new Tile(column, row);
+                futures.add(executor.submit(new Callable<Tile>() {
+                    public Tile call() {
+                        tile.triangulate(grid, margin);
+                        if (listener != null) {
+                            listener.tileCompleted(tile);
+                        }
+                        return tile;
+                    }
+                }));
+            }
+        }
+
+        List<Tile> tiles = new ArrayList<Tile>(futures.size());
+        try {
+            for (Future<Tile> future : futures) {
+                tiles.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while triangulating the tiles", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return tiles;
+    }
+
+    /**
+     * returns the triangles of all the tiles.
+     */
+    public static List<Triangle> triangles(List<Tile> tiles) {
+        int count = 0;
+        for (Tile tile : tiles) {
+            count += tile.triangles.size();
+        }
+        List<Triangle> triangles = new ArrayList<Triangle>(count);
+        for (Tile tile : tiles) {
+            triangles.addAll(tile.triangles);
+        }
+        return triangles;
+    }
+
+    /**
+     * A tile: its cell, the triangulation of the points around it and the triangles it owns.
+     */
+    public static class Tile {
+
+        private final int column, row;
+
+        private float margin;
+        private DelaunayTriangulation triangulation;
+        private List<Triangle> triangles = Collections.emptyList();
+
+        private Tile(int column, int row) {
+            this.column = column;
+            this.row = row;
+        }
+
+        private void triangulate(final TileGrid grid, float initialMargin) {
+            final BitSet added = new BitSet();
+            TileBuilder builder = grid.tile(column, row, initialMargin);
+            builder.build(new TileBuilder.Source() {
+                public void fetch(TileBuilder tile) {
+                    tile.insert(points(grid, grid.fetch(tile.x0(), tile.y0(), tile.x1(), tile.y1(), added)));
+                }
+
+                public int resolve(TileBuilder tile) {
+                    int[] conflicts = grid.resolve(tile.circles, tile.circleCount, tile.halfplanes, tile.halfplaneCount,
+                            tile.x0(), tile.y0(), tile.x1(), tile.y1(), added);
+                    tile.insert(points(grid, conflicts));
+                    return conflicts.length;
+                }
+            });
+
+            margin = (float) builder.margin;
+            triangulation = builder.triangulation;
+            triangles = Collections.unmodifiableList(builder.getOwned());
+        }
+
+        private static List<Vector3> points(TileGrid grid, int[] indices) {
+            List<Vector3> points = new ArrayList<Vector3>(indices.length);
+            for (int i : indices) {
+                points.add(grid.points.get(i));
+            }
+            return points;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * returns the overlap margin the tile needed to certify its triangles.
+         */
+        public float getMargin() {
+            return margin;
+        }
+
+        /**
+         * returns the triangulation of the points around the tile (it covers more than the tile).
+         */
+        public DelaunayTriangulation getTriangulation() {
+            return triangulation;
+        }
+
+        /**
+         * returns the triangles owned by the tile: the global Delaunay triangles with their centroid in it.
+         */
+        public List<Triangle> getTriangles() {
+            return triangles;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile(" + column + "," + row + ")";
+        }
+    }
+
+}
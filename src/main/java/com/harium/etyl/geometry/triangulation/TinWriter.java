@@ -0,0 +1,167 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streaming writer for triangulations.
+ * <br>
+ * TSIN: the number of vertices followed by one "x y z" line per vertex. <br>
+ * SMF: "v x y z" lines for the vertices and "f i j k" lines (1-based) for the triangles. <br>
+ * <br>
+ * Lines are encoded into a reusable buffer that is flushed to the channel when full.
+ * The coordinates of Vector3d vertices are written in double precision.
+ */
+public class TinWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    // the longest line written (3 doubles and a prefix) must fit in the buffer
+    private static final int MAX_LINE_LENGTH = 128;
+
+    private final ByteBuffer buffer;
+
+    private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH);
+
+    private WritableByteChannel channel;
+
+    public TinWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the size of the write buffer
+     */
+    public TinWriter(int bufferSize) {
+        buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_LINE_LENGTH));
+    }
+
+    /**
+     * writes the vertices of the triangulation in TSIN format.
+     */
+    public void writeTsin(DelaunayTriangulation triangulation, Path path) throws IOException {
+        FileChannel channel = open(path);
+        try {
+            writeTsin(triangulation, channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * writes the vertices of the triangulation in TSIN format.
+     */
+    public void writeTsin(DelaunayTriangulation triangulation, WritableByteChannel channel) throws IOException {
+        begin(channel);
+
+        line.append(triangulation.size());
+        writeLine();
+
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            Vector3 p = it.next();
+            appendVertex(p);
+            writeLine();
+        }
+
+        end();
+    }
+
+    /**
+     * writes the vertices and the triangles of the triangulation in SMF format.
+     */
+    public void writeSmf(DelaunayTriangulation triangulation, Path path) throws IOException {
+        FileChannel channel = open(path);
+        try {
+            writeSmf(triangulation, channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * writes the vertices and the triangles of the triangulation in SMF format.
+     */
+    public void writeSmf(DelaunayTriangulation triangulation, WritableByteChannel channel) throws IOException {
+        begin(channel);
+
+        line.append("begin");
+        writeLine();
+
+        VertexIndex index = new VertexIndex(triangulation);
+        for (int i = 0; i < index.size(); i++) {
+            Vector3 p = index.get(i);
+            line.append("v ");
+            appendVertex(p);
+            writeLine();
+        }
+
+        List<Triangle> triangles = triangulation.getTriangles();
+        for (Triangle t : triangles) {
+            line.append("f ").append(index.indexOf(t.a) + 1)
+                    .append(' ').append(index.indexOf(t.b) + 1)
+                    .append(' ').append(index.indexOf(t.c) + 1);
+            writeLine();
+        }
+
+        line.append("end");
+        writeLine();
+
+        end();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private void begin(WritableByteChannel channel) {
+        this.channel = channel;
+        buffer.clear();
+        line.setLength(0);
+    }
+
+    private void appendVertex(Vector3 p) {
+        if (p instanceof Vector3d) {
+            Vector3d d = (Vector3d) p;
+            line.append(d.xd).append(' ').append(d.yd).append(' ').append(d.zd);
+        } else {
+            line.append(p.x).append(' ').append(p.y).append(' ').append(p.z);
+        }
+    }
+
+    private void writeLine() throws IOException {
+        if (buffer.remaining() < line.length() + 1) {
+            flush();
+        }
+
+        for (int i = 0; i < line.length(); i++) {
+            buffer.put((byte) line.charAt(i));
+        }
+        buffer.put((byte) '\n');
+
+        line.setLength(0);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void end() throws IOException {
+        flush();
+        channel = null;
+    }
+
+}
@@ -17,11 +17,22 @@ public class Triangle {
     protected Triangle abnext, bcnext, canext;
     protected Circle3 circum;
 
+    // double precision circumcircle, used when a vertex is a Vector3d
+    // (the orthogonal circle if a vertex is weighted, circumRadius2 may be negative)
+    private boolean preciseCircum;
+    private double circumX, circumY, circumRadius2;
+
+    // slopes of the plane of the triangle, z = a.z + planeX * (x - a.x) + planeY * (y - a.y),
+    // computed by the first height query. planeReady is written after them: threads reading a
+    // triangulation that does not change see both slopes, or compute the same values again
+    private double planeX, planeY;
+    private volatile boolean planeReady;
+
     int modCounter = 0; // modcounter for triangulation fast update.
 
     boolean halfplane = false; // true iff it is an infinite face.
 
-    boolean mark = false;   // tag - for bfs algorithms
+    int mark = 0;   // tag - for bfs algorithms (compared against a traversal stamp)
 
     public static int counter = 0, counter2 = 0;
 
@@ -29,6 +40,24 @@ public class Triangle {
      * constructs a triangle form 3 point - store it in counterclockwised order.
      */
     public Triangle(Vector3 a, Vector3 b, Vector3 c) {
+        set(a, b, c);
+    }
+
+    /**
+     * creates a half plane using the segment (A,B).
+     *
+     * @param A
+     * @param b
+     */
+    public Triangle(Vector3 A, Vector3 b) {
+        setHalfplane(A, b);
+    }
+
+    /**
+     * reinitializes this triangle (see the constructor), used to recycle triangles (see TrianglePool).
+     */
+    void set(Vector3 a, Vector3 b, Vector3 c) {
+        reset();
         this.a = a;
 
         if (isClockWise(a, b, c)) {
@@ -44,33 +73,48 @@ public class Triangle {
         circumcircle();
     }
 
-    private boolean isClockWise(Vector3 a, Vector3 b, Vector3 c) {
-        PointLinePosition res = PointLineTest.pointLineTest(a, b, c);
-
-        return (res == PointLinePosition.LEFT) || (res == PointLinePosition.ON_SEGMENT) ||
-                (res == PointLinePosition.INFRONT_OF_A) || (res == PointLinePosition.BEHIND_B);
-    }
-
     /**
-     * creates a half plane using the segment (A,B).
-     *
-     * @param A
-     * @param b
+     * reinitializes this triangle as a half plane, used to recycle triangles (see TrianglePool).
      */
-    public Triangle(Vector3 A, Vector3 b) {
-        //		visitflag=visitValue;
-        this.a = A;
+    void setHalfplane(Vector3 a, Vector3 b) {
+        reset();
+        this.a = a;
         this.b = b;
         this.c = generateEquilateralPoint(a, b);
 
         halfplane = true;
     }
 
+    private void reset() {
+        abnext = bcnext = canext = null;
+        modCounter = 0;
+        mark = 0;
+        halfplane = false;
+        if (planeReady) {
+            planeReady = false;
+        }
+    }
+
+    private boolean isClockWise(Vector3 a, Vector3 b, Vector3 c) {
+        PointLinePosition res = PointLineTest.pointLineTest(a, b, c);
+
+        return (res == PointLinePosition.LEFT) || (res == PointLinePosition.ON_SEGMENT) ||
+                (res == PointLinePosition.INFRONT_OF_A) || (res == PointLinePosition.BEHIND_B);
+    }
+
     public Vector3 generateEquilateralPoint(Vector3 a, Vector3 b) {
 
         double sin = Math.sin(60 * Math.PI / 180.0);
         double cos = Math.cos(60 * Math.PI / 180.0);
 
+        if (Vector3d.isPrecise(a, b)) {
+            double ax = Vector3d.x(a), ay = Vector3d.y(a);
+            double bx = Vector3d.x(b), by = Vector3d.y(b);
+            return new Vector3d(cos * (ax - bx) - sin * (ay - by) + bx,
+                    sin * (ax - bx) + cos * (ay - by) + by,
+                    (Vector3d.z(a) + Vector3d.z(b)) / 2);
+        }
+
         double mz = (a.z + b.z) / 2;
 
         double cx = cos * (a.x - b.x) - sin * (a.y - b.y) + b.x;
@@ -201,22 +245,131 @@ public class Triangle {
         return neighbor;
     }
 
+    /**
+     * Returns the neighbor reached by rotating around the corner p,
+     * (rotating through every neighbor visits all the triangles that share p).
+     *
+     * @param p a corner of this triangle (compared by reference)
+     */
+    Triangle nextAround(Vector3 p) {
+        if (a == p) return canext;
+        if (b == p) return abnext;
+        return bcnext;
+    }
+
+    /**
+     * Returns the corner that follows p in counterclockwise order.
+     *
+     * @param p a corner of this triangle (compared by reference)
+     * @return the next corner, null if it is the open corner of a half plane
+     */
+    Vector3 cornerAfter(Vector3 p) {
+        if (a == p) return b;
+        if (b == p) return halfplane ? null : c;
+        return a;
+    }
+
     Circle3 circumcircle() {
+        // The vertices changed (the volatile write only if a plane was computed, a flip is cheap)
+        if (planeReady) {
+            planeReady = false;
+        }
+        preciseCircum = Vector3d.isPrecise(a, b, c);
+        if (preciseCircum) {
+            return preciseCircumcircle();
+        }
+
         float u = ((a.x - b.x) * (a.x + b.x) + (a.y - b.y) * (a.y + b.y)) / 2.0f;
         float v = ((b.x - c.x) * (b.x + c.x) + (b.y - c.y) * (b.y + c.y)) / 2.0f;
         float den = (a.x - b.x) * (b.y - c.y) - (b.x - c.x) * (a.y - b.y);
         if (den == 0) // oops, degenerate case
-            circum = new Circle3(a, Float.POSITIVE_INFINITY);
+            setCircum(a.x, a.y, a.z, Float.POSITIVE_INFINITY);
         else {
-            Vector3 cen = new Vector3((u * (b.y - c.y) - v * (a.y - b.y)) / den,
-                    (v * (a.x - b.x) - u * (b.x - c.x)) / den, 0);
-            circum = new Circle3(cen, cen.dst(a));
+            float cx = (u * (b.y - c.y) - v * (a.y - b.y)) / den;
+            float cy = (v * (a.x - b.x) - u * (b.x - c.x)) / den;
+            // The circle lies on the XY plane, the Z values are ignored
+            setCircum(cx, cy, 0, Vector3.dst(cx, cy, 0, a.x, a.y, 0));
+        }
+        return circum;
+    }
+
+    /**
+     * returns the center of the circumcircle (the orthocenter if a vertex is weighted),
+     * a copy that is not changed by later flips.
+     */
+    Vector3 circumcenter() {
+        Vector3 center = circumcircle().getCenter();
+        // Vector3d centers are immutable
+        return center instanceof Vector3d ? center : center.cpy();
+    }
+
+    /**
+     * updates the circumcircle in place, flips and recycled triangles do not allocate a new one.
+     */
+    private void setCircum(float x, float y, float z, float radius) {
+        if (circum == null || circum.getCenter() instanceof Vector3d) {
+            circum = new Circle3(new Vector3(x, y, z), radius);
+        } else {
+            circum.getCenter().set(x, y, z);
+            circum.setRadius(radius);
+        }
+    }
+
+    private Circle3 preciseCircumcircle() {
+        // Relative to a, so the large coordinates cancel out
+        double ax = Vector3d.x(a), ay = Vector3d.y(a);
+        double bx = Vector3d.x(b) - ax, by = Vector3d.y(b) - ay;
+        double cx = Vector3d.x(c) - ax, cy = Vector3d.y(c) - ay;
+        double wa = WeightedVector3.weight(a);
+
+        double den = 2 * (bx * cy - by * cx);
+        if (den == 0) {
+            circumRadius2 = Double.POSITIVE_INFINITY;
+            circum = new Circle3(a, Float.POSITIVE_INFINITY);
+            return circum;
         }
+
+        // Same power distance to the three vertices (the weights are 0 for a circumcircle)
+        double b2 = bx * bx + by * by - (WeightedVector3.weight(b) - wa);
+        double c2 = cx * cx + cy * cy - (WeightedVector3.weight(c) - wa);
+        double ux = (cy * b2 - by * c2) / den;
+        double uy = (bx * c2 - cx * b2) / den;
+
+        circumX = ax + ux;
+        circumY = ay + uy;
+        circumRadius2 = ux * ux + uy * uy - wa;
+        circum = new Circle3(new Vector3d(circumX, circumY, 0), (float) Math.sqrt(Math.max(0, circumRadius2)));
         return circum;
     }
 
     boolean circumcircleContains(Vector3 p) {
-        return circum.contains(p);
+        if (preciseCircum || p instanceof Vector3d) {
+            if (!preciseCircum) {
+                preciseCircum = true;
+                circumX = circum.getCenter().x;
+                circumY = circum.getCenter().y;
+                circumRadius2 = (double) circum.getRadius() * circum.getRadius();
+            }
+            double dx = Vector3d.x(p) - circumX;
+            double dy = Vector3d.y(p) - circumY;
+            // Power test, the weight is 0 for unweighted points
+            return dx * dx + dy * dy - WeightedVector3.weight(p) < circumRadius2;
+        }
+
+        if (circum.getRadius() == Float.POSITIVE_INFINITY) {
+            return true;
+        }
+
+        // In circle determinant from the vertices, the float circumcenter is too coarse for thin
+        // triangles and the mesh would not be Delaunay (the point location walk could then loop)
+        double adx = a.x - p.x, ady = a.y - p.y;
+        double bdx = b.x - p.x, bdy = b.y - p.y;
+        double cdx = c.x - p.x, cdy = c.y - p.y;
+        double ab = adx * bdy - bdx * ady;
+        double bc = bdx * cdy - cdx * bdy;
+        double ca = cdx * ady - adx * cdy;
+        double det = (adx * adx + ady * ady) * bc + (bdx * bdx + bdy * bdy) * ca + (cdx * cdx + cdy * cdy) * ab;
+        return ab + bc + ca > 0 ? det > 0 : det < 0;
     }
 
     public String toString() {
@@ -323,70 +476,13 @@ public class Triangle {
         if (q == null || this.halfplane)
             throw new RuntimeException("*** ERR wrong parameters, can't approximate the z value ..***: " + q);
         /* incase the query point is on one of the points */
-        if (q.x == a.x & q.y == a.y) return a.z;
-        if (q.x == b.x & q.y == b.y) return b.z;
-        if (q.x == c.x & q.y == c.y) return c.z;
-
-        /*
-         *  plane: aX + bY + c = Z:
-         *  2D line: y= mX + k
-         *
-         */
-        float x = 0, x0 = q.x, x1 = a.x, x2 = b.x, x3 = c.x;
-        float y = 0, y0 = q.y, y1 = a.y, y2 = b.y, y3 = c.y;
-        float z = 0, m01 = 0, k01 = 0, m23 = 0, k23 = 0;
-
-        float r = 0;
-
-        // 0 - regular, 1-horizontal , 2-vertical.
-        int flag01 = 0;
-        if (x0 != x1) {
-            m01 = (y0 - y1) / (x0 - x1);
-            k01 = y0 - m01 * x0;
-            if (m01 == 0) {
-                flag01 = 1;
-            }
-        } else { // 2-vertical.
-            flag01 = 2;//x01 = x0
-        }
-        int flag23 = 0;
-        if (x2 != x3) {
-            m23 = (y2 - y3) / (x2 - x3);
-            k23 = y2 - m23 * x2;
-            if (m23 == 0) {
-                flag23 = 1;
-            }
-        } else { // 2-vertical.
-            flag23 = 2;//x01 = x0
-        }
-
-        if (flag01 == 2) {
-            x = x0;
-            y = m23 * x + k23;
-        } else {
-            if (flag23 == 2) {
-                x = x2;
-                y = m01 * x + k01;
-            } else {  // regular case
-                x = (k23 - k01) / (m01 - m23);
-                y = m01 * x + k01;
-
-            }
-        }
-        if (flag23 == 2) {
-            r = (y2 - y) / (y2 - y3);
-        } else {
-            r = (x2 - x) / (x2 - x3);
+        if (!Vector3d.isPrecise(q, a) && !Vector3d.isPrecise(b, c)) {
+            if (q.x == a.x & q.y == a.y) return a.z;
+            if (q.x == b.x & q.y == b.y) return b.z;
+            if (q.x == c.x & q.y == c.y) return c.z;
         }
 
-        z = b.z + (c.z - b.z) * r;
-        if (flag01 == 2) {
-            r = (y1 - y0) / (y1 - y);
-        } else {
-            r = (x1 - x0) / (x1 - x);
-        }
-        float qZ = a.z + (z - a.z) * r;
-        return qZ;
+        return (float) z(Vector3d.x(q), Vector3d.y(q));
     }
 
     /**
@@ -399,7 +495,57 @@ public class Triangle {
      * @return z (height) value approximation given by the triangle it falls in.
      */
     public double z(float x, float y) {
-        return z_value(new Vector3(x, y, 0));
+        return z((double) x, (double) y);
+    }
+
+    /**
+     * compute the Z value for the X,Y values in double precision, from the plane of this triangle.
+     *
+     * @param x x-coordinate of the query point.
+     * @param y y-coordinate of the query point.
+     * @return z (height) value of the plane at (x, y).
+     */
+    public double z(double x, double y) {
+        if (this.halfplane)
+            throw new RuntimeException("*** ERR wrong parameters, can't approximate the z value ..***: " + x + ", " + y);
+        plane();
+        return Vector3d.z(a) + planeX * (x - Vector3d.x(a)) + planeY * (y - Vector3d.y(a));
+    }
+
+    /**
+     * returns dz/dx on the plane of this triangle.
+     */
+    double slopeX() {
+        plane();
+        return planeX;
+    }
+
+    /**
+     * returns dz/dy on the plane of this triangle.
+     */
+    double slopeY() {
+        plane();
+        return planeY;
+    }
+
+    /**
+     * computes the slopes of the plane once per vertex change (flat if the triangle is degenerate).
+     */
+    private void plane() {
+        if (planeReady) {
+            return;
+        }
+        double ax = Vector3d.x(a), ay = Vector3d.y(a), az = Vector3d.z(a);
+        double ux = Vector3d.x(b) - ax, uy = Vector3d.y(b) - ay, uz = Vector3d.z(b) - az;
+        double vx = Vector3d.x(c) - ax, vy = Vector3d.y(c) - ay, vz = Vector3d.z(c) - az;
+        double nz = ux * vy - uy * vx;
+        if (nz == 0) {
+            planeX = planeY = 0;
+        } else {
+            planeX = -(uy * vz - uz * vy) / nz;
+            planeY = -(uz * vx - ux * vz) / nz;
+        }
+        planeReady = true;
     }
 
     /**
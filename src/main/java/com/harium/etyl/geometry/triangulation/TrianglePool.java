@@ -0,0 +1,82 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A resettable pool of triangles, to rebuild triangulations without generating garbage.
+ * <br>
+ * Every triangle handed out is kept by the pool, reset() makes all of them available again:
+ * the next triangulation built with this pool (see DelaunayTriangulation.setTrianglePool)
+ * reuses the triangles of the previous one. After a reset the triangles of the previous
+ * triangulation, including the ones returned by getTriangles(), must not be used anymore.
+ * <br>
+ * A pool must not be shared by triangulations that are alive at the same time.
+ */
+public class TrianglePool {
+
+    private final List<Triangle> triangles = new ArrayList<Triangle>();
+    private int used;
+
+    /**
+     * returns a triangle (a, b, c), recycled if possible.
+     */
+    Triangle triangle(Vector3 a, Vector3 b, Vector3 c) {
+        if (used < triangles.size()) {
+            Triangle t = triangles.get(used++);
+            t.set(a, b, c);
+            return t;
+        }
+        Triangle t = new Triangle(a, b, c);
+        triangles.add(t);
+        used++;
+        return t;
+    }
+
+    /**
+     * returns a half plane (a, b), recycled if possible.
+     */
+    Triangle halfplane(Vector3 a, Vector3 b) {
+        if (used < triangles.size()) {
+            Triangle t = triangles.get(used++);
+            t.setHalfplane(a, b);
+            return t;
+        }
+        Triangle t = new Triangle(a, b);
+        triangles.add(t);
+        used++;
+        return t;
+    }
+
+    /**
+     * makes every triangle of the pool available again.
+     */
+    public void reset() {
+        used = 0;
+    }
+
+    /**
+     * releases the triangles of the pool.
+     */
+    public void clear() {
+        triangles.clear();
+        used = 0;
+    }
+
+    /**
+     * returns the number of triangles handed out since the last reset.
+     */
+    public int size() {
+        return used;
+    }
+
+    /**
+     * returns the number of triangles kept by the pool.
+     */
+    public int capacity() {
+        return triangles.size();
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.harium.etyl.geometry.triangulation;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of triangles keyed by a double (smallest key first).
+ * Every entry can carry two ints (e.g. the modCounter of the triangle when it was pushed).
+ * The arrays are kept between uses, so a cleared queue does not allocate.
+ */
+class TriangleQueue {
+
+    private Triangle[] items;
+    private double[] keys;
+    private int[] stamps;
+    private int[] values;
+    private int size;
+
+    TriangleQueue() {
+        this(64);
+    }
+
+    TriangleQueue(int capacity) {
+        items = new Triangle[capacity];
+        keys = new double[capacity];
+        stamps = new int[capacity];
+        values = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+    }
+
+    void push(Triangle triangle, double key) {
+        push(triangle, key, 0, 0);
+    }
+
+    void push(Triangle triangle, double key, int stamp, int value) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            stamps = Arrays.copyOf(stamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        // Sift up
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        items[i] = triangle;
+        keys[i] = key;
+        stamps[i] = stamp;
+        values[i] = value;
+    }
+
+    /**
+     * returns the smallest key, the queue must not be empty.
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * returns the triangle with the smallest key, the queue must not be empty.
+     */
+    Triangle peek() {
+        return items[0];
+    }
+
+    /**
+     * returns the stamp of the entry with the smallest key, the queue must not be empty.
+     */
+    int peekStamp() {
+        return stamps[0];
+    }
+
+    /**
+     * returns the value of the entry with the smallest key, the queue must not be empty.
+     */
+    int peekValue() {
+        return values[0];
+    }
+
+    /**
+     * removes and returns the triangle with the smallest key.
+     */
+    Triangle pop() {
+        Triangle top = items[0];
+
+        size--;
+        Triangle last = items[size];
+        double key = keys[size];
+        int stamp = stamps[size];
+        int value = values[size];
+        items[size] = null;
+
+        // Sift down
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        if (size > 0) {
+            items[i] = last;
+            keys[i] = key;
+            stamps[i] = stamp;
+            values[i] = value;
+        }
+
+        return top;
+    }
+
+    private void move(int from, int to) {
+        items[to] = items[from];
+        keys[to] = keys[from];
+        stamps[to] = stamps[from];
+        values[to] = values[from];
+    }
+
+}
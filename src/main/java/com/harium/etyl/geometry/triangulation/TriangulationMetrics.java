@@ -0,0 +1,56 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Opt-in instrumentation of a triangulation (see BaseTriangulation.setMetrics).
+ * When no metrics are set the hot paths only pay a null check.
+ * <br>
+ * MetricsRecorder is a ready to use implementation.
+ */
+public interface TriangulationMetrics {
+
+    /**
+     * the construction phases reported by triangulate.
+     */
+    String PHASE_INSERT = "insert";
+    String PHASE_TRIANGLES = "triangles";
+
+    /**
+     * the degenerate cases handled while inserting a point.
+     */
+    enum Degeneracy {
+        // the point was inserted while all the points are collinear (insertColinear)
+        COLLINEAR,
+        // the point falls on an edge of the convex hull (treatDegeneracyInside)
+        ON_HULL_EDGE
+    }
+
+    /**
+     * called after each point location.
+     *
+     * @param steps the number of triangles crossed by the walk
+     */
+    void walk(int steps);
+
+    /**
+     * called after each inserted point.
+     *
+     * @param flips            the number of edge flips
+     * @param orientationTests the number of orientation tests of the point location
+     * @param inCircleTests    the number of in-circle tests
+     */
+    void insertion(int flips, int orientationTests, int inCircleTests);
+
+    /**
+     * called when an insertion takes a degenerate case branch.
+     */
+    void degeneracy(Degeneracy degeneracy);
+
+    /**
+     * called at the end of a construction phase.
+     *
+     * @param phase the phase name, see PHASE_INSERT and PHASE_TRIANGLES
+     * @param nanos the duration in nanoseconds
+     */
+    void phase(String phase, long nanos);
+
+}
@@ -0,0 +1,256 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The worker side of a DistributedTriangulation: triangulates the tiles sent by the coordinator,
+ * asking it for the points it needs.
+ * <br>
+ * Every message starts with its type (a byte), then big endian values (see DataOutput): <br>
+ * TILE (coordinator): grid minX minY maxX maxY (double), columns rows column row (int), margin (double),
+ * precise (boolean) <br>
+ * FETCH (worker): the extended cell x0 y0 x1 y1 (double) <br>
+ * QUERIES (worker): the extended cell, the number of circles and x y r2 per circle, the number of half
+ * planes and ax ay dx dy per half plane (see TileBuilder) <br>
+ * POINTS (coordinator): the number of points and index (int) x y z (double) per point <br>
+ * RESULT (worker): the number of triangles and 3 point indices per triangle <br>
+ * ERROR (worker): a message (UTF) <br>
+ * CLOSE (coordinator): the end of the session <br>
+ * <br>
+ * A worker runs in its own JVM (main, on the standard streams or on a port) or in a thread
+ * (see WorkerConnection). The counts read from the coordinator are checked before anything is
+ * allocated, a malformed message ends the session with an IOException.
+ */
+public class TriangulationWorker {
+
+    static final int TILE = 1;
+    static final int FETCH = 2;
+    static final int QUERIES = 3;
+    static final int POINTS = 4;
+    static final int RESULT = 5;
+    static final int CLOSE = 6;
+    static final int ERROR = 7;
+
+    // the largest list allocated before its elements are read
+    private static final int MAX_RESERVE = 1 << 16;
+
+    /**
+     * serves the tiles of a coordinator until it closes the session.
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+
+        while (true) {
+            int type = input.read();
+            if (type == -1 || type == CLOSE) {
+                return;
+            }
+            if (type != TILE) {
+                throw new IOException("Unexpected message: " + type);
+            }
+
+            double minX = input.readDouble(), minY = input.readDouble(), maxX = input.readDouble(), maxY = input.readDouble();
+            int columns = input.readInt(), rows = input.readInt(), column = input.readInt(), row = input.readInt();
+            double margin = input.readDouble();
+            boolean precise = input.readBoolean();
+            if (columns < 1 || rows < 1 || column < 0 || column >= columns || row < 0 || row >= rows || !(margin >= 0)) {
+                throw new IOException("Invalid tile: (" + column + "," + row + ") of " + columns + "x" + rows);
+            }
+            TileBuilder tile = new TileBuilder(minX, minY, maxX, maxY, columns, rows, column, row, margin);
+
+            try {
+                tile.build(new RemoteSource(input, output, precise));
+            } catch (RemoteException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                output.write(ERROR);
+                output.writeUTF(String.valueOf(e));
+                output.flush();
+                continue;
+            }
+
+            List<Triangle> owned = tile.getOwned();
+            output.write(RESULT);
+            output.writeInt(owned.size());
+            for (Triangle t : owned) {
+                output.writeInt(IndexedVector3.indexOf(t.a));
+                output.writeInt(IndexedVector3.indexOf(t.b));
+                output.writeInt(IndexedVector3.indexOf(t.c));
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * runs a worker on the standard streams, or on a port with "--port n" (one session per connection).
+     * The port is bound to the loopback interface, "--bind address" exposes it on another one: the
+     * sessions are not authenticated.
+     */
+    public static void main(String[] args) throws IOException {
+        // The standard output carries the protocol, the messages of the library go to the error output
+        OutputStream out = new FileOutputStream(FileDescriptor.out);
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+
+        int port = -1;
+        InetAddress address = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--bind".equals(args[i]) && i + 1 < args.length) {
+                address = InetAddress.getByName(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Usage: TriangulationWorker [--port n [--bind address]]");
+            }
+        }
+
+        if (port >= 0) {
+            ServerSocket server = new ServerSocket(port, 50, address);
+            try {
+                while (true) {
+                    serve(server.accept());
+                }
+            } finally {
+                server.close();
+            }
+        }
+        new TriangulationWorker().serve(System.in, out);
+    }
+
+    /**
+     * serves a connection in its own thread.
+     */
+    static void serve(final Socket socket) {
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    new TriangulationWorker().serve(socket.getInputStream(), socket.getOutputStream());
+                } catch (IOException e) {
+                    System.err.println("Worker session failed: " + e);
+                } finally {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        }, "triangulation-worker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The points of a tile, asked to the coordinator.
+     */
+    private static class RemoteSource implements TileBuilder.Source {
+
+        private final DataInputStream input;
+        private final DataOutputStream output;
+        private final boolean precise;
+
+        RemoteSource(DataInputStream input, DataOutputStream output, boolean precise) {
+            this.input = input;
+            this.output = output;
+            this.precise = precise;
+        }
+
+        public void fetch(TileBuilder tile) {
+            try {
+                output.write(FETCH);
+                writeBox(tile);
+                output.flush();
+                tile.insert(readPoints());
+            } catch (IOException e) {
+                throw new RemoteException(e);
+            }
+        }
+
+        public int resolve(TileBuilder tile) {
+            try {
+                output.write(QUERIES);
+                writeBox(tile);
+                output.writeInt(tile.circleCount);
+                for (int k = 0; k < 3 * tile.circleCount; k++) {
+                    output.writeDouble(tile.circles[k]);
+                }
+                output.writeInt(tile.halfplaneCount);
+                for (int k = 0; k < 4 * tile.halfplaneCount; k++) {
+                    output.writeDouble(tile.halfplanes[k]);
+                }
+                output.flush();
+
+                List<Vector3> points = readPoints();
+                tile.insert(points);
+                return points.size();
+            } catch (IOException e) {
+                throw new RemoteException(e);
+            }
+        }
+
+        private void writeBox(TileBuilder tile) throws IOException {
+            output.writeDouble(tile.x0());
+            output.writeDouble(tile.y0());
+            output.writeDouble(tile.x1());
+            output.writeDouble(tile.y1());
+        }
+
+        private List<Vector3> readPoints() throws IOException {
+            int type = input.read();
+            if (type != POINTS) {
+                throw type == -1 ? new EOFException() : new IOException("Unexpected message: " + type);
+            }
+            int count = input.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid point count: " + count);
+            }
+            // Grown as the points arrive, a wrong count fails on the end of the stream
+            List<Vector3> points = new ArrayList<Vector3>(Math.min(count, MAX_RESERVE));
+            for (int k = 0; k < count; k++) {
+                int index = input.readInt();
+                if (index < 0) {
+                    throw new IOException("Invalid point index: " + index);
+                }
+                double x = input.readDouble(), y = input.readDouble(), z = input.readDouble();
+                if (precise) {
+                    points.add(new IndexedVector3.Precise(x, y, z, index));
+                } else {
+                    points.add(new IndexedVector3((float) x, (float) y, (float) z, index));
+                }
+            }
+            return points;
+        }
+    }
+
+    /**
+     * An I/O failure inside TileBuilder.build.
+     */
+    private static class RemoteException extends RuntimeException {
+
+        RemoteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * A vertex with double precision coordinates, for extents that do not fit in a float
+ * (e.g. projected UTM coordinates, ~10^6 m, with centimeter precision).
+ * <br>
+ * The float fields hold the rounded coordinates, so the rest of the API keeps working, while the
+ * predicates of the triangulation (PointLineTest, PointComparator, circumcircle and z value)
+ * use the double ones whenever a Vector3d is involved. A triangulation built from Vector3d vertices
+ * (see DelaunayTriangulation.insertPoint(double, double, double)) runs in double precision.
+ * <br>
+ * The coordinates are final: do not change the float fields of an inserted vertex.
+ */
+public class Vector3d extends Vector3 {
+
+    public final double xd, yd, zd;
+
+    public Vector3d(double x, double y, double z) {
+        super((float) x, (float) y, (float) z);
+        this.xd = x;
+        this.yd = y;
+        this.zd = z;
+    }
+
+    /**
+     * returns the x coordinate of p in double precision.
+     */
+    public static double x(Vector3 p) {
+        return p instanceof Vector3d ? ((Vector3d) p).xd : p.x;
+    }
+
+    /**
+     * returns the y coordinate of p in double precision.
+     */
+    public static double y(Vector3 p) {
+        return p instanceof Vector3d ? ((Vector3d) p).yd : p.y;
+    }
+
+    /**
+     * returns the z coordinate of p in double precision.
+     */
+    public static double z(Vector3 p) {
+        return p instanceof Vector3d ? ((Vector3d) p).zd : p.z;
+    }
+
+    static boolean isPrecise(Vector3 a, Vector3 b) {
+        return a instanceof Vector3d || b instanceof Vector3d;
+    }
+
+    static boolean isPrecise(Vector3 a, Vector3 b, Vector3 c) {
+        return a instanceof Vector3d || b instanceof Vector3d || c instanceof Vector3d;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Vector3d other = (Vector3d) obj;
+        return Double.doubleToLongBits(xd) == Double.doubleToLongBits(other.xd) &&
+                Double.doubleToLongBits(yd) == Double.doubleToLongBits(other.yd) &&
+                Double.doubleToLongBits(zd) == Double.doubleToLongBits(other.zd);
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(xd);
+        bits = 31 * bits + Double.doubleToLongBits(yd);
+        bits = 31 * bits + Double.doubleToLongBits(zd);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "(" + xd + "," + yd + "," + zd + ")";
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.harium.etyl.geometry.triangulation;
+
+/**
+ * Vector API kernels of BatchPredicates.
+ * <br>
+ * This is the version for JVMs older than 17, it is never enabled. The multi-release jar replaces
+ * it on Java 17+ (see src/main/java17).
+ */
+final class VectorSupport {
+
+    // not a constant, so it is not inlined in BatchPredicates
+    static final boolean ENABLED = isEnabled();
+
+    private VectorSupport() {
+    }
+
+    private static boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * evaluates a prefix of the batch, returns the index of the first point left to the scalar loop.
+     */
+    static int orientation(double ax, double ay, double bx, double by,
+                           double[] x, double[] y, double[] result, int offset, int count) {
+        return offset;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+
+/**
+ * N float attributes per vertex of a triangulation (intensity, color, ...), in one primitive array,
+ * and their barycentric interpolation inside the triangles.
+ * <br>
+ * The attributes of a triangulation built from primitive arrays (see BaseTriangulation.triangulate(float[], int, int))
+ * follow the input order, the vertices know their row. Otherwise the vertices are indexed once in the
+ * PointComparator order (see indexOf), and a corner is found with a binary search. No map or boxing is
+ * involved either way.
+ * <br>
+ * The triangulation must not change while it is sampled.
+ */
+public class VertexAttributes {
+
+    private final DelaunayTriangulation triangulation;
+    private final int channels;
+    private final float[] values;
+
+    // null if the vertices are indexed by the input order
+    private final VertexIndex index;
+
+    /**
+     * attributes of a triangulation built from primitive arrays.
+     *
+     * @param channels the number of attributes per vertex
+     * @param values   the attributes of the input points, channels values per point, in the input order
+     */
+    public VertexAttributes(DelaunayTriangulation triangulation, int channels, float[] values) {
+        if (channels < 1) {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+        if (values.length % channels != 0) {
+            throw new IllegalArgumentException("The values are not a multiple of " + channels + " channels");
+        }
+        this.triangulation = triangulation;
+        this.channels = channels;
+        this.values = values;
+        this.index = null;
+    }
+
+    /**
+     * attributes of the current vertices of a triangulation, all 0 (see set).
+     *
+     * @param channels the number of attributes per vertex
+     */
+    public VertexAttributes(DelaunayTriangulation triangulation, int channels) {
+        if (channels < 1) {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+        this.triangulation = triangulation;
+        this.channels = channels;
+        this.index = new VertexIndex(triangulation);
+        this.values = new float[index.size() * channels];
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * returns the attributes, channels values per vertex (see indexOf).
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    /**
+     * returns the row of the attributes of a vertex, -1 if it is not a vertex of the triangulation.
+     */
+    public int indexOf(Vector3 vertex) {
+        if (index != null) {
+            return index.indexOf(vertex);
+        }
+        if (vertex instanceof IndexedVector3 || vertex instanceof IndexedVector3.Precise) {
+            return IndexedVector3.indexOf(vertex);
+        }
+        return -1;
+    }
+
+    /**
+     * sets the attributes of a vertex.
+     *
+     * @param values channels values
+     */
+    public void set(Vector3 vertex, float... values) {
+        int i = indexOf(vertex);
+        if (i < 0) {
+            throw new IllegalArgumentException("Not a vertex of the triangulation: " + vertex);
+        }
+        System.arraycopy(values, 0, this.values, i * channels, channels);
+    }
+
+    /**
+     * interpolates all the channels at (x, y).
+     *
+     * @param out    receives channels values at offset
+     * @return false if (x, y) is outside the convex hull (out is not changed)
+     */
+    public boolean interpolate(double x, double y, float[] out, int offset) {
+        Triangle t = triangulation.find(x, y);
+        return t != null && interpolate(t, x, y, out, offset);
+    }
+
+    /**
+     * interpolates all the channels at count points, the location walks on from the previous point
+     * (sorted or coherent points take a few steps).
+     *
+     * @param xy  x, y per point
+     * @param out receives channels values per point, NaN outside the convex hull
+     * @return the number of points inside the convex hull
+     */
+    public int interpolate(double[] xy, int count, float[] out) {
+        int inside = 0;
+        Triangle t = null;
+        for (int i = 0; i < count; i++) {
+            double x = xy[2 * i], y = xy[2 * i + 1];
+            t = triangulation.find(t, x, y);
+            if (t != null && interpolate(t, x, y, out, i * channels)) {
+                inside++;
+            } else {
+                Arrays.fill(out, i * channels, (i + 1) * channels, Float.NaN);
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * interpolates all the channels at the centers of the cells of a raster, row by row (snake order,
+     * so every walk starts next to the previous cell).
+     *
+     * @param minX     x of the corner of the first cell
+     * @param minY     y of the corner of the first cell
+     * @param cellSize the size of the cells
+     * @param out      receives channels values per cell (row major), NaN outside the convex hull
+     * @return the number of cells inside the convex hull
+     */
+    public int rasterize(double minX, double minY, double cellSize, int columns, int rows, float[] out) {
+        int inside = 0;
+        Triangle t = null;
+        for (int row = 0; row < rows; row++) {
+            double y = minY + (row + 0.5) * cellSize;
+            for (int k = 0; k < columns; k++) {
+                int column = row % 2 == 0 ? k : columns - 1 - k;
+                double x = minX + (column + 0.5) * cellSize;
+                int offset = (row * columns + column) * channels;
+                t = triangulation.find(t, x, y);
+                if (t != null && interpolate(t, x, y, out, offset)) {
+                    inside++;
+                } else {
+                    Arrays.fill(out, offset, offset + channels, Float.NaN);
+                }
+            }
+        }
+        return inside;
+    }
+
+    private boolean interpolate(Triangle t, double x, double y, float[] out, int offset) {
+        if (t.halfplane) {
+            return false;
+        }
+
+        // Barycentric coordinates, relative to c
+        double cx = Vector3d.x(t.c), cy = Vector3d.y(t.c);
+        double ax = Vector3d.x(t.a) - cx, ay = Vector3d.y(t.a) - cy;
+        double bx = Vector3d.x(t.b) - cx, by = Vector3d.y(t.b) - cy;
+        double px = x - cx, py = y - cy;
+        double d = ax * by - ay * bx;
+        double wa = 1, wb = 0;
+        if (d != 0) {
+            wa = (px * by - py * bx) / d;
+            wb = (ax * py - ay * px) / d;
+        }
+        double wc = 1 - wa - wb;
+
+        int ia = row(t.a), ib = row(t.b), ic = row(t.c);
+        for (int k = 0; k < channels; k++) {
+            out[offset + k] = (float) (wa * values[ia + k] + wb * values[ib + k] + wc * values[ic + k]);
+        }
+        return true;
+    }
+
+    private int row(Vector3 vertex) {
+        int i = indexOf(vertex);
+        if (i < 0) {
+            throw new IllegalStateException("Not a vertex of the triangulation: " + vertex);
+        }
+        return i * channels;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Iterator;
+
+/**
+ * Dense index of the vertices of a triangulation, in the PointComparator order.
+ * The index of a vertex is found in an identity hash table over primitive arrays
+ * (no boxing), in constant time: exporting T triangles is one linear pass. Points
+ * that are not the vertex instances fall back to a binary search on the sorted vertices.
+ */
+class VertexIndex {
+
+    private final Vector3[] vertices;
+
+    // open addressing with linear probing, the vertex and its index per slot
+    private final Vector3[] keys;
+    private final int[] indices;
+    private final int mask;
+
+    VertexIndex(DelaunayTriangulation triangulation) {
+        vertices = new Vector3[triangulation.size()];
+
+        int i = 0;
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            vertices[i++] = it.next();
+        }
+
+        // At most half full
+        int capacity = Integer.highestOneBit(Math.max(1, vertices.length) * 2 - 1) * 2;
+        keys = new Vector3[capacity];
+        indices = new int[capacity];
+        mask = capacity - 1;
+        for (i = 0; i < vertices.length; i++) {
+            int h = slot(vertices[i]);
+            while (keys[h] != null) {
+                h = (h + 1) & mask;
+            }
+            keys[h] = vertices[i];
+            indices[h] = i;
+        }
+    }
+
+    /**
+     * returns the number of indexed vertices.
+     */
+    int size() {
+        return vertices.length;
+    }
+
+    /**
+     * returns the vertex at the given index.
+     */
+    Vector3 get(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * @param p a vertex of the triangulation
+     * @return the index of p or -1 if p is not a vertex
+     */
+    int indexOf(Vector3 p) {
+        for (int h = slot(p); keys[h] != null; h = (h + 1) & mask) {
+            if (keys[h] == p) {
+                return indices[h];
+            }
+        }
+        return search(p);
+    }
+
+    private int slot(Vector3 p) {
+        int h = System.identityHashCode(p);
+        return (h ^ h >>> 16) & mask;
+    }
+
+    private int search(Vector3 p) {
+        int low = 0;
+        int high = vertices.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Vector3 v = vertices[mid];
+
+            if (PointComparator.isLess(v, p)) {
+                low = mid + 1;
+            } else if (PointComparator.isGreater(v, p)) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+}
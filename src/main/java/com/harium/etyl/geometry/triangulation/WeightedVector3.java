@@ -0,0 +1,49 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * A weighted vertex, for regular (weighted Delaunay) triangulations and power diagrams,
+ * e.g. particles with the squared radius as weight.
+ * <br>
+ * The empty circumcircle of the Delaunay test becomes the orthogonal circle of the triangle:
+ * a point p is in conflict with a triangle if its power distance to the orthocenter
+ * (squared distance minus the weight of p) is lower than the squared orthoradius.
+ * Vertices without weight count as weight 0. The triangulation runs in double precision (see Vector3d).
+ * <br>
+ * A weighted point with no cell in the power diagram (redundant) is not inserted, and vertices
+ * that become redundant when a heavier point is inserted are removed from the triangulation.
+ */
+public class WeightedVector3 extends Vector3d {
+
+    public final double weight;
+
+    public WeightedVector3(double x, double y, double z, double weight) {
+        super(x, y, z);
+        this.weight = weight;
+    }
+
+    /**
+     * returns the weight of p, 0 if p is not weighted.
+     */
+    public static double weight(Vector3 p) {
+        return p instanceof WeightedVector3 ? ((WeightedVector3) p).weight : 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && Double.doubleToLongBits(weight) == Double.doubleToLongBits(((WeightedVector3) obj).weight);
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(weight);
+        return 31 * super.hashCode() + (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "(" + xd + "," + yd + "," + zd + ";" + weight + ")";
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.harium.etyl.geometry.triangulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * A connection from the coordinator of a DistributedTriangulation to a TriangulationWorker:
+ * a thread of this JVM, a local JVM or a remote worker listening on a port.
+ * <br>
+ * A connection is used by one triangulation at a time.
+ */
+public class WorkerConnection implements Closeable {
+
+    final DataInputStream input;
+    final DataOutputStream output;
+
+    private final Socket socket;
+    private final Process process;
+
+    private WorkerConnection(InputStream in, OutputStream out, Socket socket, Process process) {
+        this.input = new DataInputStream(new BufferedInputStream(in));
+        this.output = new DataOutputStream(new BufferedOutputStream(out));
+        this.socket = socket;
+        this.process = process;
+    }
+
+    /**
+     * connects to a worker listening on a port (see TriangulationWorker.main).
+     */
+    public static WorkerConnection connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        return new WorkerConnection(socket.getInputStream(), socket.getOutputStream(), socket, null);
+    }
+
+    /**
+     * starts a worker in a thread of this JVM, connected through the loopback interface.
+     */
+    public static WorkerConnection inProcess() throws IOException {
+        ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        try {
+            WorkerConnection connection = connect(server.getInetAddress().getHostAddress(), server.getLocalPort());
+            Socket socket = server.accept();
+            socket.setTcpNoDelay(true);
+            TriangulationWorker.serve(socket);
+            return connection;
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * starts a worker in a new JVM, with the class path of this one, on its standard streams.
+     */
+    public static WorkerConnection localProcess() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TriangulationWorker.class.getName());
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        return new WorkerConnection(process.getInputStream(), process.getOutputStream(), null, process);
+    }
+
+    /**
+     * ends the session, the worker thread or process stops.
+     */
+    public void close() throws IOException {
+        try {
+            output.write(TriangulationWorker.CLOSE);
+            output.flush();
+        } finally {
+            output.close();
+            input.close();
+            if (socket != null) {
+                socket.close();
+            }
+            if (process != null) {
+                try {
+                    process.waitFor();
+                } catch (InterruptedException e) {
+                    process.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+}
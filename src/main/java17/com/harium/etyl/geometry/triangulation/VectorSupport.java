@@ -0,0 +1,54 @@
+package com.harium.etyl.geometry.triangulation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels of BatchPredicates, Java 17+ version (META-INF/versions/17 of the multi-release jar).
+ * <br>
+ * Enabled when the jdk.incubator.vector module is in the boot layer. The kernels live in a nested class,
+ * so nothing of the incubator module is loaded when it is missing.
+ */
+final class VectorSupport {
+
+    static final boolean ENABLED = isEnabled();
+
+    private VectorSupport() {
+    }
+
+    private static boolean isEnabled() {
+        if (!Boolean.parseBoolean(System.getProperty("com.harium.etyl.geometry.triangulation.vector", "true"))) {
+            return false;
+        }
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * evaluates a prefix of the batch, returns the index of the first point left to the scalar loop.
+     */
+    static int orientation(double ax, double ay, double bx, double by,
+                           double[] x, double[] y, double[] result, int offset, int count) {
+        return Kernels.orientation(ax, ay, bx, by, x, y, result, offset, count);
+    }
+
+    private static final class Kernels {
+
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+        static int orientation(double ax, double ay, double bx, double by,
+                               double[] x, double[] y, double[] result, int offset, int count) {
+            double dx = bx - ax, dy = by - ay;
+
+            int i = offset;
+            for (int end = offset + SPECIES.loopBound(count); i < end; i += SPECIES.length()) {
+                DoubleVector px = DoubleVector.fromArray(SPECIES, x, i);
+                DoubleVector py = DoubleVector.fromArray(SPECIES, y, i);
+
+                // Same operations as the scalar loop: dx * (py - ay) - dy * (px - ax)
+                py.sub(ay).mul(dx).sub(px.sub(ax).mul(dy)).intoArray(result, i);
+            }
+            return i;
+        }
+    }
+
+}
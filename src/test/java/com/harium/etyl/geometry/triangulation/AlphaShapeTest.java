@@ -0,0 +1,94 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AlphaShapeTest {
+
+    @Test
+    public void testHole() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int y = 0; y <= 10; y++) {
+            for (int x = 0; x <= 10; x++) {
+                // A 4 x 4 hole in the middle
+                if (x > 3 && x < 7 && y > 3 && y < 7) continue;
+                triangulation.insertPoint(new Vector3(x, y, 0));
+            }
+        }
+
+        List<float[]> rings = new ArrayList<float[]>();
+        List<Boolean> holes = new ArrayList<Boolean>();
+        // Every grid cell has a circumradius of sqrt(2) / 2
+        Assert.assertEquals(2, new AlphaShape().extract(triangulation, 1, collect(rings, holes)));
+
+        float[] outer = holes.get(0) ? rings.get(1) : rings.get(0);
+        float[] hole = holes.get(0) ? rings.get(0) : rings.get(1);
+        Assert.assertEquals(40 * 2, outer.length);
+        // The corner triangles of the hole are as small as the grid cells, the hole is an octagon
+        Assert.assertEquals(12 * 2, hole.length);
+        Assert.assertEquals(100, area(outer), 0.0001f);
+        Assert.assertEquals(-14, area(hole), 0.0001f);
+
+        for (int i = 0; i < hole.length; i++) {
+            Assert.assertTrue(hole[i] >= 3 && hole[i] <= 7);
+        }
+    }
+
+    @Test
+    public void testSweep() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        // Two clusters, 20 units apart
+        for (int y = 0; y <= 4; y++) {
+            for (int x = 0; x <= 4; x++) {
+                triangulation.insertPoint(new Vector3(x, y, 0));
+                triangulation.insertPoint(new Vector3(x + 24, y, 0));
+            }
+        }
+
+        List<float[]> rings = new ArrayList<float[]>();
+        List<Boolean> holes = new ArrayList<Boolean>();
+        final List<Float> alphas = new ArrayList<Float>();
+        final AlphaShapeSink sink = collect(rings, holes);
+        int count = new AlphaShape().extract(triangulation, new float[]{0.5f, 1, 1000}, new AlphaShapeSink() {
+            public void ring(float alpha, float[] xy, int count, boolean hole) {
+                alphas.add(alpha);
+                sink.ring(alpha, xy, count, hole);
+            }
+        });
+
+        // Nothing, the two clusters, the convex hull
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(Arrays.asList(1f, 1f, 1000f), alphas);
+        Assert.assertEquals(16, area(rings.get(0)), 0.0001f);
+        Assert.assertEquals(16, area(rings.get(1)), 0.0001f);
+        Assert.assertEquals(28 * 4, area(rings.get(2)), 0.0001f);
+        Assert.assertFalse(holes.contains(true));
+
+        // The same triangulation can be queried again
+        Assert.assertEquals(2, new AlphaShape().extract(triangulation, 1, collect(rings, holes)));
+    }
+
+    private static AlphaShapeSink collect(final List<float[]> rings, final List<Boolean> holes) {
+        return new AlphaShapeSink() {
+            public void ring(float alpha, float[] xy, int count, boolean hole) {
+                rings.add(Arrays.copyOf(xy, count * 2));
+                holes.add(hole);
+            }
+        };
+    }
+
+    private static float area(float[] xy) {
+        float area = 0;
+        int n = xy.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            area += xy[2 * j] * xy[2 * i + 1] - xy[2 * i] * xy[2 * j + 1];
+        }
+        return area / 2;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Random;
+
+public class BatchPredicatesTest {
+
+    @Test
+    public void testOrientation() {
+        double[] x = {0, 1, 2, 3, 0.5, 5, 4, -1, 2, 7, 1};
+        double[] y = {1, 0, -1, 0, 2, 5, 4, 3, 0, -2, 1};
+        double[] result = new double[x.length];
+
+        // Edge (0, 0) -> (4, 4), skipping the first point
+        BatchPredicates.orientation(0, 0, 4, 4, x, y, result, 1, x.length - 1);
+
+        Assert.assertEquals(0, result[0], 0);
+        for (int i = 1; i < x.length; i++) {
+            PointLinePosition position = PointLineTest.pointLineTest(new Vector3(0, 0, 0), new Vector3(4, 4, 0),
+                    new Vector3((float) x[i], (float) y[i], 0));
+            if (result[i] > 0) {
+                Assert.assertEquals(PointLinePosition.LEFT, position);
+            } else if (result[i] < 0) {
+                Assert.assertEquals(PointLinePosition.RIGHT, position);
+            } else {
+                Assert.assertNotEquals(PointLinePosition.LEFT, position);
+                Assert.assertNotEquals(PointLinePosition.RIGHT, position);
+            }
+        }
+    }
+
+    /**
+     * runs the Java 17 kernels (META-INF/versions/17 of the build) against the scalar loop, the java17
+     * profile runs the tests with the jdk.incubator.vector module.
+     */
+    @Test
+    public void testVectorized() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("com.harium.etyl.geometry.triangulation.vectorTest"));
+
+        // The versioned classes first, as in the multi-release jar
+        URL classes = BatchPredicates.class.getProtectionDomain().getCodeSource().getLocation();
+        URL versioned = new URL(classes, "META-INF/versions/17/");
+        URLClassLoader loader = new URLClassLoader(new URL[]{versioned, classes}, ClassLoader.getSystemClassLoader().getParent());
+        try {
+            Class<?> vector = loader.loadClass(BatchPredicates.class.getName());
+            Assert.assertEquals(Boolean.TRUE, vector.getMethod("isVectorized").invoke(null));
+            Assert.assertFalse(BatchPredicates.isVectorized());
+
+            Method orientation = vector.getMethod("orientation", double.class, double.class, double.class, double.class,
+                    double[].class, double[].class, double[].class, int.class, int.class);
+
+            Random random = new Random(11);
+            for (int count : new int[]{0, 1, 3, 8, 17, 1000}) {
+                for (int offset : new int[]{0, 1, 5}) {
+                    int length = offset + count + 2;
+                    double[] x = new double[length], y = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        x[i] = random.nextDouble() * 2e6 - 1e6;
+                        y[i] = random.nextDouble() * 2e6 - 1e6;
+                    }
+                    double ax = random.nextDouble(), ay = random.nextDouble();
+                    double bx = random.nextDouble() * 1e3, by = random.nextDouble() * 1e3;
+
+                    double[] expected = new double[length], result = new double[length];
+                    BatchPredicates.orientation(ax, ay, bx, by, x, y, expected, offset, count);
+                    orientation.invoke(null, ax, ay, bx, by, x, y, result, offset, count);
+                    Assert.assertArrayEquals(expected, result, 0);
+                }
+            }
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBounds() {
+        double[] x = new double[4];
+        BatchPredicates.orientation(0, 0, 1, 1, x, x, new double[3], 0, 4);
+    }
+
+}
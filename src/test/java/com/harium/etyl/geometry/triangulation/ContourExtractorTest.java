@@ -0,0 +1,97 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ContourExtractorTest {
+
+    @Test
+    public void testOpenContour() {
+        DelaunayTriangulation triangulation = grid(0, 10, new Surface() {
+            public float z(float x, float y) {
+                return x;
+            }
+        });
+
+        List<float[]> polylines = new ArrayList<float[]>();
+        List<Boolean> closed = new ArrayList<Boolean>();
+        new ContourExtractor().extract(triangulation, new float[]{5, 2.5f}, collect(polylines, closed));
+
+        Assert.assertEquals(2, polylines.size());
+        for (int i = 0; i < polylines.size(); i++) {
+            float[] xy = polylines.get(i);
+            float level = i == 0 ? 2.5f : 5;
+            Assert.assertFalse(closed.get(i));
+
+            // From one side of the hull to the other
+            Assert.assertEquals(0, Math.min(xy[1], xy[xy.length - 1]), 0.0001f);
+            Assert.assertEquals(10, Math.max(xy[1], xy[xy.length - 1]), 0.0001f);
+            for (int j = 0; j < xy.length; j += 2) {
+                Assert.assertEquals(level, xy[j], 0.0001f);
+            }
+            // Higher ground (x > level) on the left: walking towards -y
+            Assert.assertTrue(xy[1] > xy[xy.length - 1]);
+        }
+    }
+
+    @Test
+    public void testClosedContour() {
+        DelaunayTriangulation triangulation = grid(-10, 10, new Surface() {
+            public float z(float x, float y) {
+                return x * x + y * y;
+            }
+        });
+
+        List<float[]> polylines = new ArrayList<float[]>();
+        List<Boolean> closed = new ArrayList<Boolean>();
+        int count = new ContourExtractor().extract(triangulation, 25, collect(polylines, closed));
+
+        // Levels 25, 50, 75 and 100 are circles, the higher levels are cut by the hull
+        Assert.assertEquals(count, polylines.size());
+        Assert.assertEquals(4 + 4 * 4, count);
+
+        float[] xy = polylines.get(0);
+        Assert.assertTrue(closed.get(0));
+
+        double area = 0;
+        int n = xy.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            Assert.assertEquals(5, Math.hypot(xy[2 * i], xy[2 * i + 1]), 0.2);
+            area += xy[2 * j] * xy[2 * i + 1] - xy[2 * i] * xy[2 * j + 1];
+        }
+        // Clockwise, the higher ground is outside
+        Assert.assertTrue(area < 0);
+    }
+
+    private static ContourSink collect(final List<float[]> polylines, final List<Boolean> closed) {
+        return new ContourSink() {
+            public void contour(float level, float[] xy, int count, boolean isClosed) {
+                float[] copy = new float[count * 2];
+                System.arraycopy(xy, 0, copy, 0, copy.length);
+                polylines.add(copy);
+                closed.add(isClosed);
+            }
+        };
+    }
+
+    private interface Surface {
+        float z(float x, float y);
+    }
+
+    private static DelaunayTriangulation grid(int min, int max, Surface surface) {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int y = min; y <= max; y++) {
+            for (int x = min; x <= max; x++) {
+                // Small offsets avoid cocircular points
+                float px = x + (y % 2) * 0.01f;
+                triangulation.insertPoint(new Vector3(px, y, surface.z(px, y)));
+            }
+        }
+        return triangulation;
+    }
+
+}
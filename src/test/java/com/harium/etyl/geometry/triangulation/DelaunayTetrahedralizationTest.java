@@ -0,0 +1,261 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class DelaunayTetrahedralizationTest {
+
+    @Test
+    public void testRandomPoints() {
+        Random random = new Random(5);
+        List<Vector3> points = new ArrayList<Vector3>();
+        // The corners of the unit cube, so the hull volume is 1
+        for (int i = 0; i < 8; i++) {
+            points.add(new Vector3(i & 1, (i >> 1) & 1, (i >> 2) & 1));
+        }
+        for (int i = 0; i < 400; i++) {
+            points.add(new Vector3(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+        }
+        // Duplicates are ignored
+        points.add(new Vector3(points.get(20)));
+
+        DelaunayTetrahedralization tetrahedralization = new DelaunayTetrahedralization();
+        int count = tetrahedralization.tetrahedralize(points);
+        Assert.assertEquals(count, tetrahedralization.getTetrahedronCount());
+
+        assertValid(tetrahedralization, points, 1);
+        assertEmptySpheres(tetrahedralization, points);
+        assertAllVertices(tetrahedralization, points);
+
+        int[] tetrahedra = tetrahedralization.getTetrahedra();
+        for (int i = 0; i < 100; i++) {
+            double x = random.nextDouble(), y = random.nextDouble(), z = random.nextDouble();
+            int t = tetrahedralization.locate(x, y, z);
+            Assert.assertTrue(t >= 0);
+            for (int f = 0; f < 4; f++) {
+                // Replacing any corner by the point keeps the orientation
+                Assert.assertTrue(volume(points, tetrahedra, t, f, x, y, z) >= -1e-9);
+            }
+        }
+        Assert.assertEquals(-1, tetrahedralization.locate(2, 0.5, 0.5));
+    }
+
+    @Test
+    public void testGrid() {
+        // Cospherical points everywhere
+        float[] xyz = new float[5 * 5 * 5 * 3];
+        List<Vector3> points = new ArrayList<Vector3>();
+        int k = 0;
+        for (int z = 0; z < 5; z++) {
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < 5; x++) {
+                    xyz[k++] = x;
+                    xyz[k++] = y;
+                    xyz[k++] = z;
+                    points.add(new Vector3(x, y, z));
+                }
+            }
+        }
+
+        DelaunayTetrahedralization tetrahedralization = new DelaunayTetrahedralization();
+        tetrahedralization.tetrahedralize(xyz, 0, points.size());
+
+        assertValid(tetrahedralization, points, 64);
+        assertEmptySpheres(tetrahedralization, points);
+        assertAllVertices(tetrahedralization, points);
+    }
+
+    @Test(timeout = 10000)
+    public void testRoundedGrid() {
+        // 0.1 is not exact, rounding breaks the cospherical and collinear points in any direction
+        Random random = new Random(21);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                for (int z = 0; z < 8; z++) {
+                    if (random.nextInt(3) > 0) {
+                        points.add(new Vector3(x * 0.1f, y * 0.1f, z * 0.1f));
+                    }
+                }
+            }
+        }
+        Collections.shuffle(points, random);
+
+        DelaunayTetrahedralization tetrahedralization = new DelaunayTetrahedralization();
+        tetrahedralization.tetrahedralize(points);
+
+        assertValid(tetrahedralization, points, -1);
+        assertAllVertices(tetrahedralization, points);
+    }
+
+    @Test(timeout = 10000)
+    public void testSphereDuplicates() {
+        // A 45 degree latitude/longitude grid on the unit sphere: cospherical and coplanar points,
+        // repeated exactly or one ulp apart
+        List<double[]> grid = new ArrayList<double[]>();
+        for (int lat = -90; lat <= 90; lat += 45) {
+            for (int lon = 0; lon < 360; lon += 45) {
+                if (Math.abs(lat) == 90 && lon > 0) continue;
+                double a = Math.toRadians(lat), b = Math.toRadians(lon);
+                grid.add(new double[]{Math.cos(a) * Math.cos(b), Math.cos(a) * Math.sin(b), Math.sin(a)});
+            }
+        }
+
+        DelaunayTetrahedralization tetrahedralization = new DelaunayTetrahedralization();
+        for (int seed = 0; seed < 30; seed++) {
+            Random random = new Random(seed);
+            int n = 28 + random.nextInt(38);
+            double[] xyz = new double[n * 3];
+            Set<List<Double>> distinct = new HashSet<List<Double>>();
+            for (int i = 0; i < n; i++) {
+                double[] p = grid.get(random.nextInt(grid.size()));
+                for (int k = 0; k < 3; k++) {
+                    int ulp = random.nextInt(4);
+                    xyz[3 * i + k] = ulp == 1 ? Math.nextUp(p[k]) : ulp == 2 ? -Math.nextUp(-p[k]) : p[k];
+                }
+                distinct.add(key(xyz, i));
+            }
+
+            tetrahedralization.tetrahedralize(xyz, 0, n);
+
+            int[] tetrahedra = tetrahedralization.getTetrahedra();
+            Set<List<Double>> vertices = new HashSet<List<Double>>();
+            for (int t = 0; t < tetrahedra.length / 4; t++) {
+                double[] c = new double[12];
+                for (int i = 0; i < 4; i++) {
+                    System.arraycopy(xyz, 3 * tetrahedra[4 * t + i], c, 3 * i, 3);
+                    vertices.add(key(xyz, tetrahedra[4 * t + i]));
+                }
+                Assert.assertTrue(DelaunayTetrahedralization.orient(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8], c[9], c[10], c[11]) > 0);
+            }
+            Assert.assertEquals(distinct, vertices);
+        }
+    }
+
+    @Test
+    public void testDegenerate() {
+        DelaunayTetrahedralization tetrahedralization = new DelaunayTetrahedralization();
+        Assert.assertEquals(0, tetrahedralization.tetrahedralize(new ArrayList<Vector3>()));
+
+        // Coplanar points
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 10; i++) {
+            points.add(new Vector3(i, i * i, 0));
+        }
+        Assert.assertEquals(0, tetrahedralization.tetrahedralize(points));
+        Assert.assertEquals(-1, tetrahedralization.locate(1, 1, 0));
+
+        points.add(new Vector3(1, 1, 1));
+        Assert.assertTrue(tetrahedralization.tetrahedralize(points) > 0);
+        assertValid(tetrahedralization, points, -1);
+    }
+
+    private static void assertValid(DelaunayTetrahedralization tetrahedralization, List<Vector3> points, double volume) {
+        int[] tetrahedra = tetrahedralization.getTetrahedra();
+        int[] neighbors = tetrahedralization.getNeighbors();
+
+        double sum = 0;
+        for (int t = 0; t < tetrahedra.length / 4; t++) {
+            double v = volume(points, tetrahedra, t, 3, Vector3d.x(points.get(tetrahedra[4 * t + 3])),
+                    Vector3d.y(points.get(tetrahedra[4 * t + 3])), Vector3d.z(points.get(tetrahedra[4 * t + 3])));
+            Assert.assertTrue(v > 0);
+            sum += v / 6;
+
+            for (int i = 0; i < 4; i++) {
+                int n = neighbors[4 * t + i];
+                if (n < 0) continue;
+                boolean back = false;
+                for (int j = 0; j < 4; j++) {
+                    back |= neighbors[4 * n + j] == t;
+                }
+                Assert.assertTrue(back);
+            }
+        }
+        if (volume > 0) {
+            Assert.assertEquals(volume, sum, 1e-6);
+        }
+    }
+
+    private static void assertEmptySpheres(DelaunayTetrahedralization tetrahedralization, List<Vector3> points) {
+        int[] tetrahedra = tetrahedralization.getTetrahedra();
+        for (int t = 0; t < tetrahedra.length / 4; t++) {
+            Vector3 a = points.get(tetrahedra[4 * t]);
+            Vector3 b = points.get(tetrahedra[4 * t + 1]);
+            Vector3 c = points.get(tetrahedra[4 * t + 2]);
+            Vector3 d = points.get(tetrahedra[4 * t + 3]);
+            double[] center = circumcenter(a, b, c, d);
+            double r2 = dst2(center, a);
+            for (Vector3 p : points) {
+                Assert.assertTrue(dst2(center, p) >= r2 * (1 - 1e-9));
+            }
+        }
+    }
+
+    /**
+     * every distinct point is a vertex (the first of duplicated points).
+     */
+    private static void assertAllVertices(DelaunayTetrahedralization tetrahedralization, List<Vector3> points) {
+        Set<Vector3> vertices = new HashSet<Vector3>();
+        for (int index : tetrahedralization.getTetrahedra()) {
+            vertices.add(points.get(index));
+        }
+        Assert.assertEquals(new HashSet<Vector3>(points), vertices);
+    }
+
+    private static List<Double> key(double[] xyz, int i) {
+        return Arrays.asList(xyz[3 * i], xyz[3 * i + 1], xyz[3 * i + 2]);
+    }
+
+    private static double volume(List<Vector3> points, int[] tetrahedra, int t, int corner, double x, double y, double z) {
+        double[] c = new double[12];
+        for (int i = 0; i < 4; i++) {
+            Vector3 p = points.get(tetrahedra[4 * t + i]);
+            c[3 * i] = i == corner ? x : Vector3d.x(p);
+            c[3 * i + 1] = i == corner ? y : Vector3d.y(p);
+            c[3 * i + 2] = i == corner ? z : Vector3d.z(p);
+        }
+        return DelaunayTetrahedralization.orient(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8], c[9], c[10], c[11]);
+    }
+
+    private static double[] circumcenter(Vector3 a, Vector3 b, Vector3 c, Vector3 d) {
+        double[][] m = new double[3][4];
+        Vector3[] q = {b, c, d};
+        for (int i = 0; i < 3; i++) {
+            double x = q[i].x - a.x, y = q[i].y - a.y, z = q[i].z - a.z;
+            m[i][0] = 2 * x;
+            m[i][1] = 2 * y;
+            m[i][2] = 2 * z;
+            m[i][3] = x * x + y * y + z * z;
+        }
+        double det = det(m, -1);
+        return new double[]{a.x + det(m, 0) / det, a.y + det(m, 1) / det, a.z + det(m, 2) / det};
+    }
+
+    // Cramer's rule, the column replaced by the right hand side
+    private static double det(double[][] m, int column) {
+        double[][] r = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                r[i][j] = j == column ? m[i][3] : m[i][j];
+            }
+        }
+        return r[0][0] * (r[1][1] * r[2][2] - r[1][2] * r[2][1])
+                - r[0][1] * (r[1][0] * r[2][2] - r[1][2] * r[2][0])
+                + r[0][2] * (r[1][0] * r[2][1] - r[1][1] * r[2][0]);
+    }
+
+    private static double dst2(double[] center, Vector3 p) {
+        double x = p.x - center[0], y = p.y - center[1], z = p.z - center[2];
+        return x * x + y * y + z * z;
+    }
+
+}
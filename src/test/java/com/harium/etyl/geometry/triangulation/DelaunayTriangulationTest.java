@@ -9,7 +9,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 public class DelaunayTriangulationTest {
 
@@ -77,4 +83,273 @@ public class DelaunayTriangulationTest {
         Assert.assertEquals(1, triangles.size());
     }
 
+    @Test
+    public void findNearestVertexTest() {
+        final List<Vector3> pointCloud = randomPoints(500, 1);
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        delaunay.triangulate(pointCloud);
+
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            final Vector3 q = new Vector3(random.nextFloat() * 140 - 20, random.nextFloat() * 140 - 20, 0);
+
+            List<Vector3> expected = new ArrayList<Vector3>(pointCloud);
+            Collections.sort(expected, new Comparator<Vector3>() {
+                public int compare(Vector3 o1, Vector3 o2) {
+                    return Float.compare(o1.dst2(q.x, q.y, o1.z), o2.dst2(q.x, q.y, o2.z));
+                }
+            });
+
+            Assert.assertSame(expected.get(0), delaunay.findNearestVertex(q));
+
+            List<Vector3> nearest = new ArrayList<Vector3>();
+            Assert.assertEquals(8, delaunay.findNearestVertices(q, 8, nearest));
+            Assert.assertEquals(expected.subList(0, 8), nearest);
+        }
+    }
+
+    @Test
+    public void convexHullTest() {
+        final List<Vector3> pointCloud = randomPoints(300, 3);
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+
+        for (int i = 0; i < pointCloud.size(); i++) {
+            delaunay.insertPoint(pointCloud.get(i));
+            if (i < 2) {
+                continue;
+            }
+
+            int expected = convexHull(pointCloud.subList(0, i + 1)).size();
+            Assert.assertEquals(expected, delaunay.convexHullSize());
+
+            // The edges form a closed clockwise ring
+            Iterator<Triangle> edges = delaunay.getConvexHullEdgesIterator();
+            Triangle first = edges.next(), last = first;
+            int count = 1;
+            while (edges.hasNext()) {
+                Triangle edge = edges.next();
+                Assert.assertTrue(edge.isHalfplane());
+                Assert.assertSame(last.p2(), edge.p1());
+                last = edge;
+                count++;
+            }
+            Assert.assertSame(last.p2(), first.p1());
+            Assert.assertEquals(expected, count);
+        }
+
+        List<Vector3> hull = new ArrayList<Vector3>();
+        Iterator<Vector3> it = delaunay.getConvexHullVerticesIterator();
+        while (it.hasNext()) {
+            hull.add(it.next());
+        }
+        List<Vector3> expected = convexHull(pointCloud);
+        Collections.reverse(expected);
+        int offset = expected.indexOf(hull.get(0));
+        Collections.rotate(expected, -offset);
+        Assert.assertEquals(expected, hull);
+    }
+
+    /**
+     * Andrew's monotone chain, counterclockwise.
+     */
+    private static List<Vector3> convexHull(List<Vector3> points) {
+        List<Vector3> sorted = new ArrayList<Vector3>(points);
+        Collections.sort(sorted, new Comparator<Vector3>() {
+            public int compare(Vector3 o1, Vector3 o2) {
+                return o1.x != o2.x ? Float.compare(o1.x, o2.x) : Float.compare(o1.y, o2.y);
+            }
+        });
+
+        List<Vector3> hull = new ArrayList<Vector3>();
+        for (int pass = 0; pass < 2; pass++) {
+            int start = hull.size();
+            for (Vector3 p : sorted) {
+                while (hull.size() >= start + 2 && cross(hull.get(hull.size() - 2), hull.get(hull.size() - 1), p) <= 0) {
+                    hull.remove(hull.size() - 1);
+                }
+                hull.add(p);
+            }
+            hull.remove(hull.size() - 1);
+            Collections.reverse(sorted);
+        }
+        return hull;
+    }
+
+    private static double cross(Vector3 o, Vector3 a, Vector3 b) {
+        return (double) (a.x - o.x) * (b.y - o.y) - (double) (a.y - o.y) * (b.x - o.x);
+    }
+
+    @Test
+    public void triangulateArraysTest() {
+        final List<Vector3> pointCloud = randomPoints(200, 4);
+        // A duplicated point
+        pointCloud.add(pointCloud.get(10));
+
+        float[] xyz = new float[2 + pointCloud.size() * 3];
+        double[] x = new double[pointCloud.size()], y = new double[pointCloud.size()];
+        for (int i = 0; i < pointCloud.size(); i++) {
+            Vector3 p = pointCloud.get(i);
+            xyz[2 + i * 3] = p.x;
+            xyz[2 + i * 3 + 1] = p.y;
+            xyz[2 + i * 3 + 2] = p.z;
+            x[i] = p.x;
+            y[i] = p.y;
+        }
+
+        List<Triangle> triangles = new DelaunayTriangulation().triangulate(pointCloud);
+        int[] indices = new DelaunayTriangulation().triangulate(xyz, 2, pointCloud.size());
+        int[] doubleIndices = new DelaunayTriangulation().triangulate(x, y, null, 0, pointCloud.size());
+
+        Assert.assertEquals(triangles.size() * 3, indices.length);
+        Assert.assertArrayEquals(indices, doubleIndices);
+
+        for (int i = 0; i < triangles.size(); i++) {
+            Triangle t = triangles.get(i);
+            Assert.assertSame(t.a, pointCloud.get(indices[i * 3]));
+            Assert.assertSame(t.b, pointCloud.get(indices[i * 3 + 1]));
+            Assert.assertSame(t.c, pointCloud.get(indices[i * 3 + 2]));
+        }
+
+        Assert.assertEquals(0, new DelaunayTriangulation().triangulate(new float[]{0, 0, 0, 1, 1, 1}, 0, 2).length);
+    }
+
+    @Test
+    public void visitEdgesTest() {
+        final List<Vector3> pointCloud = randomPoints(400, 6);
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        delaunay.triangulate(pointCloud);
+
+        final Set<String> edges = new HashSet<String>();
+        final int[] hull = {0};
+        int count = delaunay.visitEdges(new EdgeVisitor() {
+            public boolean visit(Vector3 a, Vector3 b, Triangle left, Triangle right) {
+                Assert.assertTrue(edges.add(a + "-" + b) && !edges.contains(b + "-" + a));
+                // a, b counterclockwise in left, b, a in right
+                Assert.assertSame(b, left.cornerAfter(a));
+                if (right.isHalfplane()) {
+                    hull[0]++;
+                } else {
+                    Assert.assertSame(a, right.cornerAfter(b));
+                }
+                return true;
+            }
+        });
+
+        // Euler: 3 n - 3 - h edges
+        Assert.assertEquals(delaunay.convexHullSize(), hull[0]);
+        Assert.assertEquals(3 * delaunay.size() - 3 - hull[0], count);
+        Assert.assertEquals(count, edges.size());
+
+        // The visitor can stop the visit
+        Assert.assertEquals(5, delaunay.visitEdges(new EdgeVisitor() {
+            int left = 5;
+
+            public boolean visit(Vector3 a, Vector3 b, Triangle l, Triangle r) {
+                return --left > 0;
+            }
+        }));
+    }
+
+    @Test(timeout = 30000)
+    public void thinTrianglesTest() {
+        // Random order builds long thin triangles along the hull, their float circumcircles are too coarse
+        Random random = new Random(5);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 20000; i++) {
+            points.add(new Vector3(random.nextFloat() * 1000, random.nextFloat() * 1000, 0));
+        }
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        List<Triangle> triangles = delaunay.triangulate(points);
+
+        // Locally Delaunay: no neighbor has its opposite vertex inside the circumcircle
+        int hullEdges = 0, flips = 0;
+        for (Triangle t : triangles) {
+            for (Triangle u : new Triangle[]{t.next_12(), t.next_23(), t.next_31()}) {
+                if (u.isHalfplane()) {
+                    hullEdges++;
+                } else if (t.circumcircleContains(apex(u, t))) {
+                    flips++;
+                }
+            }
+        }
+        Assert.assertEquals(0, flips);
+        // Euler: 2 n - 2 - h triangles
+        Assert.assertEquals(2 * points.size() - 2 - hullEdges, triangles.size());
+    }
+
+    @Test
+    public void cachedPlanesTest() {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        List<Vector3> points = randomPoints(400, 11);
+        Random random = new Random(4);
+        float[] queries = new float[200];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = 20 + random.nextFloat() * 60;
+        }
+
+        // The planes are cached by the first queries, the insertions flip the triangles
+        for (int k = 0; k < 2; k++) {
+            for (Vector3 p : points.subList(200 * k, 200 * k + 200)) {
+                delaunay.insertPoint(p);
+            }
+            for (int i = 0; i < queries.length; i += 2) {
+                float x = queries[i], y = queries[i + 1];
+                Triangle t = delaunay.find(new Vector3(x, y, 0));
+                Assert.assertEquals(barycentric(t, x, y), delaunay.z(x, y), 1e-3);
+                Assert.assertEquals(delaunay.z(x, y), delaunay.z((double) x, (double) y), 1e-9);
+                Assert.assertEquals(delaunay.z(x, y), t.z_value(new Vector3(x, y, 0)), 1e-3);
+            }
+        }
+    }
+
+    @Test
+    public void zOutsideHullTest() {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        delaunay.insertPoint(new Vector3(0, 0, 1));
+        delaunay.insertPoint(new Vector3(10, 0, 2));
+        delaunay.insertPoint(new Vector3(0, 10, 3));
+        Assert.assertEquals(1.75, delaunay.z(2.5f, 2.5f), 1e-6);
+
+        // Both precisions fail the same way outside the convex hull, as the half planes do
+        for (int k = 0; k < 3; k++) {
+            try {
+                if (k == 0) {
+                    delaunay.z(20f, 20f);
+                } else if (k == 1) {
+                    delaunay.z(20.0, 20.0);
+                } else {
+                    delaunay.find(new Vector3(20, 20, 0)).z(20.0, 20.0);
+                }
+                Assert.fail();
+            } catch (RuntimeException expected) {
+            }
+        }
+    }
+
+    private static double barycentric(Triangle t, double x, double y) {
+        Vector3 a = t.getA(), b = t.getB(), c = t.getC();
+        double d = (b.y - c.y) * (a.x - c.x) + (c.x - b.x) * (a.y - c.y);
+        double u = ((b.y - c.y) * (x - c.x) + (c.x - b.x) * (y - c.y)) / d;
+        double v = ((c.y - a.y) * (x - c.x) + (a.x - c.x) * (y - c.y)) / d;
+        return u * a.z + v * b.z + (1 - u - v) * c.z;
+    }
+
+    /**
+     * returns the vertex of u that is not a corner of its neighbor t.
+     */
+    private static Vector3 apex(Triangle u, Triangle t) {
+        if (!t.isCorner(u.getA())) return u.getA();
+        if (!t.isCorner(u.getB())) return u.getB();
+        return u.getC();
+    }
+
+    private static List<Vector3> randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 10));
+        }
+        return points;
+    }
+
 }
@@ -0,0 +1,130 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class DistributedTriangulationTest {
+
+    @Test
+    public void testInProcessWorkers() throws IOException {
+        Random random = new Random(3);
+        float[] xyz = new float[3 * 4000];
+        for (int i = 0; i < xyz.length; i += 3) {
+            xyz[i] = random.nextFloat() * 1000;
+            xyz[i + 1] = random.nextFloat() * 800;
+            xyz[i + 2] = random.nextFloat();
+        }
+
+        List<WorkerConnection> workers = new ArrayList<WorkerConnection>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                workers.add(WorkerConnection.inProcess());
+            }
+            DistributedTriangulation distributed = new DistributedTriangulation(4, 4, 10);
+            assertGlobal(xyz, distributed.triangulate(points(xyz), workers));
+
+            // The connections can be reused
+            assertGlobal(xyz, new DistributedTriangulation(2, 3, 0).triangulate(points(xyz), workers));
+        } finally {
+            for (WorkerConnection worker : workers) {
+                worker.close();
+            }
+        }
+    }
+
+    @Test
+    public void testLocalProcess() throws IOException {
+        Random random = new Random(8);
+        float[] xyz = new float[3 * 500];
+        for (int i = 0; i < xyz.length; i++) {
+            xyz[i] = random.nextFloat() * 100;
+        }
+
+        WorkerConnection worker = WorkerConnection.localProcess();
+        try {
+            int[] triangles = new DistributedTriangulation(3, 2, 5).triangulate(points(xyz), Arrays.asList(worker));
+            assertGlobal(xyz, triangles);
+        } finally {
+            worker.close();
+        }
+    }
+
+    @Test
+    public void testMalformedMessages() throws IOException {
+        // A tile outside of its grid
+        assertRejected(tile(4, 4, 4, 0), -1);
+        // A negative number of points
+        assertRejected(tile(4, 4, 1, 2), -1);
+        // A point count past the end of the stream
+        assertRejected(tile(4, 4, 1, 2), Integer.MAX_VALUE);
+    }
+
+    private static ByteArrayOutputStream tile(int columns, int rows, int column, int row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.write(TriangulationWorker.TILE);
+        output.writeDouble(0);
+        output.writeDouble(0);
+        output.writeDouble(100);
+        output.writeDouble(100);
+        output.writeInt(columns);
+        output.writeInt(rows);
+        output.writeInt(column);
+        output.writeInt(row);
+        output.writeDouble(5);
+        output.writeBoolean(false);
+        return bytes;
+    }
+
+    private static void assertRejected(ByteArrayOutputStream tile, int pointCount) throws IOException {
+        DataOutputStream output = new DataOutputStream(tile);
+        output.write(TriangulationWorker.POINTS);
+        output.writeInt(pointCount);
+        try {
+            new TriangulationWorker().serve(new ByteArrayInputStream(tile.toByteArray()), new ByteArrayOutputStream());
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private static List<Vector3> points(float[] xyz) {
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < xyz.length; i += 3) {
+            points.add(new Vector3(xyz[i], xyz[i + 1], xyz[i + 2]));
+        }
+        return points;
+    }
+
+    private static void assertGlobal(float[] xyz, int[] triangles) {
+        int[] expected = new DelaunayTriangulation().triangulate(xyz, 0, xyz.length / 3);
+        Assert.assertEquals(expected.length, triangles.length);
+
+        Set<String> keys = new HashSet<String>();
+        for (int i = 0; i < expected.length; i += 3) {
+            keys.add(key(expected, i));
+        }
+        for (int i = 0; i < triangles.length; i += 3) {
+            Assert.assertTrue(keys.remove(key(triangles, i)));
+        }
+        Assert.assertTrue(keys.isEmpty());
+    }
+
+    private static String key(int[] triangles, int i) {
+        int[] corners = Arrays.copyOfRange(triangles, i, i + 3);
+        Arrays.sort(corners);
+        return Arrays.toString(corners);
+    }
+
+}
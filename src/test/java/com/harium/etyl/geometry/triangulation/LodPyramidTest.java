@@ -0,0 +1,134 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class LodPyramidTest {
+
+    private DelaunayTriangulation base;
+    private LodPyramid pyramid;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(5);
+        base = new DelaunayTriangulation();
+        for (int i = 0; i < 3000; i++) {
+            float x = random.nextFloat() * 200;
+            float y = random.nextFloat() * 200;
+            base.insertPoint(new Vector3(x, y, (float) (20 * Math.sin(x * 0.05) * Math.cos(y * 0.03)) + random.nextFloat()));
+        }
+
+        pyramid = LodPyramid.build(base, 8, 4, 2, 1);
+    }
+
+    @Test
+    public void testLevels() {
+        Assert.assertEquals(5, pyramid.getLevelCount());
+        Assert.assertSame(base, pyramid.getLevel(4).getTriangulation());
+
+        float[] errors = {8, 4, 2, 1, 0};
+        for (int i = 0; i < pyramid.getLevelCount(); i++) {
+            LodPyramid.Level level = pyramid.getLevel(i);
+            Assert.assertTrue(level.getError() <= errors[i]);
+            assertMaxError(level);
+
+            if (i > 0) {
+                DelaunayTriangulation coarser = pyramid.getLevel(i - 1).getTriangulation();
+                Assert.assertTrue(coarser.size() < level.getTriangulation().size());
+
+                // The levels are nested
+                Iterator<Vector3> it = coarser.verticesIterator();
+                while (it.hasNext()) {
+                    Vector3 p = it.next();
+                    Assert.assertSame(p, level.getTriangulation().findNearestVertex(p));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLinks() {
+        for (int i = 1; i < pyramid.getLevelCount(); i++) {
+            LodPyramid.Level coarser = pyramid.getLevel(i - 1);
+            LodPyramid.Level finer = pyramid.getLevel(i);
+
+            int children = 0;
+            for (int t = 0; t < coarser.getTriangles().size(); t++) {
+                for (int c = 0; c < coarser.getChildCount(t); c++) {
+                    Assert.assertEquals(t, finer.getParent(coarser.getChild(t, c)));
+                    children++;
+                }
+            }
+            Assert.assertEquals(finer.getTriangles().size(), children);
+
+            for (int t = 0; t < finer.getTriangles().size(); t++) {
+                Triangle triangle = finer.getTriangles().get(t);
+                Vector3 centroid = new Vector3(triangle.a).add(triangle.b).add(triangle.c).scl(1 / 3f);
+                Triangle parent = coarser.getTriangles().get(finer.getParent(t));
+                Assert.assertTrue(parent.contains(centroid));
+            }
+        }
+
+        Assert.assertEquals(-1, pyramid.getLevel(0).getParent(0));
+        Assert.assertEquals(0, pyramid.getLevel(4).getChildCount(0));
+    }
+
+    @Test
+    public void testIndexOf() {
+        LodPyramid.Level level = pyramid.getLevel(1);
+        List<Triangle> triangles = level.getTriangles();
+        Assert.assertEquals(7, level.indexOf(triangles.get(7)));
+        Assert.assertEquals(-1, level.indexOf(pyramid.getLevel(0).getTriangles().get(0)));
+
+        // A range search reuses the marks of the triangles
+        level.getTriangulation().findTriangles(0, 0, 200, 200, new ArrayList<Triangle>());
+        for (int i = 0; i < triangles.size(); i++) {
+            Assert.assertEquals(i, level.indexOf(triangles.get(i)));
+        }
+    }
+
+    @Test
+    public void testFinestTolerance() {
+        // A tolerance that keeps every vertex ends the levels, the base level meets it
+        LodPyramid exact = LodPyramid.build(base, 8, 0, 0);
+        Assert.assertEquals(2, exact.getLevelCount());
+        Assert.assertSame(base, exact.getLevel(1).getTriangulation());
+    }
+
+    @Test
+    public void testSelectLevel() {
+        Assert.assertSame(pyramid.getLevel(0), pyramid.selectLevel(0.1, 1));
+        Assert.assertSame(pyramid.getLevel(4), pyramid.selectLevel(1000, 1));
+
+        LodPyramid.Level level = pyramid.selectLevel(1, 3);
+        Assert.assertTrue(level.getError() <= 3);
+        int index = pyramid.getLevels().indexOf(level);
+        Assert.assertTrue(index == 0 || pyramid.getLevel(index - 1).getError() > 3);
+
+        // Farther away needs less detail
+        LodPyramid.Level near = pyramid.selectLevel(50, Math.PI / 3, 1080, 1);
+        LodPyramid.Level far = pyramid.selectLevel(5000, Math.PI / 3, 1080, 1);
+        Assert.assertTrue(far.getTriangles().size() <= near.getTriangles().size());
+    }
+
+    private void assertMaxError(LodPyramid.Level level) {
+        DelaunayTriangulation triangulation = level.getTriangulation();
+        Iterator<Vector3> it = base.verticesIterator();
+        while (it.hasNext()) {
+            Vector3 p = it.next();
+            Triangle t = triangulation.find(p);
+            if (t.isHalfplane()) {
+                t = t.next_12();
+            }
+            Assert.assertEquals(p.z, t.z_value(p), level.getError() + 0.01f);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+public class MeshExporterTest {
+
+    private MeshExporter exporter;
+
+    @Before
+    public void setUp() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(new Vector3(0, 1, 0));
+        triangulation.insertPoint(new Vector3(2, 0, 0));
+        triangulation.insertPoint(new Vector3(2, 2, 0));
+        triangulation.insertPoint(new Vector3(4, 1, 0));
+        triangulation.insertPoint(new Vector3(2, 1, 1));
+
+        exporter = new MeshExporter(triangulation);
+    }
+
+    @Test
+    public void testExport() {
+        Assert.assertEquals(5, exporter.getVertexCount());
+        Assert.assertEquals(4, exporter.getTriangleCount());
+
+        FloatBuffer vertices = exporter.writeVertices(null);
+        Assert.assertTrue(vertices.isDirect());
+        Assert.assertEquals(15, vertices.remaining());
+        Assert.assertEquals(0, vertices.get(0), 0);
+        Assert.assertEquals(1, vertices.get(1), 0);
+
+        IntBuffer indices = exporter.writeIndices((IntBuffer) null);
+        Assert.assertEquals(12, indices.remaining());
+
+        int[] uses = new int[5];
+        for (int i = 0; i < 12; i += 3) {
+            int a = indices.get(i), b = indices.get(i + 1), c = indices.get(i + 2);
+            uses[a]++;
+            uses[b]++;
+            uses[c]++;
+
+            // Counterclockwise
+            float cross = (vertices.get(b * 3) - vertices.get(a * 3)) * (vertices.get(c * 3 + 1) - vertices.get(a * 3 + 1)) -
+                    (vertices.get(b * 3 + 1) - vertices.get(a * 3 + 1)) * (vertices.get(c * 3) - vertices.get(a * 3));
+            Assert.assertTrue(cross > 0);
+        }
+        // The center vertex (2, 1) is used by every triangle
+        Assert.assertEquals(4, uses[2]);
+
+        ShortBuffer shorts = exporter.writeIndices((ShortBuffer) null);
+        for (int i = 0; i < 12; i++) {
+            Assert.assertEquals(indices.get(i), shorts.get(i));
+        }
+    }
+
+    @Test
+    public void testReuseBuffers() {
+        FloatBuffer buffer = FloatBuffer.allocate(64);
+        buffer.position(10);
+        Assert.assertSame(buffer, exporter.writeVertices(buffer, true));
+        Assert.assertEquals(30, buffer.remaining());
+
+        // The center vertex normal points up
+        Assert.assertEquals(0, buffer.get(2 * 6 + 3), 1e-6);
+        Assert.assertEquals(0, buffer.get(2 * 6 + 4), 1e-6);
+        Assert.assertEquals(1, buffer.get(2 * 6 + 5), 1e-6);
+
+        FloatBuffer small = FloatBuffer.allocate(4);
+        FloatBuffer normals = exporter.writeNormals(small);
+        Assert.assertNotSame(small, normals);
+        Assert.assertEquals(15, normals.remaining());
+        for (int i = 0; i < 15; i += 3) {
+            Assert.assertEquals(1, Math.sqrt(normals.get(i) * normals.get(i) + normals.get(i + 1) * normals.get(i + 1) + normals.get(i + 2) * normals.get(i + 2)), 1e-6);
+            Assert.assertTrue(normals.get(i + 2) > 0);
+        }
+    }
+
+    @Test
+    public void testDoublePrecision() {
+        // Far from the origin a float step is 1, the spacing is a quarter of it
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                triangulation.insertPoint(1e7 + i * 0.25, 1e7 + j * 0.25, 0.5 * i * 0.25);
+            }
+        }
+        MeshExporter far = new MeshExporter(triangulation);
+        Assert.assertEquals(16, far.getVertexCount());
+        Assert.assertEquals(18, far.getTriangleCount());
+
+        // The plane z = x / 2
+        FloatBuffer normals = far.writeNormals(null);
+        for (int i = 0; i < 48; i += 3) {
+            Assert.assertEquals(-0.5 / Math.sqrt(1.25), normals.get(i), 1e-6);
+            Assert.assertEquals(0, normals.get(i + 1), 1e-6);
+            Assert.assertEquals(1 / Math.sqrt(1.25), normals.get(i + 2), 1e-6);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testTriangulate() {
+        Random random = new Random(7);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 500; i++) {
+            points.add(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, 0));
+        }
+
+        MetricsRecorder recorder = new MetricsRecorder();
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.setMetrics(recorder);
+        triangulation.triangulate(points);
+
+        Assert.assertEquals(500, recorder.getInsertions());
+        Assert.assertTrue(recorder.getFlips() > 0);
+        Assert.assertTrue(recorder.getInCircleTests() >= recorder.getFlips());
+        Assert.assertTrue(recorder.getOrientationTests() > 0);
+        // The first three points are inserted before the walk starts
+        Assert.assertEquals(497, recorder.getWalkCount());
+        Assert.assertEquals(0, recorder.getDegeneracies(TriangulationMetrics.Degeneracy.COLLINEAR));
+
+        long walks = 0;
+        for (long count : recorder.getWalkHistogram()) {
+            walks += count;
+        }
+        Assert.assertEquals(recorder.getWalkCount(), walks);
+
+        Assert.assertTrue(recorder.getPhases().containsKey(TriangulationMetrics.PHASE_INSERT));
+        Assert.assertTrue(recorder.getPhases().containsKey(TriangulationMetrics.PHASE_TRIANGLES));
+
+        recorder.reset();
+        Assert.assertEquals(0, recorder.getInsertions());
+        Assert.assertTrue(recorder.getPhases().isEmpty());
+    }
+
+    @Test
+    public void testCollinear() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.setMetrics(recorder);
+        triangulation.insertPoint(new Vector3(0, 0, 0));
+        triangulation.insertPoint(new Vector3(4, 0, 0));
+        triangulation.insertPoint(new Vector3(2, 0, 0));
+        triangulation.insertPoint(new Vector3(6, 0, 0));
+        Assert.assertEquals(2, recorder.getDegeneracies(TriangulationMetrics.Degeneracy.COLLINEAR));
+
+        // The first point off the line ends the collinear phase
+        triangulation.insertPoint(new Vector3(1, 1, 0));
+        triangulation.insertPoint(new Vector3(3, 0, 0));
+        Assert.assertEquals(2, recorder.getDegeneracies(TriangulationMetrics.Degeneracy.COLLINEAR));
+    }
+
+    @Test
+    public void testHullEdge() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.setMetrics(recorder);
+        triangulation.insertPoint(new Vector3(0, 0, 0));
+        triangulation.insertPoint(new Vector3(4, 0, 0));
+        triangulation.insertPoint(new Vector3(0, 4, 0));
+        triangulation.insertPoint(new Vector3(2, 0, 0));
+
+        Assert.assertEquals(1, recorder.getDegeneracies(TriangulationMetrics.Degeneracy.ON_HULL_EDGE));
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class NaturalNeighborInterpolationTest {
+
+    private DelaunayTriangulation plane;
+
+    private DelaunayTriangulation bump;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(12);
+        plane = new DelaunayTriangulation();
+        bump = new DelaunayTriangulation();
+        for (int i = 0; i < 1000; i++) {
+            float x = random.nextFloat() * 100, y = random.nextFloat() * 100;
+            plane.insertPoint(new Vector3(x, y, 2 * x - 3 * y + 1));
+            bump.insertPoint(new Vector3(x, y, (float) Math.sin(x / 10) * (float) Math.cos(y / 10)));
+        }
+    }
+
+    @Test
+    public void testLinearPrecision() {
+        NaturalNeighborInterpolation interpolation = new NaturalNeighborInterpolation(plane);
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            double x = 10 + random.nextDouble() * 80, y = 10 + random.nextDouble() * 80;
+            Assert.assertEquals(2 * x - 3 * y + 1, interpolation.z(x, y), 1e-3);
+        }
+
+        Vector3 vertex = plane.verticesIterator().next();
+        Assert.assertEquals(vertex.z, interpolation.z(vertex.x, vertex.y), 0);
+        Assert.assertTrue(Double.isNaN(interpolation.z(-10, 50)));
+    }
+
+    @Test
+    public void testBetweenNeighbors() {
+        NaturalNeighborInterpolation interpolation = new NaturalNeighborInterpolation(bump);
+        Random random = new Random(5);
+        double different = 0, error = 0;
+        for (int i = 0; i < 1000; i++) {
+            double x = 10 + random.nextDouble() * 80, y = 10 + random.nextDouble() * 80;
+            double z = interpolation.z(x, y);
+
+            // A convex combination, close to the surface but not the facets of the triangles
+            Assert.assertTrue(Math.abs(z) <= 1.0001);
+            error += Math.abs(Math.sin(x / 10) * Math.cos(y / 10) - z);
+            different = Math.max(different, Math.abs(z - bump.z(x, y)));
+        }
+        Assert.assertTrue(error / 1000 < 0.03);
+        Assert.assertTrue(different > 1e-4);
+    }
+
+    @Test
+    public void testBatch() {
+        NaturalNeighborInterpolation interpolation = new NaturalNeighborInterpolation(bump);
+        Random random = new Random(7);
+        int count = 10000;
+        double[] xy = new double[2 * count];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = random.nextDouble() * 110 - 5;
+        }
+
+        double[] sequential = new double[count];
+        int inside = interpolation.z(xy, count, sequential);
+        Assert.assertTrue(inside > 0 && inside < count);
+
+        double[] parallel = new double[count];
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Assert.assertEquals(inside, interpolation.z(xy, count, parallel, executor));
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(interpolation.z(xy[2 * i], xy[2 * i + 1]), sequential[i], 1e-9);
+            Assert.assertEquals(sequential[i], parallel[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void testAttributes() {
+        VertexAttributes attributes = new VertexAttributes(bump, 2);
+        Iterator<Vector3> it = bump.verticesIterator();
+        while (it.hasNext()) {
+            Vector3 p = it.next();
+            attributes.set(p, p.z, 1);
+        }
+
+        NaturalNeighborInterpolation interpolation = new NaturalNeighborInterpolation(bump);
+        float[] out = new float[2];
+        Assert.assertTrue(interpolation.interpolate(42.5, 17.25, attributes, out, 0));
+        Assert.assertEquals(interpolation.z(42.5, 17.25), out[0], 1e-5);
+        Assert.assertEquals(1, out[1], 1e-5);
+        Assert.assertFalse(interpolation.interpolate(50, 120, attributes, out, 0));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PointCloudReaderTest {
+
+    private PointCloudReader reader;
+
+    @Before
+    public void setUp() {
+        reader = new PointCloudReader();
+    }
+
+    @Test
+    public void testReadTsin() throws IOException {
+        String tsin = "4\n0 1 0\n2 0 0\n2 2 0\n4 1 0\n";
+
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        int count = reader.read(Channels.newChannel(new ByteArrayInputStream(tsin.getBytes())), triangulation);
+
+        Assert.assertEquals(4, count);
+        Assert.assertEquals(4, triangulation.size());
+        Assert.assertEquals(2, triangulation.getTriangles().size());
+    }
+
+    @Test
+    public void testReadCsv() throws IOException {
+        String csv = "x,y,z\r\n1.5,-2e1,3.25\r\n# comment\r\n\r\n-.5;+4;1E-2\r\n7\t8";
+
+        List<Vector3> points = new ArrayList<Vector3>();
+        int count = reader.read(Channels.newChannel(new ByteArrayInputStream(csv.getBytes())), points);
+
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(new Vector3(1.5f, -20f, 3.25f), points.get(0));
+        Assert.assertEquals(new Vector3(-0.5f, 4f, 0.01f), points.get(1));
+        Assert.assertEquals(new Vector3(7f, 8f, 0f), points.get(2));
+    }
+
+    @Test
+    public void testLinesAcrossBuffer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append(i).append(".125 ").append(i * 2).append(" 0.5\n");
+        }
+
+        List<Vector3> points = new ArrayList<Vector3>();
+        PointCloudReader smallReader = new PointCloudReader(32);
+        smallReader.read(Channels.newChannel(new ByteArrayInputStream(builder.toString().getBytes())), points);
+
+        Assert.assertEquals(100, points.size());
+        Assert.assertEquals(new Vector3(99.125f, 198f, 0.5f), points.get(99));
+    }
+
+    @Test
+    public void testWriteAndReadBack() throws IOException {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(new Vector3(0, 1, 0.5f));
+        triangulation.insertPoint(new Vector3(2, 0, 1));
+        triangulation.insertPoint(new Vector3(2, 2, 1.5f));
+        triangulation.insertPoint(new Vector3(4, 1, 2));
+
+        TinWriter writer = new TinWriter();
+
+        ByteArrayOutputStream tsin = new ByteArrayOutputStream();
+        writer.writeTsin(triangulation, Channels.newChannel(tsin));
+
+        DelaunayTriangulation copy = new DelaunayTriangulation();
+        reader.read(Channels.newChannel(new ByteArrayInputStream(tsin.toByteArray())), copy);
+        Assert.assertEquals(triangulation.size(), copy.size());
+
+        ByteArrayOutputStream smf = new ByteArrayOutputStream();
+        writer.writeSmf(triangulation, Channels.newChannel(smf));
+
+        String[] lines = new String(smf.toByteArray()).split("\n");
+        Assert.assertEquals("begin", lines[0]);
+        Assert.assertEquals("v 0.0 1.0 0.5", lines[1]);
+        Assert.assertTrue(lines[5].startsWith("f "));
+        Assert.assertEquals("end", lines[lines.length - 1]);
+        Assert.assertEquals(1 + 4 + 2 + 1, lines.length);
+    }
+
+    @Test
+    public void testPreciseRoundTrip() throws IOException {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(512345.678, 4123456.789, 12.345);
+        triangulation.insertPoint(512346.012, 4123456.789, 12.5);
+        triangulation.insertPoint(512345.678, 4123457.123, 13.25);
+
+        ByteArrayOutputStream tsin = new ByteArrayOutputStream();
+        new TinWriter().writeTsin(triangulation, Channels.newChannel(tsin));
+
+        List<Vector3> points = new ArrayList<Vector3>();
+        reader.setPrecise(true);
+        reader.read(Channels.newChannel(new ByteArrayInputStream(tsin.toByteArray())), points);
+
+        Assert.assertEquals(3, points.size());
+        Assert.assertTrue(points.contains(new Vector3d(512345.678, 4123456.789, 12.345)));
+        Assert.assertTrue(points.contains(new Vector3d(512346.012, 4123456.789, 12.5)));
+        Assert.assertTrue(points.contains(new Vector3d(512345.678, 4123457.123, 13.25)));
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class ProximityGraphTest {
+
+    private ProximityGraph graph;
+    private int n;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(3);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int i = 0; i < 300; i++) {
+            triangulation.insertPoint(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, 0));
+        }
+        graph = new ProximityGraph(triangulation);
+        n = graph.getVertexCount();
+    }
+
+    @Test
+    public void testEdges() {
+        Set<Long> keys = keys(graph.getEdges());
+        // Every edge once
+        Assert.assertEquals(graph.getEdgeCount(), keys.size());
+        Assert.assertTrue(graph.getEdgeCount() > 2 * n);
+    }
+
+    @Test
+    public void testMinimumSpanningTree() {
+        int[] tree = graph.minimumSpanningTree();
+        Assert.assertEquals(2 * (n - 1), tree.length);
+
+        double weight = 0;
+        for (int i = 0; i < tree.length; i += 2) {
+            weight += Math.sqrt(dst2(tree[i], tree[i + 1]));
+        }
+
+        // Prim over the complete graph
+        double expected = 0;
+        boolean[] inTree = new boolean[n];
+        double[] distance = new double[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[0] = 0;
+        for (int k = 0; k < n; k++) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (!inTree[i] && (best < 0 || distance[i] < distance[best])) best = i;
+            }
+            inTree[best] = true;
+            expected += Math.sqrt(distance[best]);
+            for (int i = 0; i < n; i++) {
+                distance[i] = Math.min(distance[i], dst2(best, i));
+            }
+        }
+
+        Assert.assertEquals(expected, weight, 1e-3);
+    }
+
+    @Test
+    public void testGabrielGraph() {
+        Set<Long> expected = new HashSet<Long>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                double d2 = dst2(u, v);
+                boolean empty = true;
+                for (int w = 0; w < n && empty; w++) {
+                    empty = w == u || w == v || dst2(u, w) + dst2(v, w) > d2;
+                }
+                if (empty) expected.add(key(u, v));
+            }
+        }
+        Assert.assertEquals(expected, keys(graph.gabrielGraph()));
+    }
+
+    @Test
+    public void testRelativeNeighborhoodGraph() {
+        Set<Long> expected = new HashSet<Long>();
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                double d2 = dst2(u, v);
+                boolean empty = true;
+                for (int w = 0; w < n && empty; w++) {
+                    empty = w == u || w == v || Math.max(dst2(u, w), dst2(v, w)) >= d2;
+                }
+                if (empty) expected.add(key(u, v));
+            }
+        }
+        Set<Long> rng = keys(graph.relativeNeighborhoodGraph());
+        Assert.assertEquals(expected, rng);
+
+        // Subgraph of the Gabriel graph, supergraph of the spanning tree
+        Assert.assertTrue(keys(graph.gabrielGraph()).containsAll(rng));
+        Assert.assertTrue(rng.containsAll(keys(graph.minimumSpanningTree())));
+    }
+
+    @Test
+    public void testCollinear() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        float[] t = {3, 0, 7, 1, 4};
+        for (float f : t) {
+            triangulation.insertPoint(new Vector3(2 * f, f, 0));
+        }
+        ProximityGraph collinear = new ProximityGraph(triangulation);
+
+        // A path along the line: 0, 1, 3, 4, 7
+        Set<Long> path = keys(new int[]{0, 1, 1, 2, 2, 3, 3, 4});
+        Assert.assertEquals(path, keys(collinear.getEdges()));
+        Assert.assertEquals(8, collinear.minimumSpanningTree().length);
+        Assert.assertEquals(path, keys(collinear.minimumSpanningTree()));
+        Assert.assertEquals(path, keys(collinear.gabrielGraph()));
+        Assert.assertEquals(path, keys(collinear.relativeNeighborhoodGraph()));
+    }
+
+    private double dst2(int u, int v) {
+        Vector3 a = graph.getVertex(u), b = graph.getVertex(v);
+        double dx = a.x - b.x, dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
+    private static Set<Long> keys(int[] edges) {
+        Set<Long> keys = new HashSet<Long>();
+        for (int i = 0; i < edges.length; i += 2) {
+            keys.add(key(edges[i], edges[i + 1]));
+        }
+        return keys;
+    }
+
+    private static long key(int u, int v) {
+        return (long) Math.min(u, v) << 32 | Math.max(u, v);
+    }
+
+}
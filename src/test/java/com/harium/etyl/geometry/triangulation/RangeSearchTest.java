@@ -0,0 +1,135 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import com.harium.etyl.geometry.Circle3;
+import com.harium.etyl.geometry.Polygon;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class RangeSearchTest {
+
+    private DelaunayTriangulation triangulation;
+    private List<Vector3> points;
+    private List<Triangle> triangles;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        points = new ArrayList<Vector3>();
+        for (int i = 0; i < 400; i++) {
+            points.add(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, 0));
+        }
+
+        triangulation = new DelaunayTriangulation();
+        triangles = triangulation.triangulate(points);
+    }
+
+    @Test
+    public void testBox() {
+        assertRegion(new RangeSearch.Box(20, 30, 45, 50));
+        // Center outside of the convex hull
+        assertRegion(new RangeSearch.Box(-50, -50, 10, 10));
+        // Whole triangulation
+        assertRegion(new RangeSearch.Box(-1, -1, 101, 101));
+        // Nothing
+        assertRegion(new RangeSearch.Box(200, 200, 300, 300));
+
+        List<Triangle> result = new ArrayList<Triangle>();
+        Assert.assertEquals(triangles.size(), triangulation.findTriangles(-1, -1, 101, 101, result));
+    }
+
+    @Test
+    public void testCircle() {
+        assertRegion(new RangeSearch.Circle(new Vector3(50, 50, 0), 12));
+        assertRegion(new RangeSearch.Circle(new Vector3(-5, 50, 0), 20));
+
+        List<Vector3> result = new ArrayList<Vector3>();
+        triangulation.findVertices(new Circle3(new Vector3(50, 50, 0), 12), result);
+        for (Vector3 p : result) {
+            Assert.assertTrue(p.dst(50, 50, p.z) <= 12);
+        }
+    }
+
+    @Test
+    public void testPolygon() {
+        // A concave (U shaped) polygon
+        Polygon polygon = new Polygon();
+        polygon.add(10, 10);
+        polygon.add(90, 10);
+        polygon.add(90, 90);
+        polygon.add(70, 90);
+        polygon.add(70, 30);
+        polygon.add(30, 30);
+        polygon.add(30, 90);
+        polygon.add(10, 90);
+
+        assertRegion(RangeSearch.PolygonRegion.of(polygon));
+
+        List<Vector3> result = new ArrayList<Vector3>();
+        triangulation.findVertices(polygon, result);
+        for (Vector3 p : result) {
+            Assert.assertFalse(p.x > 30 && p.x < 70 && p.y > 30);
+        }
+    }
+
+    @Test
+    public void testDoublePrecision() {
+        // Far from the origin a float step is 1, the spacing is a quarter of it
+        DelaunayTriangulation far = new DelaunayTriangulation();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                far.insertPoint(1e7 + i * 0.25, 1e7 + j * 0.25, 0);
+            }
+        }
+
+        List<Vector3> result = new ArrayList<Vector3>();
+        Assert.assertEquals(4, far.findVertices(new RangeSearch.Box(1e7 + 0.2, 1e7 + 0.2, 1e7 + 0.6, 1e7 + 0.6), result));
+        for (Vector3 p : result) {
+            Assert.assertTrue(Vector3d.x(p) > 1e7 + 0.2 && Vector3d.x(p) < 1e7 + 0.6);
+            Assert.assertTrue(Vector3d.y(p) > 1e7 + 0.2 && Vector3d.y(p) < 1e7 + 0.6);
+        }
+
+        // The lower right half of the cell (0.25, 0.25) - (0.5, 0.5)
+        result.clear();
+        far.findVertices(new RangeSearch.TriangleRegion(new Vector3d(1e7 + 0.25, 1e7 + 0.25, 0),
+                new Vector3d(1e7 + 0.5, 1e7 + 0.25, 0), new Vector3d(1e7 + 0.5, 1e7 + 0.5, 0)), result);
+        Assert.assertEquals(3, result.size());
+    }
+
+    private void assertRegion(RangeSearch.Region region) {
+        Set<Triangle> expectedTriangles = new HashSet<Triangle>();
+        for (Triangle t : triangles) {
+            if (region.intersects(t) && region.accepts(t)) {
+                expectedTriangles.add(t);
+            }
+        }
+
+        List<Vector3> expectedVertices = new ArrayList<Vector3>();
+        for (Vector3 p : points) {
+            if (region.contains(p)) {
+                expectedVertices.add(p);
+            }
+        }
+
+        RangeSearch search = new RangeSearch();
+        Triangle start = triangulation.find(region.centerX(), region.centerY());
+
+        List<Triangle> foundTriangles = new ArrayList<Triangle>();
+        search.findTriangles(start, region, -100, foundTriangles);
+        Assert.assertEquals(expectedTriangles.size(), foundTriangles.size());
+        Assert.assertEquals(expectedTriangles, new HashSet<Triangle>(foundTriangles));
+
+        List<Vector3> foundVertices = new ArrayList<Vector3>();
+        search.findVertices(start, region, -200, foundVertices);
+        Assert.assertEquals(expectedVertices.size(), foundVertices.size());
+        Assert.assertEquals(new HashSet<Vector3>(expectedVertices), new HashSet<Vector3>(foundVertices));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SegmentWalkTest {
+
+    private DelaunayTriangulation triangulation;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(11);
+        triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(new Vector3(0, 0, 0));
+        triangulation.insertPoint(new Vector3(100, 0, 0));
+        triangulation.insertPoint(new Vector3(100, 100, 0));
+        triangulation.insertPoint(new Vector3(0, 100, 0));
+        for (int i = 0; i < 500; i++) {
+            triangulation.insertPoint(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 10));
+        }
+    }
+
+    @Test
+    public void testWalkInside() {
+        Vector3 a = new Vector3(3, 7, 0);
+        Vector3 b = new Vector3(91, 84, 0);
+
+        List<Triangle> triangles = new ArrayList<Triangle>();
+        List<double[]> pieces = new ArrayList<double[]>();
+        triangulation.walk(a, b, collect(triangles, pieces));
+
+        Assert.assertEquals(0, pieces.get(0)[0], 0);
+        Assert.assertEquals(1, pieces.get(pieces.size() - 1)[1], 0);
+        for (int i = 1; i < pieces.size(); i++) {
+            Assert.assertEquals(pieces.get(i - 1)[1], pieces.get(i)[0], 0);
+            // Consecutive triangles share an edge (two vertices)
+            Assert.assertEquals(2, triangles.get(i - 1).sharedSegments(triangles.get(i)));
+            // The surface is continuous
+            Assert.assertEquals(pieces.get(i - 1)[3], pieces.get(i)[2], 0.001);
+        }
+
+        // Every sample along the segment falls in a reported triangle
+        Set<Triangle> visited = new HashSet<Triangle>(triangles);
+        for (int i = 0; i <= 1000; i++) {
+            float s = i / 1000f;
+            Vector3 p = new Vector3(a.x + s * (b.x - a.x), a.y + s * (b.y - a.y), 0);
+            Triangle t = triangulation.find(p);
+            Assert.assertTrue(visited.contains(t) || isOnEdge(t, p));
+        }
+
+        for (int i = 0; i < pieces.size(); i++) {
+            double s = pieces.get(i)[0];
+            Assert.assertEquals(triangulation.z(a.x + (float) s * (b.x - a.x), a.y + (float) s * (b.y - a.y)), pieces.get(i)[2], 0.01);
+        }
+    }
+
+    @Test
+    public void testWalkOutside() {
+        List<Triangle> triangles = new ArrayList<Triangle>();
+        List<double[]> pieces = new ArrayList<double[]>();
+        triangulation.walk(new Vector3(-100, 50, 0), new Vector3(300, 50, 0), collect(triangles, pieces));
+
+        // The hull is the square (0, 0) - (100, 100)
+        Assert.assertEquals(0.25, pieces.get(0)[0], 1e-6);
+        Assert.assertEquals(0.5, pieces.get(pieces.size() - 1)[1], 1e-6);
+
+        // Misses the hull
+        Assert.assertEquals(0, triangulation.walk(new Vector3(-100, 50, 0), new Vector3(50, 300, 0), collect(triangles, pieces)));
+    }
+
+    @Test
+    public void testLineOfSight() {
+        DelaunayTriangulation ridge = new DelaunayTriangulation();
+        ridge.insertPoint(new Vector3(0, 0, 0));
+        ridge.insertPoint(new Vector3(10, 0, 0));
+        ridge.insertPoint(new Vector3(10, 10, 0));
+        ridge.insertPoint(new Vector3(0, 10, 0));
+        ridge.insertPoint(new Vector3(5, 5, 10));
+
+        Assert.assertFalse(ridge.isVisible(new Vector3(1, 1, 1), new Vector3(9, 9, 1)));
+        Assert.assertTrue(ridge.isVisible(new Vector3(1, 1, 11), new Vector3(9, 9, 11)));
+        // The surface is 2 units high along y = 9
+        Assert.assertFalse(ridge.isVisible(new Vector3(1, 9, 1), new Vector3(2, 9, 1)));
+        Assert.assertTrue(ridge.isVisible(new Vector3(1, 9, 3), new Vector3(2, 9, 3)));
+        // Standing on the surface
+        Assert.assertTrue(ridge.isVisible(new Vector3(0, 0, 0), new Vector3(10, 0, 0)));
+    }
+
+    private static boolean isOnEdge(Triangle t, Vector3 p) {
+        return RangeSearch.side(t.a, t.b, p.x, p.y) == 0 || RangeSearch.side(t.b, t.c, p.x, p.y) == 0 ||
+                RangeSearch.side(t.c, t.a, p.x, p.y) == 0;
+    }
+
+    private static SegmentVisitor collect(final List<Triangle> triangles, final List<double[]> pieces) {
+        triangles.clear();
+        pieces.clear();
+        return new SegmentVisitor() {
+            public boolean visit(Triangle triangle, double entry, double exit, double entryZ, double exitZ) {
+                triangles.add(triangle);
+                pieces.add(new double[]{entry, exit, entryZ, exitZ});
+                return true;
+            }
+        };
+    }
+
+}
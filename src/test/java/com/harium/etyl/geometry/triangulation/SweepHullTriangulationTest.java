@@ -0,0 +1,144 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SweepHullTriangulationTest {
+
+    @Test
+    public void testSameAsIncremental() {
+        Random random = new Random(11);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Vector3(random.nextFloat() * 1000, random.nextFloat() * 1000, random.nextFloat()));
+        }
+        // Duplicates are ignored
+        points.add(new Vector3(points.get(10)));
+
+        List<Triangle> expected = new DelaunayTriangulation().triangulate(points);
+
+        SweepHullTriangulation triangulation = new SweepHullTriangulation();
+        List<Triangle> triangles = triangulation.triangulate(points);
+
+        Assert.assertEquals(keys(expected), keys(triangles));
+
+        // Point location through the half planes
+        for (int i = 0; i < 100; i++) {
+            Vector3 q = new Vector3(100 + random.nextFloat() * 800, 100 + random.nextFloat() * 800, 0);
+            Triangle t = triangulation.find(q);
+            Assert.assertFalse(t.isHalfplane());
+            Assert.assertTrue(t.contains(q));
+        }
+        Assert.assertTrue(triangulation.find(new Vector3(-10, -10, 0)).isHalfplane());
+    }
+
+    @Test
+    public void testArrays() {
+        Random random = new Random(13);
+        int count = 1000;
+        float[] xyz = new float[count * 3];
+        double[] x = new double[count], y = new double[count];
+        for (int i = 0; i < count; i++) {
+            xyz[3 * i] = random.nextFloat() * 1000;
+            xyz[3 * i + 1] = random.nextFloat() * 1000;
+            xyz[3 * i + 2] = random.nextFloat();
+        }
+        // Duplicates are referenced by their first occurrence
+        xyz[3 * 500] = xyz[3 * 7];
+        xyz[3 * 500 + 1] = xyz[3 * 7 + 1];
+        for (int i = 0; i < count; i++) {
+            x[i] = xyz[3 * i];
+            y[i] = xyz[3 * i + 1];
+        }
+
+        Set<String> expected = keys(new DelaunayTriangulation().triangulate(xyz, 0, count));
+
+        SweepHullTriangulation triangulation = new SweepHullTriangulation();
+        Assert.assertEquals(expected, keys(triangulation.triangulate(xyz, 0, count)));
+        Assert.assertEquals(expected, keys(triangulation.triangulate(x, y, null, 0, count)));
+        // No triangle object was created
+        Assert.assertNull(triangulation.getTriangles());
+    }
+
+    @Test
+    public void testGrid() {
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 30; x++) {
+                points.add(new Vector3(x, y, 0));
+            }
+        }
+
+        List<Triangle> triangles = new SweepHullTriangulation().triangulate(points);
+        // 2 * n - 2 - h triangles, h = 96 hull vertices
+        Assert.assertEquals(2 * 600 - 2 - 96, triangles.size());
+
+        for (Triangle t : triangles) {
+            Assert.assertFalse(t.isHalfplane());
+            for (Vector3 p : points) {
+                Assert.assertFalse(t.circumcircleContains(p) && !t.isCorner(p)
+                        && t.circumcircle().getCenter().dst2(p.x, p.y, 0) < t.circumcircle().getRadius() * t.circumcircle().getRadius() - 1e-3);
+            }
+        }
+    }
+
+    @Test
+    public void testDegenerate() {
+        SweepHullTriangulation triangulation = new SweepHullTriangulation();
+
+        List<Vector3> points = new ArrayList<Vector3>();
+        points.add(new Vector3(0, 0, 0));
+        points.add(new Vector3(1, 1, 0));
+        Assert.assertNull(triangulation.triangulate(points));
+
+        points.add(new Vector3(2, 2, 0));
+        Assert.assertTrue(triangulation.triangulate(points).isEmpty());
+
+        int[] indices = triangulation.triangulate(new float[]{0, 0, 0, 4, 0, 0, 0, 4, 0, 0, 0, 0}, 0, 4);
+        Assert.assertEquals(3, indices.length);
+    }
+
+    private static Set<String> keys(List<Triangle> triangles) {
+        Set<String> keys = new HashSet<String>();
+        for (Triangle t : triangles) {
+            Vector3 a = t.p1(), b = t.p2(), c = t.p3();
+            // Start from the smallest corner
+            while (compare(a, b) > 0 || compare(a, c) > 0) {
+                Vector3 swap = a;
+                a = b;
+                b = c;
+                c = swap;
+            }
+            keys.add(a + " " + b + " " + c);
+        }
+        return keys;
+    }
+
+    private static Set<String> keys(int[] indices) {
+        Set<String> keys = new HashSet<String>();
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = indices[i], b = indices[i + 1], c = indices[i + 2];
+            // Start from the smallest index
+            while (a > b || a > c) {
+                int swap = a;
+                a = b;
+                b = c;
+                c = swap;
+            }
+            keys.add(a + " " + b + " " + c);
+        }
+        return keys;
+    }
+
+    private static int compare(Vector3 a, Vector3 b) {
+        return new PointComparator().compare(a, b);
+    }
+
+}
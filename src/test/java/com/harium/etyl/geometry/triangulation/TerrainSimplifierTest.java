@@ -0,0 +1,83 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TerrainSimplifierTest {
+
+    private static final int WIDTH = 65, HEIGHT = 49;
+
+    @Test
+    public void testPlane() {
+        float[] heights = new float[WIDTH * HEIGHT];
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                heights[row * WIDTH + col] = 0.5f * col - 0.25f * row;
+            }
+        }
+
+        TerrainSimplifier simplifier = new TerrainSimplifier(heights, WIDTH, HEIGHT);
+        Assert.assertEquals(0, simplifier.simplify(0.001f));
+        Assert.assertEquals(4, simplifier.getTriangulation().size());
+    }
+
+    @Test
+    public void testMaxError() {
+        float[] heights = terrain();
+        TerrainSimplifier simplifier = new TerrainSimplifier(heights, WIDTH, HEIGHT, 100, 200, 2);
+
+        simplifier.simplify(2f);
+        int coarse = simplifier.getTriangulation().size();
+        assertMaxError(simplifier, heights, 2f);
+
+        // Refine the same triangulation
+        simplifier.simplify(0.25f);
+        Assert.assertTrue(simplifier.getTriangulation().size() > coarse);
+        Assert.assertTrue(simplifier.getTriangulation().size() < WIDTH * HEIGHT);
+        Assert.assertTrue(simplifier.getError() <= 0.25f);
+        assertMaxError(simplifier, heights, 0.25f);
+
+        Assert.assertEquals(simplifier.getTriangulation().size(), simplifier.getVertices().size());
+    }
+
+    @Test
+    public void testVertexBudget() {
+        TerrainSimplifier simplifier = new TerrainSimplifier(terrain(), WIDTH, HEIGHT);
+        simplifier.simplify(0, 100);
+        Assert.assertEquals(100, simplifier.getTriangulation().size());
+
+        simplifier.simplify(0);
+        Assert.assertEquals(0, simplifier.getError(), 0);
+
+        // A negative tolerance inserts every sample, each one once
+        simplifier.simplify(-1);
+        Assert.assertEquals(WIDTH * HEIGHT, simplifier.getTriangulation().size());
+        Assert.assertEquals(WIDTH * HEIGHT, simplifier.getVertices().size());
+    }
+
+    private static void assertMaxError(TerrainSimplifier simplifier, float[] heights, float maxError) {
+        DelaunayTriangulation triangulation = simplifier.getTriangulation();
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                Vector3 q = new Vector3(100 + col * 2, 200 + row * 2, 0);
+                Triangle t = triangulation.find(q);
+                if (t.isHalfplane()) {
+                    t = t.next_12();
+                }
+                Assert.assertEquals(heights[row * WIDTH + col], t.z_value(q), maxError + 0.001f);
+            }
+        }
+    }
+
+    private static float[] terrain() {
+        float[] heights = new float[WIDTH * HEIGHT];
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                heights[row * WIDTH + col] = (float) (10 * Math.sin(col * 0.15) * Math.cos(row * 0.2) + 0.05 * col * row);
+            }
+        }
+        return heights;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TiledTriangulationTest {
+
+    @Test
+    public void testSameAsGlobal() {
+        Random random = new Random(5);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 5000; i++) {
+            points.add(new Vector3(random.nextFloat() * 1000, random.nextFloat() * 500, 0));
+        }
+
+        final List<TiledTriangulation.Tile> streamed = Collections.synchronizedList(new ArrayList<TiledTriangulation.Tile>());
+        TiledTriangulation tiled = new TiledTriangulation(4, 3, 20);
+        tiled.setListener(new TileListener() {
+            public void tileCompleted(TiledTriangulation.Tile tile) {
+                streamed.add(tile);
+            }
+        });
+        List<TiledTriangulation.Tile> tiles = tiled.triangulate(points);
+
+        Assert.assertEquals(12, tiles.size());
+        Assert.assertEquals(new HashSet<TiledTriangulation.Tile>(tiles), new HashSet<TiledTriangulation.Tile>(streamed));
+        for (TiledTriangulation.Tile tile : tiles) {
+            Assert.assertFalse(tile.getTriangles().isEmpty());
+        }
+
+        assertGlobal(points, tiles);
+    }
+
+    @Test
+    public void testSparseTiles() {
+        // Dense clusters in opposite corners and empty tiles in between, that need points from far away
+        Random random = new Random(9);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 1000; i++) {
+            points.add(new Vector3(random.nextFloat() * 50, random.nextFloat() * 50, 0));
+            points.add(new Vector3(950 + random.nextFloat() * 50, 950 + random.nextFloat() * 50, 0));
+        }
+        points.add(new Vector3(1000, 0, 0));
+        points.add(new Vector3(0, 1000, 0));
+
+        List<TiledTriangulation.Tile> tiles = new TiledTriangulation(5, 5, 1).triangulate(points);
+
+        float maxMargin = 0;
+        for (TiledTriangulation.Tile tile : tiles) {
+            maxMargin = Math.max(maxMargin, tile.getMargin());
+        }
+        Assert.assertTrue(maxMargin > 1);
+
+        assertGlobal(points, tiles);
+    }
+
+    @Test
+    public void testSingleTile() {
+        Random random = new Random(1);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < 300; i++) {
+            points.add(new Vector3(random.nextFloat() * 10, random.nextFloat() * 10, 0));
+        }
+        List<TiledTriangulation.Tile> tiles = new TiledTriangulation(1, 1, 0).triangulate(points);
+        Assert.assertEquals(1, tiles.size());
+        assertGlobal(points, tiles);
+    }
+
+    private static void assertGlobal(List<Vector3> points, List<TiledTriangulation.Tile> tiles) {
+        DelaunayTriangulation global = new DelaunayTriangulation();
+        List<Triangle> expected = global.triangulate(points);
+
+        List<Triangle> triangles = TiledTriangulation.triangles(tiles);
+        Assert.assertEquals(expected.size(), triangles.size());
+
+        Set<String> keys = new HashSet<String>();
+        for (Triangle t : expected) {
+            keys.add(key(t));
+        }
+        for (Triangle t : triangles) {
+            Assert.assertTrue(keys.remove(key(t)));
+        }
+        Assert.assertTrue(keys.isEmpty());
+    }
+
+    private static String key(Triangle t) {
+        List<String> corners = new ArrayList<String>();
+        corners.add(t.getA().x + "," + t.getA().y);
+        corners.add(t.getB().x + "," + t.getB().y);
+        corners.add(t.getC().x + "," + t.getC().y);
+        Collections.sort(corners);
+        return corners.toString();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TrianglePoolTest {
+
+    @Test
+    public void testRecycle() {
+        List<Vector3> points = randomPoints(300, 3);
+
+        DelaunayTriangulation expected = new DelaunayTriangulation();
+        List<Triangle> expectedTriangles = expected.triangulate(points);
+
+        TrianglePool pool = new TrianglePool();
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.setTrianglePool(pool);
+
+        triangulation.triangulate(randomPoints(300, 5));
+        int capacity = pool.capacity();
+        Assert.assertTrue(capacity > 0);
+
+        List<Triangle> triangles = triangulation.triangulate(points);
+        Assert.assertEquals(capacity, pool.capacity());
+        Assert.assertEquals(keys(expectedTriangles), keys(triangles));
+    }
+
+    private static Set<String> keys(List<Triangle> triangles) {
+        Set<String> keys = new HashSet<String>();
+        for (Triangle t : triangles) {
+            // Rotate the corners so the key does not depend on the first vertex
+            Vector3 a = t.p1(), b = t.p2(), c = t.p3();
+            while (a.x > b.x || a.x > c.x || (a.x == b.x && a.y > b.y) || (a.x == c.x && a.y > c.y)) {
+                Vector3 swap = a;
+                a = b;
+                b = c;
+                c = swap;
+            }
+            keys.add(a + " " + b + " " + c);
+        }
+        return keys;
+    }
+
+    private static List<Vector3> randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<Vector3> points = new ArrayList<Vector3>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, 0));
+        }
+        return points;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class Vector3dTest {
+
+    // UTM like coordinates, a float has a resolution of 0.5 m around 4e6
+    private static final double EAST = 500000, NORTH = 4000000;
+
+    @Test
+    public void testLargeCoordinates() {
+        Random random = new Random(13);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+
+        int count = 400;
+        for (int i = 0; i < count; i++) {
+            // Centimeter resolution inside a 4 m square
+            double x = EAST + random.nextInt(400) / 100.0;
+            double y = NORTH + random.nextInt(400) / 100.0;
+            triangulation.insertPoint(x, y, plane(x, y));
+        }
+        // Duplicates (in double precision) are ignored
+        Assert.assertTrue(triangulation.size() > count - 10);
+
+        List<Triangle> triangles = triangulation.getTriangles();
+        Assert.assertEquals(2 * triangulation.size() - 2 - triangulation.convexHullSize(), triangles.size());
+
+        // Empty circumcircles
+        for (Triangle t : triangles) {
+            double area = (Vector3d.x(t.b) - Vector3d.x(t.a)) * (Vector3d.y(t.c) - Vector3d.y(t.a)) -
+                    (Vector3d.y(t.b) - Vector3d.y(t.a)) * (Vector3d.x(t.c) - Vector3d.x(t.a));
+            Assert.assertTrue(area > 0);
+
+            Iterator<Vector3> it = triangulation.verticesIterator();
+            while (it.hasNext()) {
+                Vector3 p = it.next();
+                if (!t.isCorner(p)) {
+                    Assert.assertFalse(t.circumcircleContains(p));
+                }
+            }
+        }
+
+        Assert.assertEquals(plane(EAST + 1.234, NORTH + 2.345), triangulation.z(EAST + 1.234, NORTH + 2.345), 1e-6);
+    }
+
+    @Test
+    public void testPredicates() {
+        Vector3d a = new Vector3d(EAST, NORTH, 0);
+        Vector3d b = new Vector3d(EAST + 0.01, NORTH, 0);
+        Vector3d c = new Vector3d(EAST + 0.005, NORTH + 0.01, 0);
+
+        // The same point as a float
+        Assert.assertEquals(a.x, b.x, 0);
+        Assert.assertEquals(PointLinePosition.LEFT, PointLineTest.pointLineTest(a, b, c));
+        Assert.assertTrue(new PointComparator().compare(a, b) < 0);
+        Assert.assertNotEquals(a, b);
+
+        Triangle triangle = new Triangle(a, b, c);
+        Assert.assertTrue(triangle.contains(new Vector3d(EAST + 0.005, NORTH + 0.002, 0)));
+        Assert.assertFalse(triangle.contains(new Vector3d(EAST + 0.005, NORTH - 0.002, 0)));
+    }
+
+    private static double plane(double x, double y) {
+        return 0.25 * (x - EAST) - 0.5 * (y - NORTH) + 100;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class VertexAttributesTest {
+
+    private static final int COUNT = 500;
+
+    @Test
+    public void testInputOrder() {
+        Random random = new Random(2);
+        float[] xyz = new float[3 * COUNT];
+        float[] values = new float[3 * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            float x = random.nextFloat() * 100, y = random.nextFloat() * 100;
+            xyz[3 * i] = x;
+            xyz[3 * i + 1] = y;
+            xyz[3 * i + 2] = random.nextFloat();
+            attributes(x, y, values, 3 * i);
+        }
+        // The corners, so the raster is inside
+        xyz[0] = xyz[1] = 0;
+        xyz[3] = 100;
+        xyz[4] = 0;
+        xyz[6] = 0;
+        xyz[7] = 100;
+        xyz[9] = xyz[10] = 100;
+        for (int i = 0; i < 4; i++) {
+            attributes(xyz[3 * i], xyz[3 * i + 1], values, 3 * i);
+        }
+
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.triangulate(xyz, 0, COUNT);
+        VertexAttributes attributes = new VertexAttributes(triangulation, 3, values);
+
+        // Linear attributes are reproduced exactly
+        float[] out = new float[3];
+        float[] expected = new float[3];
+        Assert.assertTrue(attributes.interpolate(12.5, 80.25, out, 0));
+        attributes(12.5, 80.25, expected, 0);
+        Assert.assertArrayEquals(expected, out, 1e-3f);
+
+        Assert.assertFalse(attributes.interpolate(-5, 50, out, 0));
+
+        // Batch: one point outside
+        double[] xy = {10, 10, 50, 50, 150, 50, 99, 1};
+        float[] batch = new float[12];
+        Assert.assertEquals(3, attributes.interpolate(xy, 4, batch));
+        Assert.assertTrue(Float.isNaN(batch[6]));
+        for (int i : new int[]{0, 1, 3}) {
+            attributes(xy[2 * i], xy[2 * i + 1], expected, 0);
+            for (int k = 0; k < 3; k++) {
+                Assert.assertEquals(expected[k], batch[3 * i + k], 1e-3f);
+            }
+        }
+
+        // Raster: every cell center inside
+        float[] raster = new float[3 * 20 * 10];
+        Assert.assertEquals(200, attributes.rasterize(0, 0, 5, 20, 10, raster));
+        for (int row = 0; row < 10; row++) {
+            for (int column = 0; column < 20; column++) {
+                attributes(column * 5 + 2.5, row * 5 + 2.5, expected, 0);
+                for (int k = 0; k < 3; k++) {
+                    Assert.assertEquals(expected[k], raster[3 * (row * 20 + column) + k], 1e-3f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInsertedVertices() {
+        Random random = new Random(6);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int i = 0; i < COUNT; i++) {
+            triangulation.insertPoint(new Vector3(random.nextFloat() * 100, random.nextFloat() * 100, 0));
+        }
+
+        VertexAttributes attributes = new VertexAttributes(triangulation, 2);
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            Vector3 p = it.next();
+            attributes.set(p, p.x + p.y, 7);
+        }
+        Assert.assertEquals(-1, attributes.indexOf(new Vector3(-1, -1, 0)));
+
+        // At a vertex, the attributes of the vertex
+        Vector3 vertex = triangulation.verticesIterator().next();
+        float[] out = new float[2];
+        Assert.assertTrue(attributes.interpolate(vertex.x, vertex.y, out, 0));
+        Assert.assertEquals(vertex.x + vertex.y, out[0], 1e-3f);
+
+        for (int i = 0; i < 100; i++) {
+            double x = 20 + random.nextDouble() * 60, y = 20 + random.nextDouble() * 60;
+            Assert.assertTrue(attributes.interpolate(x, y, out, 0));
+            Assert.assertEquals(x + y, out[0], 1e-3);
+            Assert.assertEquals(7, out[1], 1e-5);
+        }
+    }
+
+    private static void attributes(double x, double y, float[] out, int offset) {
+        out[offset] = (float) (2 * x + 3 * y);
+        out[offset + 1] = (float) (x - y);
+        out[offset + 2] = 5;
+    }
+
+}
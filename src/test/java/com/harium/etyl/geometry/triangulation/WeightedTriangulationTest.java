@@ -0,0 +1,222 @@
+package com.harium.etyl.geometry.triangulation;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class WeightedTriangulationTest {
+
+    @Test
+    public void testRegular() {
+        Random random = new Random(8);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        List<WeightedVector3> points = new ArrayList<WeightedVector3>();
+        int rejected = 0;
+        for (int i = 0; i < 1000; i++) {
+            // Radii up to 2, squared radius as weight
+            double r = random.nextDouble() * 2;
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 100;
+            WeightedVector3 p = triangulation.insertPoint(x, y, 0, r * r);
+            if (p == null) {
+                rejected++;
+                p = new WeightedVector3(x, y, 0, r * r);
+            }
+            points.add(p);
+        }
+        Assert.assertTrue(triangulation.isWeighted());
+
+        List<Triangle> triangles = triangulation.getTriangles();
+        // Euler: 2 n - 2 - h triangles
+        Assert.assertEquals(2 * triangulation.size() - 2 - triangulation.convexHullSize(), triangles.size());
+
+        List<Vector3> vertices = new ArrayList<Vector3>();
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            vertices.add(it.next());
+        }
+
+        // No vertex has a power distance to an orthocircle lower than the orthoradius
+        for (Triangle t : triangles) {
+            Assert.assertTrue(t.calcDet() > 0);
+            for (Vector3 v : vertices) {
+                if (!t.isCorner(v)) {
+                    Assert.assertTrue(power(t, v) > -1e-6);
+                }
+            }
+        }
+
+        // The missing points are redundant
+        int redundant = 0;
+        for (WeightedVector3 p : points) {
+            if (vertices.contains(p)) continue;
+            redundant++;
+            Triangle t = triangulation.find(p);
+            Assert.assertFalse(t.isHalfplane());
+            Assert.assertTrue(power(t, p) >= -1e-6);
+        }
+        Assert.assertEquals(points.size() - triangulation.size(), redundant);
+        Assert.assertTrue(rejected > 0 && rejected <= redundant);
+    }
+
+    @Test
+    public void testRedundantVertices() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(0, 0, 0, 0);
+        triangulation.insertPoint(10, 0, 0, 0);
+        triangulation.insertPoint(0, 10, 0, 0);
+        triangulation.insertPoint(10, 10, 0, 0);
+
+        // A light point inside: no power cell
+        Assert.assertNull(triangulation.insertPoint(5, 5, 0, -100));
+        Assert.assertEquals(4, triangulation.size());
+
+        WeightedVector3 light = triangulation.insertPoint(4, 5, 0, 0);
+        Assert.assertNotNull(light);
+        Assert.assertEquals(5, triangulation.size());
+
+        // A heavy point next to it covers its cell
+        Assert.assertNotNull(triangulation.insertPoint(5, 5, 0, 50));
+        Assert.assertEquals(5, triangulation.size());
+
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            Assert.assertNotSame(light, it.next());
+        }
+        Assert.assertEquals(4, triangulation.getTriangles().size());
+        Assert.assertFalse(triangulation.find(new Vector3(4, 5, 0)).isHalfplane());
+    }
+
+    @Test
+    public void testHeavierReplaces() {
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        triangulation.insertPoint(0, 0, 0, 0);
+        triangulation.insertPoint(10, 0, 0, 0);
+        triangulation.insertPoint(0, 10, 0, 0);
+        triangulation.insertPoint(10, 10, 0, 0);
+
+        // A redundant point does not grow the bounding box
+        Assert.assertNull(triangulation.insertPoint(5, 5, 100, -100));
+        Assert.assertEquals(0, triangulation.maxBoundingBox().z, 0);
+
+        WeightedVector3 light = triangulation.insertPoint(4, 5, 0, 1);
+        Assert.assertNotNull(light);
+        // Not heavier: rejected
+        Assert.assertNull(triangulation.insertPoint(4, 5, 0, 1));
+        WeightedVector3 heavy = triangulation.insertPoint(4, 5, 2, 4);
+        Assert.assertNotNull(heavy);
+        Assert.assertEquals(5, triangulation.size());
+        Assert.assertEquals(2, triangulation.maxBoundingBox().z, 0);
+        Assert.assertTrue(triangulation.find(new Vector3(4, 5, 0)).isCorner(heavy));
+
+        // Also on the hull and while all the vertices are collinear
+        Assert.assertNotNull(triangulation.insertPoint(10, 0, 0, 2));
+        assertRegular(triangulation);
+
+        DelaunayTriangulation collinear = new DelaunayTriangulation();
+        collinear.insertPoint(0, 0, 0, 0);
+        collinear.insertPoint(1, 1, 0, 0);
+        Assert.assertNotNull(collinear.insertPoint(0, 0, 0, 1));
+        collinear.insertPoint(2, 0, 0, 0);
+        Assert.assertEquals(3, collinear.size());
+        assertRegular(collinear);
+    }
+
+    @Test
+    public void testRepeatedPositions() {
+        Random random = new Random(6);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int i = 0; i < 1000; i++) {
+            // Few positions, each of them inserted several times with random weights
+            triangulation.insertPoint(random.nextInt(20) * 5, random.nextInt(20) * 5, 0, random.nextDouble() * 4);
+        }
+        assertRegular(triangulation);
+    }
+
+    @Test
+    public void testZeroWeights() {
+        Random random = new Random(2);
+        DelaunayTriangulation delaunay = new DelaunayTriangulation();
+        DelaunayTriangulation regular = new DelaunayTriangulation();
+        for (int i = 0; i < 300; i++) {
+            double x = random.nextInt(100000) / 1000.0, y = random.nextInt(100000) / 1000.0;
+            delaunay.insertPoint(x, y, 0);
+            regular.insertPoint(x, y, 0, 0);
+        }
+
+        Assert.assertEquals(delaunay.size(), regular.size());
+        Assert.assertEquals(keys(delaunay.getTriangles()), keys(regular.getTriangles()));
+    }
+
+    @Test
+    public void testPowerCell() {
+        Random random = new Random(4);
+        DelaunayTriangulation triangulation = new DelaunayTriangulation();
+        for (int i = 0; i < 200; i++) {
+            triangulation.insertPoint(random.nextDouble() * 100, random.nextDouble() * 100, 0, random.nextDouble() * 4);
+        }
+
+        for (Triangle t : triangulation.getTriangles()) {
+            if (t.getA().x < 20 || t.getA().x > 80 || t.getA().y < 20 || t.getA().y > 80) continue;
+
+            Vector3[] cell = triangulation.calcPowerCell(t, t.getA());
+            Assert.assertTrue(cell.length >= 3);
+
+            // The corners are the orthocenters: same power distance to the three vertices
+            Vector3 center = t.circumcenter();
+            Assert.assertEquals(power(center, t.getA()), power(center, t.getB()), 1e-6);
+            Assert.assertEquals(power(center, t.getA()), power(center, t.getC()), 1e-6);
+        }
+    }
+
+    private static void assertRegular(DelaunayTriangulation triangulation) {
+        List<Triangle> triangles = triangulation.getTriangles();
+        Assert.assertEquals(2 * triangulation.size() - 2 - triangulation.convexHullSize(), triangles.size());
+        List<Vector3> vertices = new ArrayList<Vector3>();
+        Iterator<Vector3> it = triangulation.verticesIterator();
+        while (it.hasNext()) {
+            vertices.add(it.next());
+        }
+        for (Triangle t : triangles) {
+            Assert.assertTrue(t.calcDet() > 0);
+            for (Vector3 v : vertices) {
+                if (!t.isCorner(v)) {
+                    Assert.assertTrue(power(t, v) > -1e-6);
+                }
+            }
+        }
+    }
+
+    private static double power(Triangle t, Vector3 p) {
+        // Power of p to the orthocircle, relative to the orthoradius (negative: conflict)
+        Vector3 center = t.circumcenter();
+        return power(center, p) - power(center, t.getA());
+    }
+
+    private static double power(Vector3 center, Vector3 p) {
+        double dx = Vector3d.x(p) - Vector3d.x(center), dy = Vector3d.y(p) - Vector3d.y(center);
+        return dx * dx + dy * dy - WeightedVector3.weight(p);
+    }
+
+    private static List<String> keys(List<Triangle> triangles) {
+        List<String> keys = new ArrayList<String>();
+        for (Triangle t : triangles) {
+            String a = key(t.getA()), b = key(t.getB()), c = key(t.getC());
+            // Same rotation for both triangulations
+            String min = a.compareTo(b) < 0 ? (a.compareTo(c) < 0 ? a : c) : (b.compareTo(c) < 0 ? b : c);
+            keys.add(min == a ? a + b + c : min == b ? b + c + a : c + a + b);
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static String key(Vector3 p) {
+        return "(" + Vector3d.x(p) + "," + Vector3d.y(p) + ")";
+    }
+
+}